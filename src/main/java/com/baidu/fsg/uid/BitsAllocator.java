@@ -21,7 +21,10 @@ import org.springframework.util.Assert;
 
 /**
  * Allocate 64 bits for the UID(long)<br>
- * sign (fixed 1bit) -> deltaSecond -> workerId -> sequence(within the same second)
+ * sign (fixed 1bit) -> deltaTime -> workerId -> sequence(within the same time unit)<p>
+ * 
+ * The delta time is counted by the time unit, which is one of the layout as well. Default as 1000 millis (second),
+ * a smaller unit such as 1 or 10 millis trades the lifetime for the sequence budget spread on finer time
  * 
  * @author yutianbao
  */
@@ -31,6 +34,11 @@ public class BitsAllocator {
      */
     public static final int TOTAL_BITS = 1 << 6;
 
+    /**
+     * Default time unit as second
+     */
+    public static final long DEFAULT_TIME_UNIT_MILLIS = 1000L;
+
     /**
      * Bits for [sign-> second-> workId-> sequence]
      */
@@ -40,9 +48,14 @@ public class BitsAllocator {
     private final int sequenceBits;
 
     /**
-     * Max value for workId & sequence
+     * Time unit of the delta time, unit as millisecond
+     */
+    private final long timeUnitMillis;
+
+    /**
+     * Max value for delta time & workId & sequence
      */
-    private final long maxDeltaSeconds;
+    private final long maxDeltaTime;
     private final long maxWorkerId;
     private final long maxSequence;
 
@@ -53,21 +66,33 @@ public class BitsAllocator {
     private final int workerIdShift;
 
     /**
-     * Constructor with timestampBits, workerIdBits, sequenceBits<br>
+     * Constructor with timestampBits, workerIdBits, sequenceBits, time unit default as second<br>
      * The highest bit used for sign, so <code>63</code> bits for timestampBits, workerIdBits, sequenceBits
      */
     public BitsAllocator(int timestampBits, int workerIdBits, int sequenceBits) {
+        this(timestampBits, workerIdBits, sequenceBits, DEFAULT_TIME_UNIT_MILLIS);
+    }
+
+    /**
+     * Constructor with timestampBits, workerIdBits, sequenceBits and the time unit of timestamp<br>
+     * The highest bit used for sign, so <code>63</code> bits for timestampBits, workerIdBits, sequenceBits
+     * 
+     * @param timeUnitMillis time unit of the delta time, such as 1, 10, 100, 1000 millis
+     */
+    public BitsAllocator(int timestampBits, int workerIdBits, int sequenceBits, long timeUnitMillis) {
         // make sure allocated 64 bits
         int allocateTotalBits = signBits + timestampBits + workerIdBits + sequenceBits;
         Assert.isTrue(allocateTotalBits == TOTAL_BITS, "allocate not enough 64 bits");
+        Assert.isTrue(timeUnitMillis > 0, "time unit must be positive");
 
         // initialize bits
         this.timestampBits = timestampBits;
         this.workerIdBits = workerIdBits;
         this.sequenceBits = sequenceBits;
+        this.timeUnitMillis = timeUnitMillis;
 
         // initialize max value
-        this.maxDeltaSeconds = ~(-1L << timestampBits);
+        this.maxDeltaTime = ~(-1L << timestampBits);
         this.maxWorkerId = ~(-1L << workerIdBits);
         this.maxSequence = ~(-1L << sequenceBits);
 
@@ -77,16 +102,88 @@ public class BitsAllocator {
     }
 
     /**
-     * Allocate bits for UID according to delta seconds & workerId & sequence<br>
+     * Allocate bits for UID according to delta time & workerId & sequence<br>
      * <b>Note that: </b>The highest bit will always be 0 for sign
      * 
-     * @param deltaSeconds
+     * @param deltaTime delta time since epoch, unit as {@link #getTimeUnitMillis()}
      * @param workerId
      * @param sequence
      * @return
      */
-    public long allocate(long deltaSeconds, long workerId, long sequence) {
-        return (deltaSeconds << timestampShift) | (workerId << workerIdShift) | sequence;
+    public long allocate(long deltaTime, long workerId, long sequence) {
+        return (deltaTime << timestampShift) | (workerId << workerIdShift) | sequence;
+    }
+
+    /**
+     * Get the min UID of the delta time, any UID allocated within the delta time is no less than it
+     * 
+     * @param deltaTime delta time since epoch, unit as {@link #getTimeUnitMillis()}
+     * @return min UID
+     */
+    public long minUid(long deltaTime) {
+        return allocate(deltaTime, 0L, 0L);
+    }
+
+    /**
+     * Get the max UID of the delta time, any UID allocated within the delta time is no more than it
+     * 
+     * @param deltaTime delta time since epoch, unit as {@link #getTimeUnitMillis()}
+     * @return max UID
+     */
+    public long maxUid(long deltaTime) {
+        return allocate(deltaTime, maxWorkerId, maxSequence);
+    }
+
+    /**
+     * Get the min UID of the delta time for the specified worker
+     * 
+     * @param deltaTime delta time since epoch, unit as {@link #getTimeUnitMillis()}
+     * @param workerId
+     * @return min UID
+     */
+    public long minUid(long deltaTime, long workerId) {
+        return allocate(deltaTime, workerId, 0L);
+    }
+
+    /**
+     * Get the max UID of the delta time for the specified worker
+     * 
+     * @param deltaTime delta time since epoch, unit as {@link #getTimeUnitMillis()}
+     * @param workerId
+     * @return max UID
+     */
+    public long maxUid(long deltaTime, long workerId) {
+        return allocate(deltaTime, workerId, maxSequence);
+    }
+
+    /**
+     * Extract the delta time from UID, unit as {@link #getTimeUnitMillis()}
+     * 
+     * @param uid
+     * @return delta time
+     */
+    public long extractDeltaTime(long uid) {
+        return (uid >>> timestampShift) & maxDeltaTime;
+    }
+
+    /**
+     * Extract the worker id from UID
+     * 
+     * @param uid
+     * @return worker id
+     */
+    public long extractWorkerId(long uid) {
+        return (uid >>> workerIdShift) & maxWorkerId;
+    }
+
+    /**
+     * Extract the sequence from UID
+     * 
+     * @param uid
+     * @return sequence
+     */
+    public long extractSequence(long uid) {
+        return uid & maxSequence;
     }
     
     /**
@@ -108,8 +205,20 @@ public class BitsAllocator {
         return sequenceBits;
     }
 
+    public long getTimeUnitMillis() {
+        return timeUnitMillis;
+    }
+
+    public long getMaxDeltaTime() {
+        return maxDeltaTime;
+    }
+
+    /**
+     * @deprecated the delta time is in {@link #getTimeUnitMillis()}, use {@link #getMaxDeltaTime()} instead
+     */
+    @Deprecated
     public long getMaxDeltaSeconds() {
-        return maxDeltaSeconds;
+        return getMaxDeltaTime();
     }
 
     public long getMaxWorkerId() {
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+
+/**
+ * Allocate 64 bits for the UID(long) by an ordered list of named fields<br>
+ * sign (fixed 1bit) -> field[0] -> field[1] -> ... -> field[n-1]<p>
+ * 
+ * Compared with {@link BitsAllocator}, which only knows timestamp, workerId and sequence, the fields can be any
+ * layout such as <code>timestamp -> region -> worker -> sequence</code>. The shifts & masks are precomputed, and
+ * {@link #allocate(long[])} & {@link #extract(long, int)} are allocation free. Look up the field index once by
+ * {@link #indexOf(String)}, and use the index on the hot path.<p>
+ * 
+ * A field of 0 bit is allowed as a placeholder, which is always allocated & extracted as 0.
+ */
+public class MultiFieldBitsAllocator {
+
+    /**
+     * Bits for sign, the highest bit is always 0
+     */
+    private final int signBits = 1;
+
+    /**
+     * Field names & bits, from the high to the low
+     */
+    private final String[] fieldNames;
+    private final int[] fieldBits;
+
+    /**
+     * Shift & max value(mask before shifting) for each field
+     */
+    private final int[] shifts;
+    private final long[] maxValues;
+
+    /**
+     * Constructor with the fields from the high to the low. The iteration order of the map is the field order, 
+     * such as {@link java.util.LinkedHashMap}
+     * 
+     * @param fields field name -> bits
+     */
+    public MultiFieldBitsAllocator(Map<String, Integer> fields) {
+        this(fields.keySet().toArray(new String[fields.size()]), toIntArray(fields.values().toArray(new Integer[fields.size()])));
+    }
+
+    /**
+     * Constructor with field names & bits from the high to the low<br>
+     * The highest bit used for sign, so <code>63</code> bits for all the fields
+     * 
+     * @param fieldNames
+     * @param fieldBits
+     */
+    public MultiFieldBitsAllocator(String[] fieldNames, int[] fieldBits) {
+        Assert.isTrue(fieldNames.length == fieldBits.length, "Field names and bits not match");
+        Assert.isTrue(fieldNames.length > 0, "At least one field required");
+
+        // make sure allocated 64 bits
+        int allocateTotalBits = signBits;
+        for (int i = 0; i < fieldBits.length; i++) {
+            Assert.isTrue(fieldBits[i] >= 0, "Bits of field " + fieldNames[i] + " can't be negative");
+            Assert.isTrue(indexOf(fieldNames, fieldNames[i]) == i, "Duplicate field " + fieldNames[i]);
+            allocateTotalBits += fieldBits[i];
+        }
+        Assert.isTrue(allocateTotalBits == BitsAllocator.TOTAL_BITS, "allocate not enough 64 bits");
+
+        this.fieldNames = fieldNames.clone();
+        this.fieldBits = fieldBits.clone();
+
+        // initialize shift & max value from the low to the high
+        this.shifts = new int[fieldBits.length];
+        this.maxValues = new long[fieldBits.length];
+        int shift = 0;
+        for (int i = fieldBits.length - 1; i >= 0; i--) {
+            shifts[i] = shift;
+            maxValues[i] = ~(-1L << fieldBits[i]);
+            shift += fieldBits[i];
+        }
+    }
+
+    /**
+     * Allocate bits for UID according to the field values in order<br>
+     * <b>Note that: </b>The highest bit will always be 0 for sign, values exceed the max are truncated
+     * 
+     * @param values field values, length of field count
+     * @return UID
+     */
+    public long allocate(long[] values) {
+        long uid = 0L;
+        for (int i = 0; i < shifts.length; i++) {
+            uid |= (values[i] & maxValues[i]) << shifts[i];
+        }
+        return uid;
+    }
+
+    /**
+     * Replace the value of the specified field
+     * 
+     * @param uid
+     * @param index field index
+     * @param value
+     * @return UID with the field replaced
+     */
+    public long deposit(long uid, int index, long value) {
+        long mask = maxValues[index] << shifts[index];
+        return (uid & ~mask) | ((value << shifts[index]) & mask);
+    }
+
+    /**
+     * Extract value of the specified field
+     * 
+     * @param uid
+     * @param index field index
+     * @return field value
+     */
+    public long extract(long uid, int index) {
+        return (uid >>> shifts[index]) & maxValues[index];
+    }
+
+    /**
+     * Extract values of all the fields
+     * 
+     * @param uid
+     * @param values the holder to fill in, length of field count at least
+     */
+    public void extract(long uid, long[] values) {
+        for (int i = 0; i < shifts.length; i++) {
+            values[i] = (uid >>> shifts[i]) & maxValues[i];
+        }
+    }
+
+    /**
+     * Get index of the field
+     * 
+     * @param fieldName
+     * @return field index, -1 if not found
+     */
+    public int indexOf(String fieldName) {
+        return indexOf(fieldNames, fieldName);
+    }
+
+    /**
+     * Getters
+     */
+    public int getSignBits() {
+        return signBits;
+    }
+
+    public int getFieldCount() {
+        return fieldNames.length;
+    }
+
+    public String getFieldName(int index) {
+        return fieldNames[index];
+    }
+
+    public int getFieldBits(int index) {
+        return fieldBits[index];
+    }
+
+    public int getShift(int index) {
+        return shifts[index];
+    }
+
+    public long getMaxValue(int index) {
+        return maxValues[index];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("MultiFieldBitsAllocator[signBits=").append(signBits);
+        for (int i = 0; i < fieldNames.length; i++) {
+            builder.append(",").append(fieldNames[i]).append("Bits=").append(fieldBits[i]);
+        }
+
+        return builder.append("]").toString();
+    }
+
+    /**
+     * Index of the name in the array
+     */
+    private static int indexOf(String[] fieldNames, String fieldName) {
+        return Arrays.asList(fieldNames).indexOf(fieldName);
+    }
+
+    /**
+     * Unbox the Integer array
+     */
+    private static int[] toIntArray(Integer[] values) {
+        int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i];
+        }
+        return result;
+    }
+
+}
@@ -15,6 +15,9 @@
  */
 package com.baidu.fsg.uid;
 
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
 import com.baidu.fsg.uid.exception.UidGenerateException;
 
 /**
@@ -32,6 +35,31 @@ public interface UidGenerator {
      */
     long getUID() throws UidGenerateException;
 
+    /**
+     * Get UIDs in a batch
+     *
+     * @param uids array to fill in
+     * @param offset start of the array
+     * @param count count of the UIDs
+     * @throws UidGenerateException
+     */
+    default void getUIDs(long[] uids, int offset, int count) throws UidGenerateException {
+        for (int i = 0; i < count; i++) {
+            uids[offset + i] = getUID();
+        }
+    }
+
+    /**
+     * Get a stream of UIDs, which leases the UIDs by {@link #getUIDs(long[], int, int)} in batches. The stream
+     * splits without generating, so that a parallel stream leases in each task, see {@link UidSpliterator}
+     *
+     * @param count count of the UIDs
+     * @return sequential stream of the UIDs, without encounter order
+     */
+    default LongStream uids(long count) {
+        return StreamSupport.longStream(new UidSpliterator(this, count), false);
+    }
+
     /**
      * Parse the UID into elements which are used to generate the UID. <br>
      * Such as timestamp & workerId & sequence...
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid;
+
+import java.util.concurrent.TimeUnit;
+
+import com.baidu.fsg.uid.utils.DateUtils;
+
+/**
+ * Represents the decoded elements of an UID, such as timestamp & workerId & sequence<p>
+ * 
+ * It is a mutable holder, which can be reused for decoding lots of UIDs without allocation. Such as:
+ * <pre>{@code
+ * UidInfo info = new UidInfo();
+ * for (long uid : uids) {
+ *     uidGenerator.decode(uid, info);
+ *     ... info.getWorkerId() ...
+ * }
+ * }</pre>
+ * 
+ * {@link #appendJson(StringBuilder)} renders the same JSON as {@link UidGenerator#parseUID(long)} without any
+ * formatter, for the cases that still need strings.
+ */
+public class UidInfo {
+
+    /** UID & the elements */
+    private long uid;
+    private long deltaTime;
+    private long timestampMillis;
+    private long regionId;
+    private long workerId;
+    private long sequence;
+
+    /** Layout hints for rendering */
+    private boolean regionEnabled;
+    private long timeUnitMillis = BitsAllocator.DEFAULT_TIME_UNIT_MILLIS;
+
+    /**
+     * Set all the elements, returns this holder
+     */
+    public UidInfo set(long uid, long deltaTime, long timestampMillis, long regionId, long workerId, long sequence) {
+        this.uid = uid;
+        this.deltaTime = deltaTime;
+        this.timestampMillis = timestampMillis;
+        this.regionId = regionId;
+        this.workerId = workerId;
+        this.sequence = sequence;
+        return this;
+    }
+
+    /**
+     * Set the layout hints, returns this holder
+     */
+    public UidInfo setLayout(boolean regionEnabled, long timeUnitMillis) {
+        this.regionEnabled = regionEnabled;
+        this.timeUnitMillis = timeUnitMillis;
+        return this;
+    }
+
+    /**
+     * Append as JSON, sample: <code>{"UID":"...","timestamp":"2017-01-01 00:00:00","workerId":"1","sequence":"0"}</code>
+     * The timestamp is rendered with millis if the time unit is less than a second
+     * 
+     * @param builder
+     * @return the builder
+     */
+    public StringBuilder appendJson(StringBuilder builder) {
+        builder.append("{\"UID\":\"").append(uid).append("\",\"timestamp\":\"");
+        DateUtils.appendDateTime(builder, timestampMillis, timeUnitMillis % 1000 != 0);
+        if (regionEnabled) {
+            builder.append("\",\"regionId\":\"").append(regionId);
+        }
+        return builder.append("\",\"workerId\":\"").append(workerId)
+                      .append("\",\"sequence\":\"").append(sequence).append("\"}");
+    }
+
+    /**
+     * Getters
+     */
+    public long getUid() {
+        return uid;
+    }
+
+    public long getDeltaTime() {
+        return deltaTime;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public long getTimestampSeconds() {
+        return TimeUnit.MILLISECONDS.toSeconds(timestampMillis);
+    }
+
+    public long getRegionId() {
+        return regionId;
+    }
+
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public String toString() {
+        return appendJson(new StringBuilder(128)).toString();
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid;
+
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+import org.springframework.util.Assert;
+
+/**
+ * Represents a {@link Spliterator.OfLong} of a count of UIDs from an {@link UidGenerator}<p>
+ *
+ * The UIDs are leased from the generator by {@link UidGenerator#getUIDs(long[], int, int)} in batches of
+ * {@link #leaseSize}, such as the contiguous sequences of a time unit or a range of the RingBuffer. A split hands over
+ * half of the count not leased yet without generating, so that each fork-join task leases for itself, and contends
+ * on the generator once per batch instead of once per UID.<br>
+ * The UIDs are distinct & sized, but have no encounter order, as the splits lease concurrently
+ */
+public class UidSpliterator implements Spliterator.OfLong {
+
+    /** Constants */
+    public static final int DEFAULT_LEASE_SIZE = 1024;
+    private static final int CHARACTERISTICS = DISTINCT | NONNULL | SIZED | SUBSIZED | IMMUTABLE;
+
+    private final UidGenerator uidGenerator;
+    private final int leaseSize;
+
+    /** Count not leased yet */
+    private long unleased;
+
+    /** UIDs leased, consumed from the position to the limit */
+    private long[] lease;
+    private int position;
+    private int limit;
+
+    /**
+     * Constructor with the generator & the count, leaseSize default as {@value #DEFAULT_LEASE_SIZE}
+     */
+    public UidSpliterator(UidGenerator uidGenerator, long count) {
+        this(uidGenerator, count, DEFAULT_LEASE_SIZE);
+    }
+
+    /**
+     * Constructor with the generator, the count & the lease size
+     *
+     * @param uidGenerator
+     * @param count count of the UIDs
+     * @param leaseSize max count of the UIDs leased at once, a split is no smaller than it
+     */
+    public UidSpliterator(UidGenerator uidGenerator, long count, int leaseSize) {
+        Assert.notNull(uidGenerator, "UidGenerator can't be null!");
+        Assert.isTrue(count >= 0, "Count can't be negative!");
+        Assert.isTrue(leaseSize > 0, "Lease size must be positive!");
+
+        this.uidGenerator = uidGenerator;
+        this.unleased = count;
+        this.leaseSize = leaseSize;
+    }
+
+    @Override
+    public boolean tryAdvance(LongConsumer action) {
+        if (position == limit && !lease()) {
+            return false;
+        }
+
+        action.accept(lease[position++]);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(LongConsumer action) {
+        do {
+            long[] leased = lease;
+            for (int i = position; i < limit; i++) {
+                action.accept(leased[i]);
+            }
+            position = limit;
+        } while (lease());
+    }
+
+    @Override
+    public Spliterator.OfLong trySplit() {
+        if (unleased < leaseSize << 1) {
+            return null;
+        }
+
+        long half = unleased >>> 1;
+        unleased -= half;
+        return new UidSpliterator(uidGenerator, half, leaseSize);
+    }
+
+    @Override
+    public long estimateSize() {
+        return unleased + (limit - position);
+    }
+
+    @Override
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+
+    /**
+     * Lease the next batch from the generator
+     *
+     * @return false if all leased
+     */
+    private boolean lease() {
+        if (unleased == 0) {
+            return false;
+        }
+
+        int size = (int) Math.min(unleased, leaseSize);
+        if (lease == null) {
+            lease = new long[size];
+        }
+
+        uidGenerator.getUIDs(lease, 0, size);
+        unleased -= size;
+        position = 0;
+        limit = size;
+        return true;
+    }
+
+}
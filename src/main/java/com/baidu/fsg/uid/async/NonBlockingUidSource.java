@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.async;
+
+import com.baidu.fsg.uid.exception.UidGenerateException;
+
+/**
+ * Represents a source of UIDs which never blocks the caller, such as waiting for the next time unit or an empty
+ * RingBuffer. The caller retries after the delay returned by {@link #tryGetUIDs(long[], int, int)} when no UID is
+ * available for now. The delay is returned to each caller instead of kept by the source, so that the concurrent
+ * callers never see the delay of one another
+ */
+public interface NonBlockingUidSource {
+
+    /**
+     * Try to get UIDs without blocking
+     *
+     * @param uids array to fill in
+     * @param offset start of the array
+     * @param length max count of the UIDs, positive
+     * @return count of the UIDs filled in if positive, otherwise the negated millis to wait before retrying as no UID
+     *         is available for now
+     * @throws UidGenerateException if the UIDs can't be generated any more, such as the clock moved backwards
+     */
+    int tryGetUIDs(long[] uids, int offset, int length) throws UidGenerateException;
+
+}
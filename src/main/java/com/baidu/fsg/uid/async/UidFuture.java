@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.async;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.baidu.fsg.uid.exception.UidGenerateException;
+
+/**
+ * Represents a {@link CompletableFuture} of one UID from a {@link NonBlockingUidSource}<p>
+ *
+ * The UID is tried on the caller thread first, and the future completes at once if available. Otherwise the retries
+ * are scheduled on the executor, so the future completes on the executor thread, and the dependent stages should not
+ * block it. A cancelled future stops retrying
+ */
+public class UidFuture extends CompletableFuture<Long> implements Runnable {
+
+    private final NonBlockingUidSource uidSource;
+    private final ScheduledExecutorService executor;
+    private final long[] uidHolder = new long[1];
+
+    /**
+     * Constructor with the source & the executor of the retries
+     */
+    private UidFuture(NonBlockingUidSource uidSource, ScheduledExecutorService executor) {
+        this.uidSource = uidSource;
+        this.executor = executor;
+    }
+
+    /**
+     * Try to get a UID on the caller thread, and retry on the executor if not available
+     *
+     * @param uidSource
+     * @param executor executor of the retries
+     * @return future of the UID, completed exceptionally by {@link UidGenerateException}
+     */
+    public static UidFuture submit(NonBlockingUidSource uidSource, ScheduledExecutorService executor) {
+        UidFuture future = new UidFuture(uidSource, executor);
+        future.run();
+        return future;
+    }
+
+    @Override
+    public void run() {
+        if (isDone()) {
+            return;
+        }
+
+        try {
+            int count = uidSource.tryGetUIDs(uidHolder, 0, 1);
+            if (count == 1) {
+                complete(uidHolder[0]);
+            } else {
+                executor.schedule(this, -count, TimeUnit.MILLISECONDS);
+            }
+        } catch (UidGenerateException e) {
+            completeExceptionally(e);
+        } catch (Exception e) {
+            completeExceptionally(new UidGenerateException(e));
+        }
+    }
+
+}
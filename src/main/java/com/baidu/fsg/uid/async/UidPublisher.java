@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.async;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import com.baidu.fsg.uid.exception.UidGenerateException;
+
+/**
+ * Represents an endless reactive streams {@link Publisher} of UIDs from a {@link NonBlockingUidSource}<p>
+ *
+ * The demand of <code>request(n)</code> is drained in batches of {@link #batchSize} on the executor, the subscriber
+ * thread calling request is never blocked. When no UID is available, the drain is rescheduled after the delay
+ * returned by {@link NonBlockingUidSource#tryGetUIDs} instead of waiting on the executor thread. Each subscription
+ * yields the executor after {@value #MAX_BATCHES_PER_RUN} batches, so that the subscriptions sharing the executor
+ * are served in turn. The stream completes never, and terminates with onError by an {@link UidGenerateException}<p>
+ *
+ * On JDK 9+, <code>org.reactivestreams.FlowAdapters#toFlowPublisher</code> adapts it to a
+ * <code>java.util.concurrent.Flow.Publisher</code>
+ */
+public class UidPublisher implements Publisher<Long> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UidPublisher.class);
+
+    /** Constants */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    private static final int MAX_BATCHES_PER_RUN = 16;
+
+    private final NonBlockingUidSource uidSource;
+    private final ScheduledExecutorService executor;
+    private final int batchSize;
+
+    /**
+     * Constructor with the source & the executor, batchSize default as {@value #DEFAULT_BATCH_SIZE}
+     */
+    public UidPublisher(NonBlockingUidSource uidSource, ScheduledExecutorService executor) {
+        this(uidSource, executor, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructor with the source, the executor & the batch size
+     *
+     * @param uidSource
+     * @param executor executor to drain the demands
+     * @param batchSize max count of the UIDs taken from the source at once
+     */
+    public UidPublisher(NonBlockingUidSource uidSource, ScheduledExecutorService executor, int batchSize) {
+        Assert.notNull(uidSource, "NonBlockingUidSource can't be null!");
+        Assert.notNull(executor, "Executor can't be null!");
+        Assert.isTrue(batchSize > 0, "Batch size must be positive!");
+
+        this.uidSource = uidSource;
+        this.executor = executor;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super Long> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber can't be null");
+        }
+
+        subscriber.onSubscribe(new UidSubscription(subscriber));
+    }
+
+    /**
+     * Subscription drained by one task at most on the executor. The work-in-progress counter is held by the running
+     * or scheduled task, the requests arrived meanwhile are drained by it
+     */
+    private class UidSubscription implements Subscription, Runnable {
+        private final Subscriber<? super Long> subscriber;
+        private final long[] batch = new long[batchSize];
+
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable invalidRequest;
+
+        UidSubscription(Subscriber<? super Long> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Rule 3.9: request must be positive, but was " + n);
+            } else {
+                requested.accumulateAndGet(n, (current, increment) -> {
+                    long demand = current + increment;
+                    return demand < 0 ? Long.MAX_VALUE : demand;
+                });
+            }
+
+            if (wip.getAndIncrement() == 0) {
+                execute(0L);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public void run() {
+            int missed = wip.get();
+            for (;;) {
+                // rescheduled with the work-in-progress held
+                if (drain()) {
+                    return;
+                }
+
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Drain the demand in batches until satisfied, cancelled, or no UID available
+         *
+         * @return true if rescheduled
+         */
+        private boolean drain() {
+            for (int batches = 0; !cancelled; batches++) {
+                if (invalidRequest != null) {
+                    terminate(invalidRequest);
+                    return false;
+                }
+
+                long demand = requested.get();
+                if (demand == 0) {
+                    return false;
+                }
+                if (batches == MAX_BATCHES_PER_RUN) {
+                    return execute(0L);
+                }
+
+                // take a batch, reschedule if not available
+                int count;
+                try {
+                    count = uidSource.tryGetUIDs(batch, 0, (int) Math.min(demand, batchSize));
+                } catch (UidGenerateException e) {
+                    terminate(e);
+                    return false;
+                } catch (Exception e) {
+                    terminate(new UidGenerateException(e));
+                    return false;
+                }
+                if (count < 0) {
+                    return execute(-count);
+                }
+
+                // emit the batch, the UIDs left are discarded once cancelled
+                try {
+                    for (int i = 0; i < count && !cancelled; i++) {
+                        subscriber.onNext(batch[i]);
+                    }
+                } catch (Throwable e) {
+                    LOGGER.error("Subscriber failed onNext, cancel the subscription. ", e);
+                    cancelled = true;
+                    return false;
+                }
+
+                if (demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-count);
+                }
+            }
+
+            return false;
+        }
+
+        /**
+         * Run the drain on the executor after the delay
+         *
+         * @return true if scheduled, false if the executor rejected and the subscription terminated
+         */
+        private boolean execute(long delayMillis) {
+            try {
+                if (delayMillis > 0) {
+                    executor.schedule(this, delayMillis, TimeUnit.MILLISECONDS);
+                } else {
+                    executor.execute(this);
+                }
+                return true;
+            } catch (RejectedExecutionException e) {
+                terminate(new UidGenerateException(e));
+                return false;
+            }
+        }
+
+        /**
+         * Cancel & signal the error to the subscriber
+         */
+        private void terminate(Throwable e) {
+            cancelled = true;
+            subscriber.onError(e);
+        }
+    }
+
+}
@@ -19,6 +19,7 @@ import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -26,12 +27,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
 
+import com.baidu.fsg.uid.BitsAllocator;
+import com.baidu.fsg.uid.metrics.UidMetrics;
 import com.baidu.fsg.uid.utils.NamingThreadFactory;
 import com.baidu.fsg.uid.utils.PaddedAtomicLong;
 
 /**
  * Represents an executor for padding {@link RingBuffer}<br>
- * There are two kinds of executors: one for scheduled padding, the other for padding immediately.
+ * There are two kinds of executors: one for scheduled padding, the other for padding immediately.<br>
+ * Both can run on virtual threads with JDK 21+ and the multi-release jar, otherwise on platform threads
  * 
  * @author yutianbao
  */
@@ -46,20 +50,33 @@ public class BufferPaddingExecutor {
     /** Whether buffer padding is running */
     private final AtomicBoolean running;
 
-    /** We can borrow UIDs from the future, here store the last second we have consumed */
-    private final PaddedAtomicLong lastSecond;
+    /** Whether an async padding is submitted but not started yet */
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+    /** Whether a padding returned as still running, the running one submits another padding at the end */
+    private final AtomicBoolean missed = new AtomicBoolean(false);
+
+    /** We can borrow UIDs from the future, here store the last timestamp we have consumed, since the epoch */
+    private final PaddedAtomicLong lastTimestamp;
+    private final long epochMillis;
+    private final long timeUnitMillis;
 
     /** RingBuffer & BufferUidProvider */
     private final RingBuffer ringBuffer;
     private final BufferedUidProvider uidProvider;
 
-    /** Padding immediately by the thread pool */
+    /** Padding immediately by the thread pool, or a virtual thread per padding */
+    private final boolean virtualThreads;
     private final ExecutorService bufferPadExecutors;
-    /** Padding schedule thread */
-    private final ScheduledExecutorService bufferPadSchedule;
+    /** Padding schedule thread, created on rescheduling at runtime if not using schedule */
+    private ScheduledExecutorService bufferPadSchedule;
+    private ScheduledFuture<?> scheduleFuture;
+    private boolean schedulePaused;
     
     /** Schedule interval Unit as seconds */
-    private long scheduleInterval = DEFAULT_SCHEDULE_INTERVAL;
+    private volatile long scheduleInterval = DEFAULT_SCHEDULE_INTERVAL;
+
+    /** Metrics of the padding runs */
+    private UidMetrics uidMetrics = UidMetrics.NONE;
 
     /**
      * Constructor with {@link RingBuffer} and {@link BufferedUidProvider}, default use schedule
@@ -79,18 +96,53 @@ public class BufferPaddingExecutor {
      * @param usingSchedule
      */
     public BufferPaddingExecutor(RingBuffer ringBuffer, BufferedUidProvider uidProvider, boolean usingSchedule) {
+        this(ringBuffer, uidProvider, usingSchedule, BitsAllocator.DEFAULT_TIME_UNIT_MILLIS);
+    }
+
+    /**
+     * Constructor with {@link RingBuffer}, {@link BufferedUidProvider}, whether use schedule padding and the time unit
+     *
+     * @param ringBuffer {@link RingBuffer}
+     * @param uidProvider {@link BufferedUidProvider}
+     * @param usingSchedule
+     * @param timeUnitMillis time unit of the timestamp provided to {@link BufferedUidProvider}
+     */
+    public BufferPaddingExecutor(RingBuffer ringBuffer, BufferedUidProvider uidProvider, boolean usingSchedule,
+                                 long timeUnitMillis) {
+        this(ringBuffer, uidProvider, usingSchedule, 0L, timeUnitMillis, false);
+    }
+
+    /**
+     * Constructor with {@link RingBuffer}, {@link BufferedUidProvider}, whether use schedule padding, the epoch, the
+     * time unit and whether use virtual threads
+     *
+     * @param ringBuffer {@link RingBuffer}
+     * @param uidProvider {@link BufferedUidProvider}
+     * @param usingSchedule
+     * @param epochMillis epoch of the timestamp provided to {@link BufferedUidProvider}, unit as millisecond
+     * @param timeUnitMillis time unit of the timestamp provided to {@link BufferedUidProvider}
+     * @param virtualThreads whether padding on virtual threads, falls back to platform threads before JDK 21
+     */
+    public BufferPaddingExecutor(RingBuffer ringBuffer, BufferedUidProvider uidProvider, boolean usingSchedule,
+                                 long epochMillis, long timeUnitMillis, boolean virtualThreads) {
+        Assert.isTrue(timeUnitMillis > 0, "Time unit millis must be positive!");
         this.running = new AtomicBoolean(false);
-        this.lastSecond = new PaddedAtomicLong(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+        this.lastTimestamp = new PaddedAtomicLong(Math.floorDiv(System.currentTimeMillis() - epochMillis, timeUnitMillis));
+        this.epochMillis = epochMillis;
+        this.timeUnitMillis = timeUnitMillis;
         this.ringBuffer = ringBuffer;
         this.uidProvider = uidProvider;
 
         // initialize thread pool
-        int cores = Runtime.getRuntime().availableProcessors();
-        bufferPadExecutors = Executors.newFixedThreadPool(cores * 2, new NamingThreadFactory(WORKER_NAME));
+        if (virtualThreads && !PaddingThreads.isVirtualSupported()) {
+            LOGGER.warn("Virtual threads require JDK 21+ and the multi-release jar. Padding by platform threads");
+        }
+        this.virtualThreads = virtualThreads && PaddingThreads.isVirtualSupported();
+        bufferPadExecutors = newWorkerExecutor();
 
         // initialize schedule thread
         if (usingSchedule) {
-            bufferPadSchedule = Executors.newSingleThreadScheduledExecutor(new NamingThreadFactory(SCHEDULE_NAME));
+            bufferPadSchedule = newScheduleExecutor();
         } else {
             bufferPadSchedule = null;
         }
@@ -99,16 +151,86 @@ public class BufferPaddingExecutor {
     /**
      * Start executors such as schedule
      */
-    public void start() {
-        if (bufferPadSchedule != null) {
-            bufferPadSchedule.scheduleWithFixedDelay(() -> paddingBuffer(), scheduleInterval, scheduleInterval, TimeUnit.SECONDS);
+    public synchronized void start() {
+        if (bufferPadSchedule != null && !schedulePaused) {
+            scheduleFuture = bufferPadSchedule.scheduleWithFixedDelay(() -> paddingBuffer(), scheduleInterval,
+                    scheduleInterval, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Reschedule the padding with a new interval at runtime, the schedule thread is created if not using schedule.
+     * The first padding of the new schedule is one interval later
+     * 
+     * @param scheduleInterval unit as seconds
+     */
+    public synchronized void reschedule(long scheduleInterval) {
+        Assert.isTrue(scheduleInterval > 0, "Schedule interval must positive!");
+        Assert.state(!bufferPadExecutors.isShutdown(), "BufferPaddingExecutor is shutdown!");
+        this.scheduleInterval = scheduleInterval;
+
+        if (bufferPadSchedule == null) {
+            bufferPadSchedule = newScheduleExecutor();
+        }
+        cancelSchedule();
+        start();
+        LOGGER.info("Rescheduled padding buffer interval:{}s, paused:{}", scheduleInterval, schedulePaused);
+    }
+
+    /**
+     * Pause the scheduled padding, the padding triggered by the threshold is not affected
+     */
+    public synchronized void pauseSchedule() {
+        schedulePaused = true;
+        cancelSchedule();
+        LOGGER.info("Paused padding buffer schedule");
+    }
+
+    /**
+     * Resume the scheduled padding paused
+     */
+    public synchronized void resumeSchedule() {
+        if (schedulePaused) {
+            schedulePaused = false;
+            start();
+            LOGGER.info("Resumed padding buffer schedule");
+        }
+    }
+
+    /**
+     * Create the executor of padding immediately, a virtual thread per padding or a thread pool of twice the processors
+     */
+    private ExecutorService newWorkerExecutor() {
+        if (virtualThreads) {
+            return PaddingThreads.newVirtualWorkerExecutor(WORKER_NAME);
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        return Executors.newFixedThreadPool(cores * 2, new NamingThreadFactory(WORKER_NAME));
+    }
+
+    /**
+     * Create the executor of the scheduled padding, a single thread
+     */
+    private ScheduledExecutorService newScheduleExecutor() {
+        if (virtualThreads) {
+            return PaddingThreads.newVirtualScheduleExecutor(SCHEDULE_NAME);
+        }
+
+        return Executors.newSingleThreadScheduledExecutor(new NamingThreadFactory(SCHEDULE_NAME));
+    }
+
+    private void cancelSchedule() {
+        if (scheduleFuture != null) {
+            scheduleFuture.cancel(false);
+            scheduleFuture = null;
         }
     }
 
     /**
      * Shutdown executors
      */
-    public void shutdown() {
+    public synchronized void shutdown() {
         if (!bufferPadExecutors.isShutdown()) {
             bufferPadExecutors.shutdownNow();
         }
@@ -128,39 +250,97 @@ public class BufferPaddingExecutor {
     }
 
     /**
-     * Padding buffer in the thread pool
+     * Padding buffer in the thread pool<br>
+     * At most one padding is pending, the takes below the threshold before it starts don't submit any more. Otherwise
+     * each of them pads one more time unit after the buffer is full, and borrows the UIDs from the future for nothing
      */
     public void asyncPadding() {
-        bufferPadExecutors.submit(this::paddingBuffer);
+        if (pending.compareAndSet(false, true)) {
+            bufferPadExecutors.submit(() -> {
+                pending.set(false);
+                paddingBuffer();
+            });
+        }
     }
 
     /**
      * Padding buffer fill the slots until to catch the cursor
      */
     public void paddingBuffer() {
-        LOGGER.info("Ready to padding buffer lastSecond:{}. {}", lastSecond.get(), ringBuffer);
+        LOGGER.info("Ready to padding buffer lastTimestamp:{}. {}", lastTimestamp.get(), ringBuffer);
 
         // is still running
         if (!running.compareAndSet(false, true)) {
+            missed.set(true);
             LOGGER.info("Padding buffer is still running. {}", ringBuffer);
             return;
         }
 
         // fill the rest slots until to catch the cursor
+        uidMetrics.onPaddingStart();
+        long startNanos = System.nanoTime();
+        long firstTimestamp = lastTimestamp.get() + 1;
+        int paddedUids = 0;
         boolean isFullRingBuffer = false;
         while (!isFullRingBuffer) {
-            List<Long> uidList = uidProvider.provide(lastSecond.incrementAndGet());
+            List<Long> uidList = uidProvider.provide(lastTimestamp.incrementAndGet());
             for (Long uid : uidList) {
                 isFullRingBuffer = !ringBuffer.put(uid);
                 if (isFullRingBuffer) {
                     break;
                 }
+                paddedUids++;
             }
         }
 
         // not running now
         running.compareAndSet(true, false);
-        LOGGER.info("End to padding buffer lastSecond:{}. {}", lastSecond.get(), ringBuffer);
+        uidMetrics.onPadding(paddedUids, System.nanoTime() - startNanos, toMillis(firstTimestamp),
+                toMillis(lastTimestamp.get()));
+        LOGGER.info("End to padding buffer lastTimestamp:{}. {}", lastTimestamp.get(), ringBuffer);
+
+        // the takes below the threshold during the end of this padding, pad them once more
+        if (missed.getAndSet(false)) {
+            asyncPadding();
+        }
+    }
+
+    /**
+     * Getters of the schedule
+     */
+    public synchronized boolean isUsingSchedule() {
+        return bufferPadSchedule != null;
+    }
+
+    public synchronized boolean isSchedulePaused() {
+        return schedulePaused;
+    }
+
+    public long getScheduleInterval() {
+        return scheduleInterval;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Getters of the timestamp borrowed
+     */
+    public long getLastTimestamp() {
+        return lastTimestamp.get();
+    }
+
+    public long getTimeUnitMillis() {
+        return timeUnitMillis;
+    }
+
+    public long getLastTimestampMillis() {
+        return toMillis(lastTimestamp.get());
+    }
+
+    private long toMillis(long timestamp) {
+        return epochMillis + timestamp * timeUnitMillis;
     }
 
     /**
@@ -170,5 +350,10 @@ public class BufferPaddingExecutor {
         Assert.isTrue(scheduleInterval > 0, "Schedule interval must positive!");
         this.scheduleInterval = scheduleInterval;
     }
+
+    public void setUidMetrics(UidMetrics uidMetrics) {
+        Assert.notNull(uidMetrics, "UidMetrics can't be null!");
+        this.uidMetrics = uidMetrics;
+    }
     
 }
@@ -26,10 +26,11 @@ import java.util.List;
 public interface BufferedUidProvider {
 
     /**
-     * Provides UID in one second
+     * Provides UID in one time unit
      * 
-     * @param momentInSecond
+     * @param momentInTimeUnit timestamp since the epoch of {@link BufferPaddingExecutor}, unit as the time unit of the
+     *                         layout, such as second
      * @return
      */
-    List<Long> provide(long momentInSecond);
+    List<Long> provide(long momentInTimeUnit);
 }
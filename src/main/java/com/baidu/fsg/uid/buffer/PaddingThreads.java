@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.buffer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Virtual threads of {@link BufferPaddingExecutor}, not supported before JDK 21<br>
+ * This class is replaced in the multi-release jar for JDK 21+, see <code>src/main/java21</code>
+ */
+class PaddingThreads {
+
+    /**
+     * Create the executor of padding immediately on virtual threads, never called unless {@link #isVirtualSupported()}
+     */
+    static ExecutorService newVirtualWorkerExecutor(String name) {
+        throw new UnsupportedOperationException("Virtual threads require JDK 21+");
+    }
+
+    /**
+     * Create the executor of the scheduled padding on a virtual thread, never called unless
+     * {@link #isVirtualSupported()}
+     */
+    static ScheduledExecutorService newVirtualScheduleExecutor(String name) {
+        throw new UnsupportedOperationException("Virtual threads require JDK 21+");
+    }
+
+    /**
+     * Whether the virtual threads are supported
+     */
+    static boolean isVirtualSupported() {
+        return false;
+    }
+
+}
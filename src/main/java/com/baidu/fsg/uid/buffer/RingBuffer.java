@@ -16,11 +16,13 @@
 package com.baidu.fsg.uid.buffer;
 
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
 
+import com.baidu.fsg.uid.metrics.UidMetrics;
 import com.baidu.fsg.uid.utils.PaddedAtomicLong;
 
 /**
@@ -57,8 +59,12 @@ public class RingBuffer {
     /** Cursor: current position sequence to consume */
     private final AtomicLong cursor = new PaddedAtomicLong(START_POINT);
 
-    /** Threshold for trigger padding buffer*/
-    private final int paddingThreshold; 
+    /** Lock of putting. A {@link ReentrantLock} instead of the monitor, which never pins a virtual thread */
+    private final ReentrantLock putLock = new ReentrantLock();
+
+    /** Threshold for trigger padding buffer, adjustable at runtime */
+    private volatile int paddingFactor;
+    private volatile int paddingThreshold;
     
     /** Reject put/take buffer handle policy */
     private RejectedPutBufferHandler rejectedPutHandler = this::discardPutBuffer;
@@ -67,6 +73,9 @@ public class RingBuffer {
     /** Executor of padding buffer */
     private BufferPaddingExecutor bufferPaddingExecutor;
 
+    /** Metrics of the rejections */
+    private UidMetrics uidMetrics = UidMetrics.NONE;
+
     /**
      * Constructor with buffer size, paddingFactor default as {@value #DEFAULT_PADDING_PERCENT}
      * 
@@ -85,22 +94,32 @@ public class RingBuffer {
      *        padding buffer will be triggered when tail-cursor<threshold
      */
     public RingBuffer(int bufferSize, int paddingFactor) {
-        // check buffer size is positive & a power of 2; padding factor in (0, 100)
+        // check buffer size is positive & a power of 2
         Assert.isTrue(bufferSize > 0L, "RingBuffer size must be positive");
         Assert.isTrue(Integer.bitCount(bufferSize) == 1, "RingBuffer size must be a power of 2");
-        Assert.isTrue(paddingFactor > 0 && paddingFactor < 100, "RingBuffer size must be positive");
 
         this.bufferSize = bufferSize;
         this.indexMask = bufferSize - 1;
         this.slots = new long[bufferSize];
         this.flags = initFlags(bufferSize);
         
-        this.paddingThreshold = bufferSize * paddingFactor / 100;
+        setPaddingFactor(paddingFactor);
+    }
+
+    /**
+     * Adjust the padding factor, takes effect on the next take
+     * 
+     * @param paddingFactor percent in (0 - 100)
+     */
+    public void setPaddingFactor(int paddingFactor) {
+        Assert.isTrue(paddingFactor > 0 && paddingFactor < 100, "Padding factor must be in (0, 100)");
+        this.paddingFactor = paddingFactor;
+        this.paddingThreshold = (int) ((long) bufferSize * paddingFactor / 100);
     }
 
     /**
      * Put an UID in the ring & tail moved<br>
-     * We use 'synchronized' to guarantee the UID fill in slot & publish new tail sequence as atomic operations<br>
+     * We use a lock to guarantee the UID fill in slot & publish new tail sequence as atomic operations<br>
      * 
      * <b>Note that: </b> It is recommended to put UID in a serialize way, cause we once batch generate a series UIDs and put
      * the one by one into the buffer, so it is unnecessary put in multi-threads
@@ -108,34 +127,41 @@ public class RingBuffer {
      * @param uid
      * @return false means that the buffer is full, apply {@link RejectedPutBufferHandler}
      */
-    public synchronized boolean put(long uid) {
-        long currentTail = tail.get();
-        long currentCursor = cursor.get();
-
-        // tail catches the cursor, means that you can't put any cause of RingBuffer is full
-        long distance = currentTail - (currentCursor == START_POINT ? 0 : currentCursor);
-        if (distance == bufferSize - 1) {
-            rejectedPutHandler.rejectPutBuffer(this, uid);
-            return false;
+    public boolean put(long uid) {
+        putLock.lock();
+        try {
+            long currentTail = tail.get();
+            long currentCursor = cursor.get();
+
+            // tail catches the cursor, means that you can't put any cause of RingBuffer is full
+            long distance = currentTail - (currentCursor == START_POINT ? 0 : currentCursor);
+            if (distance == bufferSize - 1) {
+                uidMetrics.onRejectedPut();
+                rejectedPutHandler.rejectPutBuffer(this, uid);
+                return false;
+            }
+
+            // 1. pre-check whether the flag is CAN_PUT_FLAG
+            int nextTailIndex = calSlotIndex(currentTail + 1);
+            if (flags[nextTailIndex].get() != CAN_PUT_FLAG) {
+                uidMetrics.onRejectedPut();
+                rejectedPutHandler.rejectPutBuffer(this, uid);
+                return false;
+            }
+
+            // 2. put UID in the next slot
+            // 3. update next slot' flag to CAN_TAKE_FLAG
+            // 4. publish tail with sequence increase by one
+            slots[nextTailIndex] = uid;
+            flags[nextTailIndex].set(CAN_TAKE_FLAG);
+            tail.incrementAndGet();
+
+            // The atomicity of operations above, guarantees by the lock. In another word,
+            // the take operation can't consume the UID we just put, until the tail is published(tail.incrementAndGet())
+            return true;
+        } finally {
+            putLock.unlock();
         }
-
-        // 1. pre-check whether the flag is CAN_PUT_FLAG
-        int nextTailIndex = calSlotIndex(currentTail + 1);
-        if (flags[nextTailIndex].get() != CAN_PUT_FLAG) {
-            rejectedPutHandler.rejectPutBuffer(this, uid);
-            return false;
-        }
-
-        // 2. put UID in the next slot
-        // 3. update next slot' flag to CAN_TAKE_FLAG
-        // 4. publish tail with sequence increase by one
-        slots[nextTailIndex] = uid;
-        flags[nextTailIndex].set(CAN_TAKE_FLAG);
-        tail.incrementAndGet();
-
-        // The atomicity of operations above, guarantees by 'synchronized'. In another word,
-        // the take operation can't consume the UID we just put, until the tail is published(tail.incrementAndGet())
-        return true;
     }
 
     /**
@@ -149,9 +175,14 @@ public class RingBuffer {
      * @throws IllegalStateException if the cursor moved back
      */
     public long take() {
-        // spin get next available cursor
-        long currentCursor = cursor.get();
-        long nextCursor = cursor.updateAndGet(old -> old == tail.get() ? old : old + 1);
+        // spin get next available cursor, the cursor read is the one moved so that a consumer losing the race to the
+        // last UID sees the caught tail instead of taking the UID of the winner
+        long currentCursor;
+        long nextCursor;
+        do {
+            currentCursor = cursor.get();
+            nextCursor = currentCursor == tail.get() ? currentCursor : currentCursor + 1;
+        } while (nextCursor > currentCursor && !cursor.compareAndSet(currentCursor, nextCursor));
 
         // check for safety consideration, it never occurs
         Assert.isTrue(nextCursor >= currentCursor, "Curosr can't move back");
@@ -166,6 +197,7 @@ public class RingBuffer {
 
         // cursor catch the tail, means that there is no more available UID to take
         if (nextCursor == currentCursor) {
+            uidMetrics.onRejectedTake();
             rejectedTakeHandler.rejectTakeBuffer(this);
         }
 
@@ -184,7 +216,50 @@ public class RingBuffer {
     }
 
     /**
-     * Calculate slot index with the slot sequence (sequence % bufferSize) 
+     * Take the UIDs of the ring at the next cursors in a batch, the cursor is moved by the count taken at once<p>
+     *
+     * The padding is triggered as {@link #take()}, while the {@link RejectedTakeBufferHandler} is never applied. An
+     * empty ring takes none, so that the caller can retry later instead of failing
+     *
+     * @param uids array to fill in
+     * @param offset start of the array
+     * @param length max count to take
+     * @return count of the UIDs taken, 0 means there is no more available UID for now
+     */
+    public int take(long[] uids, int offset, int length) {
+        Assert.isTrue(offset >= 0 && length >= 0 && offset <= uids.length - length, "Range out of the array");
+
+        // move the cursor by the available count no more than the length
+        long currentCursor;
+        long nextCursor;
+        do {
+            currentCursor = cursor.get();
+            nextCursor = Math.min(tail.get(), currentCursor + length);
+        } while (nextCursor > currentCursor && !cursor.compareAndSet(currentCursor, nextCursor));
+
+        // trigger padding in an async-mode if reach the threshold
+        long currentTail = tail.get();
+        if (currentTail - nextCursor < paddingThreshold) {
+            LOGGER.info("Reach the padding threshold:{}. tail:{}, cursor:{}, rest:{}", paddingThreshold, currentTail,
+                    nextCursor, currentTail - nextCursor);
+            bufferPaddingExecutor.asyncPadding();
+        }
+
+        // get UIDs & set the flags as CAN_PUT_FLAG one by one, the same as take()
+        int count = (int) (nextCursor - currentCursor);
+        for (int i = 0; i < count; i++) {
+            int cursorIndex = calSlotIndex(currentCursor + 1 + i);
+            Assert.isTrue(flags[cursorIndex].get() == CAN_TAKE_FLAG, "Curosr not in can take status");
+
+            uids[offset + i] = slots[cursorIndex];
+            flags[cursorIndex].set(CAN_PUT_FLAG);
+        }
+
+        return count;
+    }
+
+    /**
+     * Calculate slot index with the slot sequence (sequence % bufferSize)
      */
     protected int calSlotIndex(long sequence) {
         return (int) (sequence & indexMask);
@@ -232,6 +307,14 @@ public class RingBuffer {
         return bufferSize;
     }
 
+    public int getPaddingFactor() {
+        return paddingFactor;
+    }
+
+    public int getPaddingThreshold() {
+        return paddingThreshold;
+    }
+
     /**
      * Setters
      */
@@ -239,6 +322,11 @@ public class RingBuffer {
         this.bufferPaddingExecutor = bufferPaddingExecutor;
     }
 
+    public void setUidMetrics(UidMetrics uidMetrics) {
+        Assert.notNull(uidMetrics, "UidMetrics can't be null!");
+        this.uidMetrics = uidMetrics;
+    }
+
     public void setRejectedPutHandler(RejectedPutBufferHandler rejectedPutHandler) {
         this.rejectedPutHandler = rejectedPutHandler;
     }
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.bulk;
+
+/**
+ * Scalar kernels of {@link BulkUidDecoder}, the loops are kept simple for the JIT auto-vectorization<br>
+ * This class is replaced in the multi-release jar for JDK 21+, see <code>src/main/java21</code>
+ */
+class BulkDecodeKernels {
+
+    /**
+     * Decode the timestamp column: <code>epochMillis + ((uid >>> shift) & mask) * timeUnitMillis</code>
+     */
+    static void decodeTimestamps(long[] uids, int offset, int length, long[] out, int outOffset, int shift, long mask,
+                                 long timeUnitMillis, long epochMillis) {
+        for (int i = 0; i < length; i++) {
+            out[outOffset + i] = epochMillis + ((uids[offset + i] >>> shift) & mask) * timeUnitMillis;
+        }
+    }
+
+    /**
+     * Decode an int column: <code>(uid >>> shift) & mask</code>
+     */
+    static void decodeInts(long[] uids, int offset, int length, int[] out, int outOffset, int shift, long mask) {
+        for (int i = 0; i < length; i++) {
+            out[outOffset + i] = (int) ((uids[offset + i] >>> shift) & mask);
+        }
+    }
+
+    /**
+     * Scalar kernels only
+     */
+    static boolean isVectorized() {
+        return false;
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.bulk;
+
+import org.springframework.util.Assert;
+
+import com.baidu.fsg.uid.BitsAllocator;
+
+/**
+ * Represents a columnar decoder for arrays of UIDs<p>
+ * 
+ * The UIDs are split into the timestamp, workerId and sequence columns by the shifts & masks of
+ * {@link BitsAllocator}. The loops are plain counted loops without branches, which can be auto-vectorized by the JIT.
+ * On JDK 21+ the multi-release jar replaces the kernel with a <code>jdk.incubator.vector</code> implementation
+ * when the module is added by <code>--add-modules jdk.incubator.vector</code>, see {@link #isVectorized()}
+ */
+public class BulkUidDecoder {
+
+    /** Shifts & masks of the layout */
+    private final int timestampShift;
+    private final int workerIdShift;
+    private final long maxDeltaTime;
+    private final long maxWorkerId;
+    private final long maxSequence;
+
+    /** Timestamp = epochMillis + deltaTime * timeUnitMillis */
+    private final long epochMillis;
+    private final long timeUnitMillis;
+
+    /**
+     * Constructor with {@link BitsAllocator} & the epoch
+     * 
+     * @param bitsAllocator layout of the UIDs, worker id bits & sequence bits no more than 31
+     * @param epochMillis customer epoch, unit as millisecond
+     */
+    public BulkUidDecoder(BitsAllocator bitsAllocator, long epochMillis) {
+        Assert.isTrue(bitsAllocator.getWorkerIdBits() < Integer.SIZE, "Worker id bits exceeds an int column");
+        Assert.isTrue(bitsAllocator.getSequenceBits() < Integer.SIZE, "Sequence bits exceeds an int column");
+
+        this.timestampShift = bitsAllocator.getTimestampShift();
+        this.workerIdShift = bitsAllocator.getWorkerIdShift();
+        this.maxDeltaTime = bitsAllocator.getMaxDeltaTime();
+        this.maxWorkerId = bitsAllocator.getMaxWorkerId();
+        this.maxSequence = bitsAllocator.getMaxSequence();
+        this.epochMillis = epochMillis;
+        this.timeUnitMillis = bitsAllocator.getTimeUnitMillis();
+    }
+
+    /**
+     * Decode all the UIDs into the columns
+     * 
+     * @param uids
+     * @param timestamps timestamp column, unit as millisecond
+     * @param workerIds workerId column
+     * @param sequences sequence column
+     */
+    public void decode(long[] uids, long[] timestamps, int[] workerIds, int[] sequences) {
+        decode(uids, 0, uids.length, timestamps, workerIds, sequences, 0);
+    }
+
+    /**
+     * Decode a range of the UIDs into the columns
+     * 
+     * @param uids
+     * @param offset start of the UIDs
+     * @param length count of the UIDs
+     * @param timestamps timestamp column, unit as millisecond
+     * @param workerIds workerId column
+     * @param sequences sequence column
+     * @param columnOffset start of the columns
+     */
+    public void decode(long[] uids, int offset, int length, long[] timestamps, int[] workerIds, int[] sequences,
+                       int columnOffset) {
+        checkRange(uids.length, offset, length);
+        checkRange(timestamps.length, columnOffset, length);
+        checkRange(workerIds.length, columnOffset, length);
+        checkRange(sequences.length, columnOffset, length);
+
+        BulkDecodeKernels.decodeTimestamps(uids, offset, length, timestamps, columnOffset, timestampShift, maxDeltaTime,
+                timeUnitMillis, epochMillis);
+        BulkDecodeKernels.decodeInts(uids, offset, length, workerIds, columnOffset, workerIdShift, maxWorkerId);
+        BulkDecodeKernels.decodeInts(uids, offset, length, sequences, columnOffset, 0, maxSequence);
+    }
+
+    /**
+     * Decode the timestamp column only
+     * 
+     * @param uids
+     * @param timestamps timestamp column, unit as millisecond
+     */
+    public void decodeTimestamps(long[] uids, long[] timestamps) {
+        checkRange(timestamps.length, 0, uids.length);
+        BulkDecodeKernels.decodeTimestamps(uids, 0, uids.length, timestamps, 0, timestampShift, maxDeltaTime,
+                timeUnitMillis, epochMillis);
+    }
+
+    /**
+     * Decode the workerId column only
+     * 
+     * @param uids
+     * @param workerIds workerId column
+     */
+    public void decodeWorkerIds(long[] uids, int[] workerIds) {
+        checkRange(workerIds.length, 0, uids.length);
+        BulkDecodeKernels.decodeInts(uids, 0, uids.length, workerIds, 0, workerIdShift, maxWorkerId);
+    }
+
+    /**
+     * Decode the sequence column only
+     * 
+     * @param uids
+     * @param sequences sequence column
+     */
+    public void decodeSequences(long[] uids, int[] sequences) {
+        checkRange(sequences.length, 0, uids.length);
+        BulkDecodeKernels.decodeInts(uids, 0, uids.length, sequences, 0, 0, maxSequence);
+    }
+
+    /**
+     * Whether the kernels are implemented by the vector API
+     * 
+     * @return true if <code>jdk.incubator.vector</code> is in use
+     */
+    public static boolean isVectorized() {
+        return BulkDecodeKernels.isVectorized();
+    }
+
+    /**
+     * Check the range within the array length
+     */
+    private static void checkRange(int arrayLength, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > arrayLength - length) {
+            throw new ArrayIndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length
+                    + ") out of bounds for length " + arrayLength);
+        }
+    }
+
+}
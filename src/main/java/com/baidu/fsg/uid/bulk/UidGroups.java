@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.bulk;
+
+/**
+ * Represents the UIDs grouped by worker id in the compressed sparse row layout<p>
+ * 
+ * The UIDs of the group <code>g</code> are <code>getUids()[getOffset(g), getOffset(g + 1))</code>, and the groups
+ * are ordered by worker id. The arrays are exposed without copying, and should not be modified
+ */
+public class UidGroups {
+
+    private final long[] workerIds;
+    private final int[] offsets;
+    private final long[] uids;
+
+    /**
+     * Constructor
+     * 
+     * @param workerIds worker ids of the groups, ascending
+     * @param offsets start of each group in the UIDs, with the end at last
+     * @param uids grouped UIDs
+     */
+    public UidGroups(long[] workerIds, int[] offsets, long[] uids) {
+        this.workerIds = workerIds;
+        this.offsets = offsets;
+        this.uids = uids;
+    }
+
+    /**
+     * Count of the groups
+     */
+    public int getGroupCount() {
+        return workerIds.length;
+    }
+
+    /**
+     * Worker id of the group
+     */
+    public long getWorkerId(int group) {
+        return workerIds[group];
+    }
+
+    /**
+     * Start of the group in {@link #getUids()}, or the end of the last group when the group is the count
+     */
+    public int getOffset(int group) {
+        return offsets[group];
+    }
+
+    /**
+     * Count of the UIDs in the group
+     */
+    public int getSize(int group) {
+        return offsets[group + 1] - offsets[group];
+    }
+
+    /**
+     * Getters
+     */
+    public long[] getWorkerIds() {
+        return workerIds;
+    }
+
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    public long[] getUids() {
+        return uids;
+    }
+
+}
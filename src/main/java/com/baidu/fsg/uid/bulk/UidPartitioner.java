@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.bulk;
+
+import org.springframework.util.Assert;
+
+import com.baidu.fsg.uid.BitsAllocator;
+
+/**
+ * Represents a skew free router of UIDs to partitions, such as the shards of tables<p>
+ * 
+ * The UIDs of a burst are a contiguous run of sequence within one timestamp & worker, so <code>uid % N</code> and
+ * the high bits both route a burst to a few hot partitions. Here the fields are extracted by the layout and mixed as
+ * <code>sequence * K1 + workerId * K2 + deltaTime * K3</code> with odd golden ratio constants. A run of any one field
+ * is a Weyl sequence, whose high bits are spread most evenly, so a burst is balanced within one UID per partition
+ * or so. The partition is taken from the high 32 bits by a multiply & shift instead of a division.<p>
+ * 
+ * With {@link Mode#JUMP_CONSISTENT}, the mixed key is finalized and routed by the jump consistent hash of Lamping &
+ * Veach, so only about 1/N of the UIDs move on resharding from N-1 to N partitions.<p>
+ * 
+ * The partitioner is immutable and thread safe
+ */
+public class UidPartitioner {
+
+    /**
+     * Mode of the partition from the mixed key
+     */
+    public enum Mode {
+        /** Multiply & shift the high bits, fastest & most balanced */
+        MULTIPLY_SHIFT,
+        /** Jump consistent hash, stable on resharding */
+        JUMP_CONSISTENT
+    }
+
+    /** Odd constants of the fields, from the golden ratio & its powers */
+    private static final long SEQUENCE_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final long WORKER_MULTIPLIER = 0xC2B2AE3D27D4EB4FL;
+    private static final long TIMESTAMP_MULTIPLIER = 0x165667B19E3779F9L;
+
+    /** Shifts & masks of the layout */
+    private final int timestampShift;
+    private final int workerIdShift;
+    private final long maxWorkerId;
+    private final long maxSequence;
+
+    private final int partitions;
+    private final Mode mode;
+
+    /**
+     * Constructor in {@link Mode#MULTIPLY_SHIFT}
+     * 
+     * @param bitsAllocator layout of the UIDs
+     * @param partitions count of partitions
+     */
+    public UidPartitioner(BitsAllocator bitsAllocator, int partitions) {
+        this(bitsAllocator, partitions, Mode.MULTIPLY_SHIFT);
+    }
+
+    /**
+     * Constructor with the mode
+     * 
+     * @param bitsAllocator layout of the UIDs
+     * @param partitions count of partitions
+     * @param mode
+     */
+    public UidPartitioner(BitsAllocator bitsAllocator, int partitions, Mode mode) {
+        Assert.notNull(bitsAllocator, "BitsAllocator can't be null!");
+        Assert.isTrue(partitions > 0, "Partitions must be positive");
+        Assert.notNull(mode, "Mode can't be null!");
+
+        this.timestampShift = bitsAllocator.getTimestampShift();
+        this.workerIdShift = bitsAllocator.getWorkerIdShift();
+        this.maxWorkerId = bitsAllocator.getMaxWorkerId();
+        this.maxSequence = bitsAllocator.getMaxSequence();
+        this.partitions = partitions;
+        this.mode = mode;
+    }
+
+    /**
+     * Partition of the UID
+     * 
+     * @param uid
+     * @return partition in [0, partitions)
+     */
+    public int partition(long uid) {
+        long key = mix(uid);
+        if (mode == Mode.JUMP_CONSISTENT) {
+            return jumpConsistentHash(finalizeKey(key), partitions);
+        }
+        return (int) (((key >>> 32) * partitions) >>> 32);
+    }
+
+    /**
+     * Partitions of all the UIDs
+     * 
+     * @param uids
+     * @param partitions partition column
+     */
+    public void partition(long[] uids, int[] partitions) {
+        partition(uids, 0, uids.length, partitions, 0);
+    }
+
+    /**
+     * Partitions of a range of the UIDs
+     * 
+     * @param uids
+     * @param offset start of the UIDs
+     * @param length count of the UIDs
+     * @param partitions partition column
+     * @param columnOffset start of the column
+     */
+    public void partition(long[] uids, int offset, int length, int[] partitions, int columnOffset) {
+        Assert.isTrue(offset >= 0 && length >= 0 && offset + length <= uids.length, "UIDs range out of bounds");
+        Assert.isTrue(columnOffset >= 0 && columnOffset + length <= partitions.length, "Column out of bounds");
+
+        if (mode == Mode.JUMP_CONSISTENT) {
+            for (int i = 0; i < length; i++) {
+                partitions[columnOffset + i] = jumpConsistentHash(finalizeKey(mix(uids[offset + i])), this.partitions);
+            }
+            return;
+        }
+
+        // counted loop without branches
+        long count = this.partitions;
+        for (int i = 0; i < length; i++) {
+            partitions[columnOffset + i] = (int) (((mix(uids[offset + i]) >>> 32) * count) >>> 32);
+        }
+    }
+
+    /**
+     * Getters
+     */
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Jump consistent hash of Lamping & Veach
+     * 
+     * @param key
+     * @param buckets count of buckets
+     * @return bucket in [0, buckets)
+     */
+    public static int jumpConsistentHash(long key, int buckets) {
+        long bucket = -1L;
+        long next = 0L;
+        while (next < buckets) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+
+    /**
+     * Mix the fields of the layout
+     */
+    private long mix(long uid) {
+        long sequence = uid & maxSequence;
+        long workerId = (uid >>> workerIdShift) & maxWorkerId;
+        long deltaTime = uid >>> timestampShift;
+        return sequence * SEQUENCE_MULTIPLIER + workerId * WORKER_MULTIPLIER + deltaTime * TIMESTAMP_MULTIPLIER;
+    }
+
+    /**
+     * Avalanche the mixed key for the jump consistent hash, of which the LCG keeps the structure of a Weyl sequence
+     */
+    private static long finalizeKey(long key) {
+        key = (key ^ (key >>> 33)) * 0xFF51AFD7ED558CCDL;
+        return key ^ (key >>> 33);
+    }
+
+}
@@ -0,0 +1,431 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.bulk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.springframework.util.Assert;
+
+import com.baidu.fsg.uid.BitsAllocator;
+import com.baidu.fsg.uid.exception.UidGenerateException;
+
+/**
+ * Represents a layout-aware LSD radix sorter and grouper for arrays of UIDs<p>
+ * 
+ * Only the timestamp, worker id and sequence bits of the layout are populated, and in a batch of generator output
+ * the high timestamp bits & most of the worker id bits are the same. So the sorter takes one pass of OR & AND to find
+ * the varying bits, and only the digits covering them are sorted, each no more than {@value #MAX_DIGIT_BITS} bits.
+ * The histograms of all the digits are counted in one pass, followed by one scatter pass for each digit.<p>
+ * 
+ * {@link #parallelSort(long[], int, int)} counts & scatters the chunks on a {@link ForkJoinPool} for each digit.
+ * {@link #groupByWorker(long[], int, int)} buckets the UIDs by worker id into the primitive {@link UidGroups}.<br>
+ * The sorter is immutable and thread safe
+ */
+public class UidRadixSorter {
+
+    /** Max bits of a digit, the counts of a digit fit in L1 cache */
+    public static final int MAX_DIGIT_BITS = 11;
+
+    /** Arrays smaller than this are sorted by {@link Arrays#sort(long[], int, int)} */
+    private static final int RADIX_THRESHOLD = 1 << 10;
+    /** Min UIDs of a parallel chunk */
+    private static final int PARALLEL_CHUNK = 1 << 15;
+
+    /** Layout of the worker id */
+    private final int workerIdShift;
+    private final long maxWorkerId;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor on the common pool
+     * 
+     * @param bitsAllocator layout of the UIDs
+     */
+    public UidRadixSorter(BitsAllocator bitsAllocator) {
+        this(bitsAllocator, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor with the pool of the parallel variant
+     * 
+     * @param bitsAllocator layout of the UIDs
+     * @param pool
+     */
+    public UidRadixSorter(BitsAllocator bitsAllocator, ForkJoinPool pool) {
+        Assert.notNull(bitsAllocator, "BitsAllocator can't be null!");
+        Assert.notNull(pool, "ForkJoinPool can't be null!");
+        this.workerIdShift = bitsAllocator.getWorkerIdShift();
+        this.maxWorkerId = bitsAllocator.getMaxWorkerId();
+        this.pool = pool;
+    }
+
+    /**
+     * Sort all the UIDs ascending
+     * 
+     * @param uids
+     */
+    public void sort(long[] uids) {
+        sort(uids, 0, uids.length);
+    }
+
+    /**
+     * Sort the range of the UIDs ascending
+     * 
+     * @param uids
+     * @param from inclusive
+     * @param to exclusive
+     */
+    public void sort(long[] uids, int from, int to) {
+        checkRange(uids, from, to);
+        int length = to - from;
+        if (length < RADIX_THRESHOLD) {
+            Arrays.sort(uids, from, to);
+            return;
+        }
+
+        int[] digits = planDigits(varyingBits(uids, from, to));
+        if (digits.length == 0) {
+            return;
+        }
+
+        // histograms of all the digits in one pass
+        int[][] counts = new int[digits.length][];
+        for (int d = 0; d < digits.length; d++) {
+            counts[d] = new int[1 << digitBits(digits[d])];
+        }
+        for (int i = from; i < to; i++) {
+            long key = uids[i] ^ Long.MIN_VALUE;
+            for (int d = 0; d < digits.length; d++) {
+                counts[d][(int) (key >>> digitShift(digits[d])) & (counts[d].length - 1)]++;
+            }
+        }
+
+        // scatter digit by digit between the array & the buffer
+        long[] buffer = new long[length];
+        long[] source = uids;
+        long[] target = buffer;
+        int sourceOffset = from;
+        int targetOffset = 0;
+        for (int d = 0; d < digits.length; d++) {
+            int[] offsets = counts[d];
+            int shift = digitShift(digits[d]);
+            int mask = offsets.length - 1;
+            for (int bucket = 0, sum = targetOffset; bucket < offsets.length; bucket++) {
+                int count = offsets[bucket];
+                offsets[bucket] = sum;
+                sum += count;
+            }
+
+            for (int i = sourceOffset; i < sourceOffset + length; i++) {
+                long uid = source[i];
+                target[offsets[(int) ((uid ^ Long.MIN_VALUE) >>> shift) & mask]++] = uid;
+            }
+
+            long[] swap = source;
+            source = target;
+            target = swap;
+            int swapOffset = sourceOffset;
+            sourceOffset = targetOffset;
+            targetOffset = swapOffset;
+        }
+
+        if (source != uids) {
+            System.arraycopy(source, sourceOffset, uids, from, length);
+        }
+    }
+
+    /**
+     * Sort all the UIDs ascending in parallel
+     * 
+     * @param uids
+     */
+    public void parallelSort(long[] uids) {
+        parallelSort(uids, 0, uids.length);
+    }
+
+    /**
+     * Sort the range of the UIDs ascending in parallel, each digit is counted & scattered by chunks
+     * 
+     * @param uids
+     * @param from inclusive
+     * @param to exclusive
+     */
+    public void parallelSort(long[] uids, int from, int to) {
+        checkRange(uids, from, to);
+        int length = to - from;
+        int chunks = Math.min(pool.getParallelism() * 2, length / PARALLEL_CHUNK);
+        if (chunks < 2) {
+            sort(uids, from, to);
+            return;
+        }
+
+        // varying bits of the chunks
+        int[] bounds = new int[chunks + 1];
+        for (int c = 0; c <= chunks; c++) {
+            bounds[c] = (int) (from + (long) length * c / chunks);
+        }
+        long[] varying = new long[chunks];
+        invokeAll(chunks, c -> varying[c] = varyingBits(uids, bounds[c], bounds[c + 1]));
+
+        long varyingBits = 0L;
+        long first = uids[from];
+        for (int c = 0; c < chunks; c++) {
+            varyingBits |= varying[c] | (uids[bounds[c]] ^ first);
+        }
+        int[] digits = planDigits(varyingBits);
+
+        // count & scatter digit by digit, the chunks keep the stability
+        long[] buffer = new long[length];
+        long[] source = uids;
+        long[] target = buffer;
+        int sourceOffset = from;
+        int targetOffset = 0;
+        for (int d = 0; d < digits.length; d++) {
+            int shift = digitShift(digits[d]);
+            int buckets = 1 << digitBits(digits[d]);
+            int mask = buckets - 1;
+            int[][] offsets = new int[chunks][buckets];
+
+            long[] countSource = source;
+            int delta = sourceOffset - from;
+            invokeAll(chunks, c -> {
+                int[] counts = offsets[c];
+                for (int i = bounds[c] + delta; i < bounds[c + 1] + delta; i++) {
+                    counts[(int) ((countSource[i] ^ Long.MIN_VALUE) >>> shift) & mask]++;
+                }
+            });
+
+            // offsets by bucket, then by chunk
+            int sum = targetOffset;
+            for (int bucket = 0; bucket < buckets; bucket++) {
+                for (int c = 0; c < chunks; c++) {
+                    int count = offsets[c][bucket];
+                    offsets[c][bucket] = sum;
+                    sum += count;
+                }
+            }
+
+            long[] scatterTarget = target;
+            invokeAll(chunks, c -> {
+                int[] positions = offsets[c];
+                for (int i = bounds[c] + delta; i < bounds[c + 1] + delta; i++) {
+                    long uid = countSource[i];
+                    scatterTarget[positions[(int) ((uid ^ Long.MIN_VALUE) >>> shift) & mask]++] = uid;
+                }
+            });
+
+            long[] swap = source;
+            source = target;
+            target = swap;
+            int swapOffset = sourceOffset;
+            sourceOffset = targetOffset;
+            targetOffset = swapOffset;
+        }
+
+        if (source != uids) {
+            System.arraycopy(source, sourceOffset, uids, from, length);
+        }
+    }
+
+    /**
+     * Group all the UIDs by worker id
+     * 
+     * @param uids
+     * @return groups
+     */
+    public UidGroups groupByWorker(long[] uids) {
+        return groupByWorker(uids, 0, uids.length);
+    }
+
+    /**
+     * Group the range of the UIDs by worker id, the groups are ordered by worker id, and the UIDs in a group keep the
+     * order of the input
+     * 
+     * @param uids
+     * @param from inclusive
+     * @param to exclusive
+     * @return groups
+     */
+    public UidGroups groupByWorker(long[] uids, int from, int to) {
+        checkRange(uids, from, to);
+
+        // count by worker id in a primitive open addressing map
+        int capacity = Integer.highestOneBit(Math.max(16, Math.min(to - from, 1 << 20)) * 2);
+        long[] keys = new long[capacity];
+        int[] groups = new int[capacity];
+        Arrays.fill(groups, -1);
+        long[] workerIds = new long[16];
+        int[] counts = new int[16];
+        int groupCount = 0;
+
+        int[] groupOfUid = new int[to - from];
+        for (int i = from; i < to; i++) {
+            long workerId = (uids[i] >>> workerIdShift) & maxWorkerId;
+            int slot = slot(workerId, keys.length - 1);
+            while (groups[slot] >= 0 && keys[slot] != workerId) {
+                slot = (slot + 1) & (keys.length - 1);
+            }
+
+            int group = groups[slot];
+            if (group < 0) {
+                group = groupCount++;
+                if (group == workerIds.length) {
+                    workerIds = Arrays.copyOf(workerIds, group << 1);
+                    counts = Arrays.copyOf(counts, group << 1);
+                }
+                workerIds[group] = workerId;
+                keys[slot] = workerId;
+                groups[slot] = group;
+
+                if (groupCount > keys.length >>> 1) {
+                    long[] oldKeys = keys;
+                    int[] oldGroups = groups;
+                    keys = new long[oldKeys.length << 1];
+                    groups = new int[oldKeys.length << 1];
+                    Arrays.fill(groups, -1);
+                    for (int s = 0; s < oldKeys.length; s++) {
+                        if (oldGroups[s] >= 0) {
+                            int newSlot = slot(oldKeys[s], keys.length - 1);
+                            while (groups[newSlot] >= 0) {
+                                newSlot = (newSlot + 1) & (keys.length - 1);
+                            }
+                            keys[newSlot] = oldKeys[s];
+                            groups[newSlot] = oldGroups[s];
+                        }
+                    }
+                }
+            }
+            counts[group]++;
+            groupOfUid[i - from] = group;
+        }
+
+        // order the groups by worker id
+        long[] sortedWorkerIds = Arrays.copyOf(workerIds, groupCount);
+        Arrays.sort(sortedWorkerIds);
+        int[] rank = new int[groupCount];
+        for (int g = 0; g < groupCount; g++) {
+            rank[g] = Arrays.binarySearch(sortedWorkerIds, workerIds[g]);
+        }
+
+        // offsets & scatter
+        int[] offsets = new int[groupCount + 1];
+        for (int g = 0; g < groupCount; g++) {
+            offsets[rank[g] + 1] = counts[g];
+        }
+        for (int g = 0; g < groupCount; g++) {
+            offsets[g + 1] += offsets[g];
+        }
+
+        int[] positions = new int[groupCount];
+        for (int g = 0; g < groupCount; g++) {
+            positions[g] = offsets[rank[g]];
+        }
+        long[] grouped = new long[to - from];
+        for (int i = from; i < to; i++) {
+            grouped[positions[groupOfUid[i - from]]++] = uids[i];
+        }
+
+        return new UidGroups(sortedWorkerIds, offsets, grouped);
+    }
+
+    /**
+     * Bits varying among the UIDs of the range
+     */
+    private static long varyingBits(long[] uids, int from, int to) {
+        long or = 0L;
+        long and = -1L;
+        for (int i = from; i < to; i++) {
+            or |= uids[i];
+            and &= uids[i];
+        }
+        return or ^ and;
+    }
+
+    /**
+     * Plan the digits covering the varying bits, each digit starts at a varying bit and is encoded as
+     * <code>shift &lt;&lt; 8 | bits</code>
+     */
+    private static int[] planDigits(long varyingBits) {
+        int[] digits = new int[(Long.SIZE + MAX_DIGIT_BITS - 1) / MAX_DIGIT_BITS];
+        int count = 0;
+        long remaining = varyingBits;
+        while (remaining != 0) {
+            int shift = Long.numberOfTrailingZeros(remaining);
+            int bits = Math.min(MAX_DIGIT_BITS, Long.SIZE - shift);
+            long digitMask = bits == Long.SIZE ? -1L : ((1L << bits) - 1) << shift;
+
+            // trim the digit to its highest varying bit
+            bits = Long.SIZE - Long.numberOfLeadingZeros(remaining & digitMask) - shift;
+            digits[count++] = (shift << 8) | bits;
+            remaining &= ~digitMask;
+        }
+        return Arrays.copyOf(digits, count);
+    }
+
+    private static int digitShift(int digit) {
+        return digit >>> 8;
+    }
+
+    private static int digitBits(int digit) {
+        return digit & 0xFF;
+    }
+
+    private static int slot(long workerId, int mask) {
+        long hash = workerId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static void checkRange(long[] uids, int from, int to) {
+        Assert.notNull(uids, "UIDs can't be null!");
+        Assert.isTrue(from >= 0 && from <= to && to <= uids.length, "UIDs range out of bounds");
+    }
+
+    /**
+     * Chunk task
+     */
+    private interface ChunkTask {
+        void run(int chunk);
+    }
+
+    /**
+     * Run the task for each chunk on the pool, and wait for all
+     */
+    private void invokeAll(int chunks, ChunkTask task) {
+        List<Callable<Void>> tasks = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            int chunk = c;
+            tasks.add(() -> {
+                task.run(chunk);
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (Exception e) {
+            throw new UidGenerateException(e);
+        }
+    }
+
+}
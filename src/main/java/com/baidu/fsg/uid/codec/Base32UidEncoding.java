@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.codec;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Represents the Crockford Base32 {@link UidTextEncoding} of 13 characters<p>
+ * 
+ * The alphabet is <code>0-9 A-Z</code> without <code>I L O U</code>. The first character holds the high 4 bits, and
+ * each of the others holds 5 bits. Decoding is case insensitive, and takes <code>I L</code> as 1, <code>O</code> as 0
+ */
+public class Base32UidEncoding extends UidTextEncoding {
+
+    /** Shared instance */
+    public static final Base32UidEncoding INSTANCE = new Base32UidEncoding();
+
+    /** Width of a UID */
+    public static final int WIDTH = 13;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final byte[] ASCII = new String(ALPHABET).getBytes(StandardCharsets.US_ASCII);
+    private static final int[] TABLE = decodingTable(ALPHABET);
+    static {
+        for (char c : ALPHABET) {
+            TABLE[Character.toLowerCase(c)] = TABLE[c];
+        }
+        TABLE['I'] = TABLE['i'] = TABLE['L'] = TABLE['l'] = 1;
+        TABLE['O'] = TABLE['o'] = 0;
+    }
+
+    @Override
+    public int getWidth() {
+        return WIDTH;
+    }
+
+    @Override
+    public void encode(long uid, char[] chars, int offset) {
+        if (offset < 0 || offset + WIDTH > chars.length) {
+            throw new ArrayIndexOutOfBoundsException(offset + WIDTH);
+        }
+
+        for (int i = WIDTH - 1; i >= 0; i--) {
+            chars[offset + i] = ALPHABET[(int) uid & 31];
+            uid >>>= 5;
+        }
+    }
+
+    @Override
+    public void encode(long uid, byte[] bytes, int offset) {
+        if (offset < 0 || offset + WIDTH > bytes.length) {
+            throw new ArrayIndexOutOfBoundsException(offset + WIDTH);
+        }
+
+        for (int i = WIDTH - 1; i >= 0; i--) {
+            bytes[offset + i] = ASCII[(int) uid & 31];
+            uid >>>= 5;
+        }
+    }
+
+    @Override
+    public long decode(CharSequence chars, int offset) {
+        int first = digit(TABLE, chars.charAt(offset));
+        int digits = first;
+        long uid = first;
+        for (int i = 1; i < WIDTH; i++) {
+            int value = digit(TABLE, chars.charAt(offset + i));
+            digits |= value;
+            uid = (uid << 5) | value;
+        }
+
+        checkDigits(digits);
+        checkFirst(first);
+        return uid;
+    }
+
+    @Override
+    public long decode(char[] chars, int offset) {
+        int first = digit(TABLE, chars[offset]);
+        int digits = first;
+        long uid = first;
+        for (int i = 1; i < WIDTH; i++) {
+            int value = digit(TABLE, chars[offset + i]);
+            digits |= value;
+            uid = (uid << 5) | value;
+        }
+
+        checkDigits(digits);
+        checkFirst(first);
+        return uid;
+    }
+
+    @Override
+    public long decode(byte[] bytes, int offset) {
+        int first = digit(TABLE, bytes[offset] & 0xFF);
+        int digits = first;
+        long uid = first;
+        for (int i = 1; i < WIDTH; i++) {
+            int value = digit(TABLE, bytes[offset + i] & 0xFF);
+            digits |= value;
+            uid = (uid << 5) | value;
+        }
+
+        checkDigits(digits);
+        checkFirst(first);
+        return uid;
+    }
+
+    /**
+     * The first character holds 4 bits only
+     */
+    private static void checkFirst(int digit) {
+        if (digit > 15) {
+            throw new IllegalArgumentException("UID text overflows 64 bits");
+        }
+    }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.codec;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Represents the Base62 {@link UidTextEncoding} of 11 characters<p>
+ * 
+ * The alphabet is <code>0-9 A-Z a-z</code>, which is case sensitive. The UID is split by 62^5 into one high digit
+ * and two int parts of 5 digits, so the digits are taken by int divisions by the constant instead of long ones
+ */
+public class Base62UidEncoding extends UidTextEncoding {
+
+    /** Shared instance */
+    public static final Base62UidEncoding INSTANCE = new Base62UidEncoding();
+
+    /** Width of a UID */
+    public static final int WIDTH = 11;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+    private static final byte[] ASCII = new String(ALPHABET).getBytes(StandardCharsets.US_ASCII);
+    private static final int[] TABLE = decodingTable(ALPHABET);
+
+    /** 62^5 & 62^10 */
+    private static final int POW5 = 62 * 62 * 62 * 62 * 62;
+    private static final long POW10 = (long) POW5 * POW5;
+
+    /** Max high digit & the max rest under it, of the unsigned 64 bits */
+    private static final long MAX_HIGH = Long.divideUnsigned(-1L, POW10);
+    private static final long MAX_REST = Long.remainderUnsigned(-1L, POW10);
+
+    @Override
+    public int getWidth() {
+        return WIDTH;
+    }
+
+    @Override
+    public void encode(long uid, char[] chars, int offset) {
+        if (offset < 0 || offset + WIDTH > chars.length) {
+            throw new ArrayIndexOutOfBoundsException(offset + WIDTH);
+        }
+
+        long high = uid >= 0 ? uid / POW5 : Long.divideUnsigned(uid, POW5);
+        int low = (int) (uid - high * POW5);
+        int highest = (int) (high / POW5);
+        int middle = (int) (high - (long) highest * POW5);
+
+        chars[offset] = ALPHABET[highest];
+        for (int i = 5; i > 0; i--) {
+            int quotient = middle / 62;
+            chars[offset + i] = ALPHABET[middle - quotient * 62];
+            middle = quotient;
+
+            quotient = low / 62;
+            chars[offset + 5 + i] = ALPHABET[low - quotient * 62];
+            low = quotient;
+        }
+    }
+
+    @Override
+    public void encode(long uid, byte[] bytes, int offset) {
+        if (offset < 0 || offset + WIDTH > bytes.length) {
+            throw new ArrayIndexOutOfBoundsException(offset + WIDTH);
+        }
+
+        long high = uid >= 0 ? uid / POW5 : Long.divideUnsigned(uid, POW5);
+        int low = (int) (uid - high * POW5);
+        int highest = (int) (high / POW5);
+        int middle = (int) (high - (long) highest * POW5);
+
+        bytes[offset] = ASCII[highest];
+        for (int i = 5; i > 0; i--) {
+            int quotient = middle / 62;
+            bytes[offset + i] = ASCII[middle - quotient * 62];
+            middle = quotient;
+
+            quotient = low / 62;
+            bytes[offset + 5 + i] = ASCII[low - quotient * 62];
+            low = quotient;
+        }
+    }
+
+    @Override
+    public long decode(CharSequence chars, int offset) {
+        int highest = digit(TABLE, chars.charAt(offset));
+        int digits = highest;
+        int middle = 0;
+        int low = 0;
+        for (int i = 1; i <= 5; i++) {
+            int middleDigit = digit(TABLE, chars.charAt(offset + i));
+            int lowDigit = digit(TABLE, chars.charAt(offset + 5 + i));
+            digits |= middleDigit | lowDigit;
+            middle = middle * 62 + middleDigit;
+            low = low * 62 + lowDigit;
+        }
+
+        checkDigits(digits);
+        return combine(highest, middle, low);
+    }
+
+    @Override
+    public long decode(char[] chars, int offset) {
+        int highest = digit(TABLE, chars[offset]);
+        int digits = highest;
+        int middle = 0;
+        int low = 0;
+        for (int i = 1; i <= 5; i++) {
+            int middleDigit = digit(TABLE, chars[offset + i]);
+            int lowDigit = digit(TABLE, chars[offset + 5 + i]);
+            digits |= middleDigit | lowDigit;
+            middle = middle * 62 + middleDigit;
+            low = low * 62 + lowDigit;
+        }
+
+        checkDigits(digits);
+        return combine(highest, middle, low);
+    }
+
+    @Override
+    public long decode(byte[] bytes, int offset) {
+        int highest = digit(TABLE, bytes[offset] & 0xFF);
+        int digits = highest;
+        int middle = 0;
+        int low = 0;
+        for (int i = 1; i <= 5; i++) {
+            int middleDigit = digit(TABLE, bytes[offset + i] & 0xFF);
+            int lowDigit = digit(TABLE, bytes[offset + 5 + i] & 0xFF);
+            digits |= middleDigit | lowDigit;
+            middle = middle * 62 + middleDigit;
+            low = low * 62 + lowDigit;
+        }
+
+        checkDigits(digits);
+        return combine(highest, middle, low);
+    }
+
+    /**
+     * Combine the parts, and check the overflow of 64 bits
+     */
+    private static long combine(int highest, int middle, int low) {
+        long rest = (long) middle * POW5 + low;
+        if (highest > MAX_HIGH || (highest == MAX_HIGH && rest > MAX_REST)) {
+            throw new IllegalArgumentException("UID text overflows 64 bits");
+        }
+        return highest * POW10 + rest;
+    }
+
+}
@@ -0,0 +1,464 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.codec;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.springframework.util.Assert;
+
+import com.baidu.fsg.uid.BitsAllocator;
+
+/**
+ * Represents a compression codec for sequences of UIDs, sorted or nearly sorted<p>
+ * 
+ * The UIDs are encoded in blocks of at most {@value #BLOCK_SIZE}, each block is consisted of:
+ * <li><b>header:</b> varint count, varint byte length of the body. A count of 0 terminates the sequence
+ * <li><b>flags:</b> one byte, bit 0 for the constant worker mode, the others for the delta mode
+ * <li><b>worker id:</b> varint, only in the constant worker mode
+ * <li><b>first delta:</b> zigzag varint, delta from the last UID of the previous block
+ * <li><b>deltas:</b> zigzag deltas of the rest, either as varints or bit-packed in a width with the exceptions<p>
+ * 
+ * Consecutive UIDs share the timestamp & worker prefix and differ mostly in the low sequence bits, so the deltas
+ * are bit-packed in a small width. The rare deltas beyond the width, such as crossing a time unit, are patched as
+ * exceptions. When all the UIDs of a block come from one worker, the worker id is written once and the deltas are
+ * taken on <code>timestamp &lt;&lt; sequenceBits | sequence</code>, so crossing a time unit costs a delta of about
+ * the sequence range rather than the whole worker & sequence range.<p>
+ * 
+ * The codec is stateless and thread safe, the one-shot encoding & decoding reuse the scratches of the thread. For
+ * streaming, see {@link UidSequenceEncoder} & {@link UidSequenceDecoder}, which hold their own scratches
+ */
+public class UidSequenceCodec {
+
+    /** Max count of UIDs in one block */
+    public static final int BLOCK_SIZE = 128;
+
+    /** Max bytes of a varint */
+    static final int MAX_VARINT_BYTES = 10;
+
+    /** Max bytes of a block, including the header */
+    static final int MAX_BLOCK_BYTES = 4 * MAX_VARINT_BYTES + 1 + (BLOCK_SIZE + 1) * (MAX_VARINT_BYTES + 1) + BLOCK_SIZE * 8;
+
+    /** Flags of the block */
+    private static final int CONSTANT_WORKER_FLAG = 1;
+    private static final int VARINT_MODE = 65;
+
+    /** Scratches of the one-shot encoding & decoding */
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    /** Layout of the UIDs, null means no constant worker mode */
+    private final int timestampShift;
+    private final int workerIdShift;
+    private final int sequenceBits;
+    private final long maxWorkerId;
+    private final long maxSequence;
+    private final boolean layoutAware;
+
+    /**
+     * Constructor without layout, the deltas are taken on the raw UIDs
+     */
+    public UidSequenceCodec() {
+        this.timestampShift = 0;
+        this.workerIdShift = 0;
+        this.sequenceBits = 0;
+        this.maxWorkerId = 0L;
+        this.maxSequence = 0L;
+        this.layoutAware = false;
+    }
+
+    /**
+     * Constructor with the layout of the UIDs, enables the constant worker mode
+     * 
+     * @param bitsAllocator
+     */
+    public UidSequenceCodec(BitsAllocator bitsAllocator) {
+        Assert.notNull(bitsAllocator, "BitsAllocator can't be null!");
+        this.timestampShift = bitsAllocator.getTimestampShift();
+        this.workerIdShift = bitsAllocator.getWorkerIdShift();
+        this.sequenceBits = bitsAllocator.getSequenceBits();
+        this.maxWorkerId = bitsAllocator.getMaxWorkerId();
+        this.maxSequence = bitsAllocator.getMaxSequence();
+        this.layoutAware = true;
+    }
+
+    /**
+     * Encode the UIDs into the buffer, terminated by an end mark
+     * 
+     * @param uids
+     * @param offset
+     * @param length
+     * @param out
+     * @throws java.nio.BufferOverflowException if no enough space, see {@link #maxEncodedLength(int)}
+     */
+    public void encode(long[] uids, int offset, int length, ByteBuffer out) {
+        Scratch scratch = SCRATCH.get();
+        long previous = 0L;
+        for (int start = offset; start < offset + length; start += BLOCK_SIZE) {
+            int count = Math.min(BLOCK_SIZE, offset + length - start);
+            int blockLength = encodeBlock(uids, start, count, previous, scratch.bytes, scratch.longs,
+                    scratch.histogram);
+            out.put(scratch.bytes, 0, blockLength);
+            previous = uids[start + count - 1];
+        }
+
+        out.put((byte) 0);
+    }
+
+    /**
+     * Decode the UIDs from the buffer until the end mark
+     * 
+     * @param in
+     * @param out
+     * @param offset
+     * @return count of UIDs decoded
+     * @throws ArrayIndexOutOfBoundsException if no enough space in the out array
+     */
+    public int decode(ByteBuffer in, long[] out, int offset) {
+        Scratch scratch = SCRATCH.get();
+        long[] block = scratch.longs;
+        byte[] body = scratch.bytes;
+        long previous = 0L;
+        int decoded = 0;
+        for (;;) {
+            int count = (int) readVarint(in);
+            if (count == 0) {
+                return decoded;
+            }
+
+            int bodyLength = (int) readVarint(in);
+            in.get(body, 0, bodyLength);
+            decodeBlock(body, count, previous, block, scratch.position);
+            System.arraycopy(block, 0, out, offset + decoded, count);
+
+            previous = block[count - 1];
+            decoded += count;
+        }
+    }
+
+    /**
+     * Max bytes of encoding the count of UIDs
+     * 
+     * @param count
+     * @return max bytes
+     */
+    public int maxEncodedLength(int count) {
+        int blocks = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        return blocks * MAX_BLOCK_BYTES + 1;
+    }
+
+    /**
+     * Create a streaming encoder
+     * 
+     * @param out
+     * @return encoder
+     */
+    public UidSequenceEncoder newEncoder(OutputStream out) {
+        return new UidSequenceEncoder(this, out);
+    }
+
+    /**
+     * Create a streaming decoder
+     * 
+     * @param in
+     * @return decoder
+     */
+    public UidSequenceDecoder newDecoder(InputStream in) {
+        return new UidSequenceDecoder(this, in);
+    }
+
+    /**
+     * Encode a block with the header into the bytes
+     * 
+     * @param uids
+     * @param offset
+     * @param count count of the block, in (0, {@link #BLOCK_SIZE}]
+     * @param previous last UID of the previous block, 0 for the first block
+     * @param block bytes to fill in, size of {@link #MAX_BLOCK_BYTES}
+     * @param deltas scratch of the deltas, size of {@link #BLOCK_SIZE}
+     * @param histogram scratch of the bit lengths, size of {@link Long#SIZE} + 1
+     * @return bytes written
+     */
+    int encodeBlock(long[] uids, int offset, int count, long previous, byte[] block, long[] deltas,
+                    int[] histogram) {
+        // whether all the UIDs come from one worker
+        boolean constantWorker = layoutAware;
+        long workerId = layoutAware ? extractWorkerId(uids[offset]) : 0L;
+        for (int i = 1; i < count && constantWorker; i++) {
+            constantWorker = extractWorkerId(uids[offset + i]) == workerId;
+        }
+
+        // zigzag deltas & histogram of the bit length
+        Arrays.fill(histogram, 0);
+        long last = constantWorker ? compact(previous) : previous;
+        for (int i = 0; i < count; i++) {
+            long value = constantWorker ? compact(uids[offset + i]) : uids[offset + i];
+            deltas[i] = zigzag(value - last);
+            last = value;
+            if (i > 0) {
+                histogram[Long.SIZE - Long.numberOfLeadingZeros(deltas[i])]++;
+            }
+        }
+        int mode = chooseMode(histogram, count - 1);
+
+        // body after the header, leave space for the header
+        int headerSpace = 2 * MAX_VARINT_BYTES;
+        int position = headerSpace;
+        block[position++] = (byte) ((mode << 1) | (constantWorker ? CONSTANT_WORKER_FLAG : 0));
+        if (constantWorker) {
+            position = writeVarint(block, position, workerId);
+        }
+        position = writeVarint(block, position, deltas[0]);
+        if (mode == VARINT_MODE) {
+            for (int i = 1; i < count; i++) {
+                position = writeVarint(block, position, deltas[i]);
+            }
+        } else {
+            position = writePacked(block, position, deltas, count, mode);
+        }
+
+        // header at the front of the body
+        int bodyLength = position - headerSpace;
+        int headerLength = writeVarint(block, 0, count);
+        headerLength = writeVarint(block, headerLength, bodyLength);
+        System.arraycopy(block, headerSpace, block, headerLength, bodyLength);
+        return headerLength + bodyLength;
+    }
+
+    /**
+     * Decode a block body into the UIDs
+     * 
+     * @param body bytes of the body, without the header
+     * @param count count of the block
+     * @param previous last UID of the previous block, 0 for the first block
+     * @param uids UIDs to fill in
+     * @param position scratch of the read position, size of 1
+     */
+    void decodeBlock(byte[] body, int count, long previous, long[] uids, int[] position) {
+        int flags = body[0] & 0xFF;
+        boolean constantWorker = (flags & CONSTANT_WORKER_FLAG) != 0;
+        int mode = flags >>> 1;
+        position[0] = 1;
+
+        long workerId = constantWorker ? readVarint(body, position) : 0L;
+        uids[0] = unzigzag(readVarint(body, position));
+        if (mode == VARINT_MODE) {
+            for (int i = 1; i < count; i++) {
+                uids[i] = unzigzag(readVarint(body, position));
+            }
+        } else {
+            readPacked(body, position, uids, count, mode);
+        }
+
+        // prefix sum of the deltas
+        long last = constantWorker ? compact(previous) : previous;
+        for (int i = 0; i < count; i++) {
+            last += uids[i];
+            uids[i] = last;
+        }
+
+        if (constantWorker) {
+            for (int i = 0; i < count; i++) {
+                uids[i] = expand(uids[i], workerId);
+            }
+        }
+    }
+
+    /**
+     * Choose the mode of least bytes, either a packed width in [0, 64] or {@link #VARINT_MODE}
+     */
+    private int chooseMode(int[] histogram, int count) {
+        int bestMode = VARINT_MODE;
+        long bestBytes = 0L;
+        for (int bits = 0; bits <= Long.SIZE; bits++) {
+            bestBytes += (long) histogram[bits] * varintLength(bits);
+        }
+
+        // exceptions beyond the width cost one byte of index, and the varint of the high bits
+        for (int width = 0; width <= Long.SIZE; width++) {
+            long bytes = ((long) count * width + 7) / 8 + 1;
+            for (int bits = width + 1; bits <= Long.SIZE && bytes < bestBytes; bits++) {
+                bytes += (long) histogram[bits] * (1 + varintLength(bits - width));
+            }
+
+            if (bytes < bestBytes) {
+                bestBytes = bytes;
+                bestMode = width;
+            }
+        }
+
+        return bestMode;
+    }
+
+    /**
+     * Bit-pack the low bits of deltas[1, count) in the width, the high bits are written as exceptions
+     */
+    private int writePacked(byte[] block, int position, long[] deltas, int count, int width) {
+        long accumulator = 0L;
+        int accumulatedBits = 0;
+        int exceptions = 0;
+        for (int i = 1; i < count; i++) {
+            long value = deltas[i];
+            if (width < Long.SIZE && (value >>> width) != 0) {
+                exceptions++;
+            }
+
+            // write in chunks no more than 32 bits
+            for (int written = 0; written < width; ) {
+                int chunk = Math.min(Integer.SIZE, width - written);
+                accumulator |= ((value >>> written) & ~(-1L << chunk)) << accumulatedBits;
+                accumulatedBits += chunk;
+                written += chunk;
+                while (accumulatedBits >= Byte.SIZE) {
+                    block[position++] = (byte) accumulator;
+                    accumulator >>>= Byte.SIZE;
+                    accumulatedBits -= Byte.SIZE;
+                }
+            }
+        }
+        if (accumulatedBits > 0) {
+            block[position++] = (byte) accumulator;
+        }
+
+        // exceptions: index delta & high bits
+        position = writeVarint(block, position, exceptions);
+        int lastIndex = 0;
+        for (int i = 1; i < count && exceptions > 0; i++) {
+            long high = width < Long.SIZE ? deltas[i] >>> width : 0L;
+            if (high != 0) {
+                position = writeVarint(block, position, i - lastIndex);
+                position = writeVarint(block, position, high);
+                lastIndex = i;
+            }
+        }
+
+        return position;
+    }
+
+    /**
+     * Read the bit-packed deltas into uids[1, count), and patch the exceptions
+     */
+    private void readPacked(byte[] body, int[] position, long[] uids, int count, int width) {
+        int pos = position[0];
+        long accumulator = 0L;
+        int accumulatedBits = 0;
+        for (int i = 1; i < count; i++) {
+            long value = 0L;
+            for (int read = 0; read < width; ) {
+                int chunk = Math.min(Integer.SIZE, width - read);
+                while (accumulatedBits < chunk) {
+                    accumulator |= (body[pos++] & 0xFFL) << accumulatedBits;
+                    accumulatedBits += Byte.SIZE;
+                }
+                value |= (accumulator & ~(-1L << chunk)) << read;
+                accumulator >>>= chunk;
+                accumulatedBits -= chunk;
+                read += chunk;
+            }
+            uids[i] = value;
+        }
+        position[0] = pos;
+
+        // patch exceptions
+        long exceptions = readVarint(body, position);
+        int index = 0;
+        for (long e = 0; e < exceptions; e++) {
+            index += (int) readVarint(body, position);
+            uids[index] |= readVarint(body, position) << width;
+        }
+
+        for (int i = 1; i < count; i++) {
+            uids[i] = unzigzag(uids[i]);
+        }
+    }
+
+    /**
+     * Scratches of encoding & decoding a block
+     */
+    private static class Scratch {
+        private final byte[] bytes = new byte[MAX_BLOCK_BYTES];
+        private final long[] longs = new long[BLOCK_SIZE];
+        private final int[] histogram = new int[Long.SIZE + 1];
+        private final int[] position = new int[1];
+    }
+
+    /**
+     * Layout helpers
+     */
+    private long extractWorkerId(long uid) {
+        return (uid >>> workerIdShift) & maxWorkerId;
+    }
+
+    private long compact(long uid) {
+        return ((uid >>> timestampShift) << sequenceBits) | (uid & maxSequence);
+    }
+
+    private long expand(long compacted, long workerId) {
+        return ((compacted >>> sequenceBits) << timestampShift) | (workerId << workerIdShift) | (compacted & maxSequence);
+    }
+
+    /**
+     * Zigzag & varint helpers
+     */
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static int varintLength(int bits) {
+        return bits == 0 ? 1 : (bits + 6) / 7;
+    }
+
+    static int writeVarint(byte[] bytes, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[position++] = (byte) value;
+        return position;
+    }
+
+    static long readVarint(byte[] bytes, int[] position) {
+        long value = 0L;
+        int pos = position[0];
+        for (int shift = 0; ; shift += 7) {
+            byte b = bytes[pos++];
+            value |= (b & 0x7FL) << shift;
+            if (b >= 0) {
+                position[0] = pos;
+                return value;
+            }
+        }
+    }
+
+    static long readVarint(ByteBuffer in) {
+        long value = 0L;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7FL) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new BufferUnderflowException();
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.codec;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import org.springframework.util.Assert;
+
+/**
+ * Streaming decoder of {@link UidSequenceCodec}, reads the UIDs from an {@link InputStream} block by block<p>
+ * 
+ * The decoder is a {@link PrimitiveIterator.OfLong}, use {@link #nextLong()} to iterate without boxing.
+ * The iteration ends at the end mark, {@link IOException} is rethrown as {@link UncheckedIOException}.<br>
+ * The decoder is not thread safe
+ */
+public class UidSequenceDecoder implements PrimitiveIterator.OfLong, Closeable {
+
+    private final UidSequenceCodec codec;
+    private final InputStream in;
+
+    /** Decoded UIDs of the current block */
+    private final long[] uids = new long[UidSequenceCodec.BLOCK_SIZE];
+    private int count;
+    private int position;
+
+    /** Scratches of the block body */
+    private final byte[] body = new byte[UidSequenceCodec.MAX_BLOCK_BYTES];
+    private final int[] bodyPosition = new int[1];
+
+    /** Last UID of the previous block */
+    private long previous;
+    private boolean finished;
+
+    /**
+     * Constructor with codec and the in stream
+     * 
+     * @param codec
+     * @param in
+     */
+    public UidSequenceDecoder(UidSequenceCodec codec, InputStream in) {
+        Assert.notNull(codec, "UidSequenceCodec can't be null!");
+        Assert.notNull(in, "InputStream can't be null!");
+        this.codec = codec;
+        this.in = in;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (position < count) {
+            return true;
+        }
+
+        try {
+            return readBlock();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public long nextLong() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return uids[position++];
+    }
+
+    /**
+     * Read the UIDs into the array until full or the end mark
+     * 
+     * @param out
+     * @param offset
+     * @param length
+     * @return count of UIDs read, -1 on the end mark
+     * @throws IOException
+     */
+    public int read(long[] out, int offset, int length) throws IOException {
+        int read = 0;
+        while (read < length && (position < count || readBlock())) {
+            int n = Math.min(length - read, count - position);
+            System.arraycopy(uids, position, out, offset + read, n);
+            position += n;
+            read += n;
+        }
+
+        return read == 0 && length > 0 ? -1 : read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Read & decode the next block
+     * 
+     * @return false on the end mark
+     */
+    private boolean readBlock() throws IOException {
+        if (finished) {
+            return false;
+        }
+
+        int blockCount = (int) readVarint();
+        if (blockCount == 0) {
+            finished = true;
+            return false;
+        }
+
+        int bodyLength = (int) readVarint();
+        for (int read = 0; read < bodyLength; ) {
+            int n = in.read(body, read, bodyLength - read);
+            if (n < 0) {
+                throw new EOFException("Unexpected end of UID block");
+            }
+            read += n;
+        }
+
+        codec.decodeBlock(body, blockCount, previous, uids, bodyPosition);
+        previous = uids[blockCount - 1];
+        count = blockCount;
+        position = 0;
+        return true;
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0L;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Unexpected end of UID stream");
+            }
+
+            value |= (b & 0x7FL) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in UID stream");
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.codec;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.springframework.util.Assert;
+
+/**
+ * Streaming encoder of {@link UidSequenceCodec}, writes the UIDs into an {@link OutputStream} block by block<p>
+ * 
+ * The UIDs are buffered in a primitive block, and encoded when the block is full or on {@link #flush()}.
+ * {@link #finish()} writes the end mark, {@link #close()} finishes and closes the stream.<br>
+ * The encoder is not thread safe
+ */
+public class UidSequenceEncoder implements Flushable, Closeable {
+
+    private final UidSequenceCodec codec;
+    private final OutputStream out;
+
+    /** Buffered UIDs of the current block */
+    private final long[] uids = new long[UidSequenceCodec.BLOCK_SIZE];
+    private int count;
+
+    /** Scratches of encoding */
+    private final byte[] block = new byte[UidSequenceCodec.MAX_BLOCK_BYTES];
+    private final long[] deltas = new long[UidSequenceCodec.BLOCK_SIZE];
+    private final int[] histogram = new int[Long.SIZE + 1];
+
+    /** Last UID of the previous block */
+    private long previous;
+    private boolean finished;
+
+    /**
+     * Constructor with codec and the out stream
+     * 
+     * @param codec
+     * @param out
+     */
+    public UidSequenceEncoder(UidSequenceCodec codec, OutputStream out) {
+        Assert.notNull(codec, "UidSequenceCodec can't be null!");
+        Assert.notNull(out, "OutputStream can't be null!");
+        this.codec = codec;
+        this.out = out;
+    }
+
+    /**
+     * Write a UID
+     * 
+     * @param uid
+     * @throws IOException
+     */
+    public void write(long uid) throws IOException {
+        Assert.state(!finished, "Encoder is finished");
+        uids[count++] = uid;
+        if (count == uids.length) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Write the UIDs in range
+     * 
+     * @param uids
+     * @param offset
+     * @param length
+     * @throws IOException
+     */
+    public void write(long[] uids, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            write(uids[i]);
+        }
+    }
+
+    /**
+     * Encode the buffered UIDs as a block, and flush the stream
+     */
+    @Override
+    public void flush() throws IOException {
+        writeBlock();
+        out.flush();
+    }
+
+    /**
+     * Encode the buffered UIDs and write the end mark, the stream is left open
+     * 
+     * @throws IOException
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+
+        writeBlock();
+        out.write(0);
+        out.flush();
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (count == 0) {
+            return;
+        }
+
+        int length = codec.encodeBlock(uids, 0, count, previous, block, deltas, histogram);
+        out.write(block, 0, length);
+        previous = uids[count - 1];
+        count = 0;
+    }
+
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.codec;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Represents a fixed width text encoding of UIDs, such as {@link Base32UidEncoding} & {@link Base62UidEncoding}<p>
+ * 
+ * The alphabet is in ASCII order and the width is fixed with leading zero digits, so the lexicographic order of the
+ * texts is the unsigned numeric order of the UIDs, which is the numeric order of the non-negative UIDs. The UIDs are
+ * encoded into & decoded from the caller supplied <code>char[]</code>, <code>byte[]</code> (ASCII) and
+ * {@link ByteBuffer} without allocation, except {@link #encode(long)} for convenience.<br>
+ * Decoding throws {@link IllegalArgumentException} on an illegal character or an overflow of 64 bits.<br>
+ * The encodings are immutable and thread safe
+ */
+public abstract class UidTextEncoding {
+
+    /** Scratch for the buffers without a backing array */
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[16]);
+
+    /**
+     * Fixed count of characters of a UID
+     * 
+     * @return width
+     */
+    public abstract int getWidth();
+
+    /**
+     * Encode the UID into the chars
+     * 
+     * @param uid
+     * @param chars
+     * @param offset
+     */
+    public abstract void encode(long uid, char[] chars, int offset);
+
+    /**
+     * Encode the UID into the bytes as ASCII
+     * 
+     * @param uid
+     * @param bytes
+     * @param offset
+     */
+    public abstract void encode(long uid, byte[] bytes, int offset);
+
+    /**
+     * Decode the UID from the chars
+     * 
+     * @param chars
+     * @param offset
+     * @return UID
+     */
+    public abstract long decode(CharSequence chars, int offset);
+
+    /**
+     * Decode the UID from the chars
+     * 
+     * @param chars
+     * @param offset
+     * @return UID
+     */
+    public abstract long decode(char[] chars, int offset);
+
+    /**
+     * Decode the UID from the ASCII bytes
+     * 
+     * @param bytes
+     * @param offset
+     * @return UID
+     */
+    public abstract long decode(byte[] bytes, int offset);
+
+    /**
+     * Encode the UID as a string, allocates the string only
+     * 
+     * @param uid
+     * @return text
+     */
+    public String encode(long uid) {
+        char[] chars = new char[getWidth()];
+        encode(uid, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * Decode the UID from the text
+     * 
+     * @param text
+     * @return UID
+     */
+    public long decode(CharSequence text) {
+        if (text.length() != getWidth()) {
+            throw new IllegalArgumentException("Length of UID text must be " + getWidth() + ": " + text);
+        }
+        return decode(text, 0);
+    }
+
+    /**
+     * Encode the UID into the buffer at its position, and advance the position
+     * 
+     * @param uid
+     * @param buffer
+     */
+    public void encode(long uid, ByteBuffer buffer) {
+        int width = getWidth();
+        if (buffer.hasArray()) {
+            encode(uid, buffer.array(), buffer.arrayOffset() + buffer.position());
+            buffer.position(buffer.position() + width);
+        } else {
+            byte[] scratch = SCRATCH.get();
+            encode(uid, scratch, 0);
+            buffer.put(scratch, 0, width);
+        }
+    }
+
+    /**
+     * Decode the UID from the buffer at its position, and advance the position
+     * 
+     * @param buffer
+     * @return UID
+     */
+    public long decode(ByteBuffer buffer) {
+        int width = getWidth();
+        long uid;
+        if (buffer.hasArray()) {
+            uid = decode(buffer.array(), buffer.arrayOffset() + buffer.position());
+            buffer.position(buffer.position() + width);
+        } else {
+            byte[] scratch = SCRATCH.get();
+            buffer.get(scratch, 0, width);
+            uid = decode(scratch, 0);
+        }
+        return uid;
+    }
+
+    /**
+     * Encode the UIDs into the consecutive chars
+     * 
+     * @param uids
+     * @param offset start of the UIDs
+     * @param length count of the UIDs
+     * @param chars
+     * @param charOffset start of the chars
+     */
+    public void encode(long[] uids, int offset, int length, char[] chars, int charOffset) {
+        int width = getWidth();
+        for (int i = 0; i < length; i++) {
+            encode(uids[offset + i], chars, charOffset + i * width);
+        }
+    }
+
+    /**
+     * Encode the UIDs into the consecutive ASCII bytes
+     * 
+     * @param uids
+     * @param offset start of the UIDs
+     * @param length count of the UIDs
+     * @param bytes
+     * @param byteOffset start of the bytes
+     */
+    public void encode(long[] uids, int offset, int length, byte[] bytes, int byteOffset) {
+        int width = getWidth();
+        for (int i = 0; i < length; i++) {
+            encode(uids[offset + i], bytes, byteOffset + i * width);
+        }
+    }
+
+    /**
+     * Decode the UIDs from the consecutive chars
+     * 
+     * @param chars
+     * @param charOffset start of the chars
+     * @param uids
+     * @param offset start of the UIDs
+     * @param length count of the UIDs
+     */
+    public void decode(char[] chars, int charOffset, long[] uids, int offset, int length) {
+        int width = getWidth();
+        for (int i = 0; i < length; i++) {
+            uids[offset + i] = decode(chars, charOffset + i * width);
+        }
+    }
+
+    /**
+     * Decode the UIDs from the consecutive ASCII bytes
+     * 
+     * @param bytes
+     * @param byteOffset start of the bytes
+     * @param uids
+     * @param offset start of the UIDs
+     * @param length count of the UIDs
+     */
+    public void decode(byte[] bytes, int byteOffset, long[] uids, int offset, int length) {
+        int width = getWidth();
+        for (int i = 0; i < length; i++) {
+            uids[offset + i] = decode(bytes, byteOffset + i * width);
+        }
+    }
+
+    /**
+     * Build the decoding table of ASCII, -1 for the illegal
+     */
+    static int[] decodingTable(char[] alphabet) {
+        int[] table = new int[128];
+        Arrays.fill(table, -1);
+        for (int i = 0; i < alphabet.length; i++) {
+            table[alphabet[i]] = i;
+        }
+        return table;
+    }
+
+    /**
+     * Look up the digit of the character, -1 for the illegal
+     */
+    static int digit(int[] table, int c) {
+        return c < table.length ? table[c] : -1;
+    }
+
+    /**
+     * Check the digits OR-ed together, negative if any is illegal. Checking once is cheaper than for each digit
+     */
+    static void checkDigits(int digits) {
+        if (digits < 0) {
+            throw new IllegalArgumentException("Illegal character of UID text");
+        }
+    }
+
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.collection;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import org.springframework.util.Assert;
+
+import com.baidu.fsg.uid.BitsAllocator;
+
+/**
+ * Represents a streaming k-way merge of UID streams by the generation time<p>
+ * 
+ * Each source must be ordered by the sort key, such as the UIDs of one worker in the generated order. The sort key
+ * is the timestamp field first, then the tie-break within the same timestamp:
+ * <li>{@link TieBreak#WORKER}: worker id then sequence, the same order as the raw UIDs
+ * <li>{@link TieBreak#SEQUENCE}: sequence then worker id, interleaves the workers in the same timestamp, closer to
+ *     the real generation order as the sequences of all the workers grow along the time unit<p>
+ * 
+ * The sources are merged by a loser tree over {@link PrimitiveIterator.OfLong} without boxing, which costs
+ * log2(k) comparisons for each UID, so it scales to thousands of sources. The UIDs with the same sort key are
+ * taken by the source order. The UIDs must be non-negative, as the generated ones.<br>
+ * The merger is not thread safe
+ */
+public class TimeOrderedUidMerger implements PrimitiveIterator.OfLong {
+
+    /**
+     * Tie-break within the same timestamp
+     */
+    public enum TieBreak {
+        /** Worker id then sequence */
+        WORKER,
+        /** Sequence then worker id */
+        SEQUENCE
+    }
+
+    /** Sort key of an exhausted source, greater than any key of non-negative UIDs in unsigned order */
+    private static final long EXHAUSTED = -1L;
+
+    /** Layout for the sort key */
+    private final int timestampShift;
+    private final int workerIdShift;
+    private final int workerIdBits;
+    private final long maxWorkerId;
+    private final long maxSequence;
+    private final TieBreak tieBreak;
+
+    /** Sources & their heads */
+    private final PrimitiveIterator.OfLong[] sources;
+    private final long[] keys;
+    private final long[] heads;
+
+    /** Loser tree, tree[0] is the winner, tree[1, k) are the losers of the internal nodes */
+    private final int[] tree;
+
+    /**
+     * Constructor with the sources
+     * 
+     * @param bitsAllocator layout of the UIDs
+     * @param tieBreak tie-break within the same timestamp
+     * @param sources ordered sources
+     */
+    public TimeOrderedUidMerger(BitsAllocator bitsAllocator, TieBreak tieBreak, List<? extends PrimitiveIterator.OfLong> sources) {
+        this(bitsAllocator, tieBreak, sources.toArray(new PrimitiveIterator.OfLong[sources.size()]));
+    }
+
+    /**
+     * Constructor with the sources
+     * 
+     * @param bitsAllocator layout of the UIDs
+     * @param tieBreak tie-break within the same timestamp
+     * @param sources ordered sources
+     */
+    public TimeOrderedUidMerger(BitsAllocator bitsAllocator, TieBreak tieBreak, PrimitiveIterator.OfLong... sources) {
+        Assert.notNull(bitsAllocator, "BitsAllocator can't be null!");
+        Assert.notNull(tieBreak, "TieBreak can't be null!");
+        Assert.notEmpty(sources, "Sources can't be empty!");
+
+        this.timestampShift = bitsAllocator.getTimestampShift();
+        this.workerIdShift = bitsAllocator.getWorkerIdShift();
+        this.workerIdBits = bitsAllocator.getWorkerIdBits();
+        this.maxWorkerId = bitsAllocator.getMaxWorkerId();
+        this.maxSequence = bitsAllocator.getMaxSequence();
+        this.tieBreak = tieBreak;
+
+        int k = sources.length;
+        this.sources = sources.clone();
+        this.keys = new long[k];
+        this.heads = new long[k];
+        this.tree = new int[k];
+        for (int i = 0; i < k; i++) {
+            fetch(i);
+        }
+
+        // play the matches bottom up, leaf i is at the position k + i
+        int[] winners = new int[k << 1];
+        for (int i = 0; i < k; i++) {
+            winners[k + i] = i;
+        }
+        for (int node = k - 1; node > 0; node--) {
+            int left = winners[node << 1];
+            int right = winners[(node << 1) + 1];
+            boolean rightWins = beats(right, left);
+            winners[node] = rightWins ? right : left;
+            tree[node] = rightWins ? left : right;
+        }
+        tree[0] = winners[1];
+    }
+
+    @Override
+    public boolean hasNext() {
+        return keys[tree[0]] != EXHAUSTED;
+    }
+
+    @Override
+    public long nextLong() {
+        int winner = tree[0];
+        if (keys[winner] == EXHAUSTED) {
+            throw new NoSuchElementException();
+        }
+
+        long uid = heads[winner];
+        fetch(winner);
+        replay(winner);
+        return uid;
+    }
+
+    /**
+     * Merge the next UIDs into the array
+     * 
+     * @param out
+     * @param offset
+     * @param length
+     * @return count of UIDs merged, less than the length only when all the sources are exhausted
+     */
+    public int next(long[] out, int offset, int length) {
+        int count = 0;
+        for (int winner = tree[0]; count < length && keys[winner] != EXHAUSTED; winner = tree[0]) {
+            out[offset + count++] = heads[winner];
+            fetch(winner);
+            replay(winner);
+        }
+        return count;
+    }
+
+    /**
+     * Sort key of the UID, a bit permutation keeping the timestamp field on the top
+     * 
+     * @param uid
+     * @return sort key
+     */
+    public long sortKey(long uid) {
+        if (tieBreak == TieBreak.WORKER) {
+            return uid;
+        }
+
+        long sequence = uid & maxSequence;
+        long workerId = (uid >>> workerIdShift) & maxWorkerId;
+        return ((uid >>> timestampShift) << timestampShift) | (sequence << workerIdBits) | workerId;
+    }
+
+    /**
+     * Replay the matches from the leaf of the new head to the root
+     */
+    private void replay(int winner) {
+        int k = keys.length;
+        for (int node = (winner + k) >> 1; node > 0; node >>= 1) {
+            int loser = tree[node];
+            if (beats(loser, winner)) {
+                tree[node] = winner;
+                winner = loser;
+            }
+        }
+        tree[0] = winner;
+    }
+
+    /**
+     * Whether the head of source a is taken before the head of source b
+     */
+    private boolean beats(int a, int b) {
+        long keyA = keys[a] + Long.MIN_VALUE;
+        long keyB = keys[b] + Long.MIN_VALUE;
+        return keyA < keyB || (keyA == keyB && a < b);
+    }
+
+    /**
+     * Fetch the next head of the source
+     */
+    private void fetch(int source) {
+        PrimitiveIterator.OfLong iterator = sources[source];
+        if (iterator.hasNext()) {
+            long uid = iterator.nextLong();
+            heads[source] = uid;
+            keys[source] = sortKey(uid);
+        } else {
+            keys[source] = EXHAUSTED;
+        }
+    }
+
+}
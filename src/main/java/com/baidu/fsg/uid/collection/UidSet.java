@@ -0,0 +1,479 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.collection;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import org.springframework.util.Assert;
+
+import com.baidu.fsg.uid.BitsAllocator;
+
+/**
+ * Represents a compact set of UIDs for deduplication and membership, similar to the Roaring bitmap<p>
+ * 
+ * A UID is split into a high key and the low bits. The low bits are the sequence bits of the layout (no more than
+ * {@value #MAX_LOW_BITS}), so the UIDs of one (timestamp, worker) share a container. A container is a sorted char
+ * array while sparse, and converts to a bitmap while dense. The dense output of a generator costs about one bit per
+ * UID in bitmaps.<p>
+ * 
+ * The containers are kept in primitive hash maps of striped locks, so add & contains are thread safe and scale with
+ * the stripes. Iteration is in UID order and weakly consistent, see {@link #iterator()}
+ */
+public class UidSet implements Iterable<Long> {
+
+    /** Max low bits of a container */
+    public static final int MAX_LOW_BITS = 16;
+
+    /** Default stripes of locks */
+    public static final int DEFAULT_STRIPES = 64;
+
+    /** Layout of the key & low bits */
+    private final int lowBits;
+    private final int lowMask;
+    private final int bitmapWords;
+    private final int arrayMaxSize;
+
+    /** Striped maps */
+    private final Stripe[] stripes;
+    private final int stripeShift;
+
+    /**
+     * Constructor without layout, the low bits is {@value #MAX_LOW_BITS}
+     */
+    public UidSet() {
+        this(MAX_LOW_BITS, DEFAULT_STRIPES);
+    }
+
+    /**
+     * Constructor with the layout of the UIDs, the low bits is the sequence bits
+     * 
+     * @param bitsAllocator
+     */
+    public UidSet(BitsAllocator bitsAllocator) {
+        this(lowBitsOf(bitsAllocator), DEFAULT_STRIPES);
+    }
+
+    /**
+     * Constructor with the low bits and stripes
+     * 
+     * @param lowBits bits of a container, in [1, {@value #MAX_LOW_BITS}]
+     * @param stripes stripes of locks, must be a power of 2
+     */
+    public UidSet(int lowBits, int stripes) {
+        Assert.isTrue(lowBits > 0 && lowBits <= MAX_LOW_BITS, "Low bits must be in [1, " + MAX_LOW_BITS + "]");
+        Assert.isTrue(stripes > 0 && Integer.bitCount(stripes) == 1, "Stripes must be a power of 2");
+
+        this.lowBits = lowBits;
+        this.lowMask = (1 << lowBits) - 1;
+        this.bitmapWords = Math.max(1, 1 << lowBits >>> 6);
+
+        // an array entry costs 2 bytes, a bitmap word costs 8 bytes
+        this.arrayMaxSize = bitmapWords << 2;
+
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.stripeShift = Long.SIZE - Integer.numberOfTrailingZeros(stripes);
+    }
+
+    /**
+     * Add a UID
+     * 
+     * @param uid
+     * @return false if the UID exists
+     */
+    public boolean add(long uid) {
+        long key = uid >> lowBits;
+        long hash = mix(key);
+        Stripe stripe = stripeOf(hash);
+        synchronized (stripe) {
+            return stripe.add(key, hash, (int) uid & lowMask);
+        }
+    }
+
+    /**
+     * Whether the UID exists
+     * 
+     * @param uid
+     * @return true if exists
+     */
+    public boolean contains(long uid) {
+        long key = uid >> lowBits;
+        long hash = mix(key);
+        Stripe stripe = stripeOf(hash);
+        synchronized (stripe) {
+            Container container = stripe.get(key, hash);
+            return container != null && container.contains((int) uid & lowMask);
+        }
+    }
+
+    /**
+     * Count of the UIDs
+     * 
+     * @return cardinality
+     */
+    public long cardinality() {
+        long cardinality = 0L;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                cardinality += stripe.cardinality;
+            }
+        }
+        return cardinality;
+    }
+
+    /**
+     * Whether the set is empty
+     * 
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return cardinality() == 0L;
+    }
+
+    /**
+     * Estimated bytes of the containers & maps
+     * 
+     * @return bytes
+     */
+    public long sizeInBytes() {
+        long bytes = 0L;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                bytes += stripe.sizeInBytes();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Iterate the UIDs in order, use {@link PrimitiveIterator.OfLong#nextLong()} to avoid boxing<p>
+     * 
+     * The keys are snapshotted on creating, and a container is snapshotted on reaching it. So the UIDs added in
+     * the existing containers after creating may or may not be iterated, the ones of new containers are not.
+     */
+    @Override
+    public PrimitiveIterator.OfLong iterator() {
+        long[] keys = new long[0];
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                if (size + stripe.size > keys.length) {
+                    keys = Arrays.copyOf(keys, Math.max(size + stripe.size, keys.length << 1));
+                }
+                size = stripe.collectKeys(keys, size);
+            }
+        }
+        Arrays.sort(keys, 0, size);
+
+        return new UidIterator(keys, size);
+    }
+
+    @Override
+    public String toString() {
+        return "UidSet [lowBits=" + lowBits + ", stripes=" + stripes.length + ", cardinality=" + cardinality()
+                + ", sizeInBytes=" + sizeInBytes() + "]";
+    }
+
+    /**
+     * Low bits of the layout, the sequence bits bounded by {@value #MAX_LOW_BITS}
+     */
+    private static int lowBitsOf(BitsAllocator bitsAllocator) {
+        Assert.notNull(bitsAllocator, "BitsAllocator can't be null!");
+        return Math.max(1, Math.min(MAX_LOW_BITS, bitsAllocator.getSequenceBits()));
+    }
+
+    /**
+     * Mix the key for the stripes & slots, the keys of neighbour seconds or workers differ in few bits only
+     */
+    private static long mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    private Stripe stripeOf(long hash) {
+        return stripes[(int) (hash >>> stripeShift) & (stripes.length - 1)];
+    }
+
+    /**
+     * Primitive open addressing map from key to container, guarded by itself
+     */
+    private final class Stripe {
+        private long[] keys = new long[16];
+        private Container[] containers = new Container[16];
+        private int size;
+        private long cardinality;
+
+        Container get(long key, long hash) {
+            int mask = keys.length - 1;
+            for (int slot = (int) hash & mask; containers[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return containers[slot];
+                }
+            }
+            return null;
+        }
+
+        boolean add(long key, long hash, int low) {
+            int mask = keys.length - 1;
+            int slot = (int) hash & mask;
+            while (containers[slot] != null && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+
+            Container container = containers[slot];
+            if (container == null) {
+                container = new ArrayContainer();
+                keys[slot] = key;
+                containers[slot] = container;
+                if (++size > (keys.length >>> 1) + (keys.length >>> 2)) {
+                    // the slot is stale after resizing, the container itself is kept
+                    resize();
+                    slot = -1;
+                }
+            }
+
+            int before = container.cardinality();
+            Container added = container.add(low);
+            if (added != container) {
+                replace(slot, key, added);
+            }
+
+            if (added.cardinality() == before) {
+                return false;
+            }
+            cardinality++;
+            return true;
+        }
+
+        int collectKeys(long[] out, int offset) {
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (containers[slot] != null) {
+                    out[offset++] = keys[slot];
+                }
+            }
+            return offset;
+        }
+
+        long sizeInBytes() {
+            long bytes = keys.length * 12L;
+            for (Container container : containers) {
+                if (container != null) {
+                    bytes += container.sizeInBytes();
+                }
+            }
+            return bytes;
+        }
+
+        private void replace(int slot, long key, Container container) {
+            if (slot < 0) {
+                int mask = keys.length - 1;
+                for (slot = (int) mix(key) & mask; keys[slot] != key || containers[slot] == null; ) {
+                    slot = (slot + 1) & mask;
+                }
+            }
+            containers[slot] = container;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            Container[] oldContainers = containers;
+            keys = new long[oldKeys.length << 1];
+            containers = new Container[oldKeys.length << 1];
+
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldContainers[i] != null) {
+                    int slot = (int) mix(oldKeys[i]) & mask;
+                    while (containers[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    containers[slot] = oldContainers[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Container of the low bits
+     */
+    private abstract static class Container {
+        /** Whether the low value exists */
+        abstract boolean contains(int low);
+
+        /** Add the low value, returns the container to keep, which may be converted */
+        abstract Container add(int low);
+
+        abstract int cardinality();
+
+        /** Copy the UIDs in order into the array */
+        abstract int copyTo(long base, long[] out);
+
+        abstract long sizeInBytes();
+    }
+
+    /**
+     * Sorted array container for the sparse
+     */
+    private final class ArrayContainer extends Container {
+        private char[] values = new char[4];
+        private int size;
+
+        @Override
+        boolean contains(int low) {
+            return Arrays.binarySearch(values, 0, size, (char) low) >= 0;
+        }
+
+        @Override
+        Container add(int low) {
+            // generator output comes in order mostly, try appending first
+            int index = size > 0 && values[size - 1] < low ? -size - 1 : Arrays.binarySearch(values, 0, size, (char) low);
+            if (index >= 0) {
+                return this;
+            }
+
+            if (size == arrayMaxSize) {
+                BitmapContainer bitmap = new BitmapContainer();
+                for (int i = 0; i < size; i++) {
+                    bitmap.add(values[i]);
+                }
+                return bitmap.add(low);
+            }
+
+            int insertion = -index - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(arrayMaxSize, size << 1));
+            }
+            System.arraycopy(values, insertion, values, insertion + 1, size - insertion);
+            values[insertion] = (char) low;
+            size++;
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        int copyTo(long base, long[] out) {
+            for (int i = 0; i < size; i++) {
+                out[i] = base | values[i];
+            }
+            return size;
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 32L + values.length * 2L;
+        }
+    }
+
+    /**
+     * Bitmap container for the dense
+     */
+    private final class BitmapContainer extends Container {
+        private final long[] words = new long[bitmapWords];
+        private int cardinality;
+
+        @Override
+        boolean contains(int low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        Container add(int low) {
+            long word = words[low >>> 6];
+            long updated = word | (1L << low);
+
+            // branch free counting
+            cardinality += (int) ((word ^ updated) >>> low);
+            words[low >>> 6] = updated;
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int copyTo(long base, long[] out) {
+            int count = 0;
+            for (int i = 0; i < words.length; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    out[count++] = base | ((long) i << 6) | Long.numberOfTrailingZeros(word);
+                }
+            }
+            return count;
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 32L + words.length * 8L;
+        }
+    }
+
+    /**
+     * Iterator over the snapshotted keys
+     */
+    private final class UidIterator implements PrimitiveIterator.OfLong {
+        private final long[] keys;
+        private final int size;
+        private int keyIndex;
+
+        /** UIDs of the current container */
+        private long[] uids = new long[Math.min(1 << lowBits, 64)];
+        private int count;
+        private int position;
+
+        UidIterator(long[] keys, int size) {
+            this.keys = keys;
+            this.size = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (position == count && keyIndex < size) {
+                long key = keys[keyIndex++];
+                long hash = mix(key);
+                Stripe stripe = stripeOf(hash);
+                synchronized (stripe) {
+                    Container container = stripe.get(key, hash);
+                    if (container.cardinality() > uids.length) {
+                        uids = new long[Math.max(container.cardinality(), uids.length << 1)];
+                    }
+                    count = container.copyTo(key << lowBits, uids);
+                    position = 0;
+                }
+            }
+            return position < count;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return uids[position++];
+        }
+    }
+
+}
@@ -17,6 +17,8 @@ package com.baidu.fsg.uid.impl;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +32,9 @@ import com.baidu.fsg.uid.buffer.RejectedPutBufferHandler;
 import com.baidu.fsg.uid.buffer.RejectedTakeBufferHandler;
 import com.baidu.fsg.uid.buffer.RingBuffer;
 import com.baidu.fsg.uid.exception.UidGenerateException;
+import com.baidu.fsg.uid.metrics.CachedUidGeneratorMXBean;
+import com.baidu.fsg.uid.metrics.CachedUidGeneratorMonitor;
+import com.baidu.fsg.uid.metrics.UidGeneratorMonitor;
 
 /**
  * Represents a cached implementation of {@link UidGenerator} extends
@@ -43,8 +48,13 @@ import com.baidu.fsg.uid.exception.UidGenerateException;
  *                           threshold, it will trigger padding buffer. Default as{@link RingBuffer#DEFAULT_PADDING_PERCENT}
  *                           Sample: paddingFactor=20, bufferSize=1000 -> threshold=1000 * 20 /100, padding buffer will be triggered when tail-cursor<threshold
  * <li><b>scheduleInterval:</b> Padding buffer in a schedule, specify padding buffer interval, Unit as second
+ * <li><b>virtualThreadsEnabled:</b> Padding buffer on virtual threads, requires JDK 21+ and the multi-release jar,
+ *                                   otherwise falls back to the platform threads. Default as false
  * <li><b>rejectedPutBufferHandler:</b> Policy for rejected put buffer. Default as discard put request, just do logging
- * <li><b>rejectedTakeBufferHandler:</b> Policy for rejected take buffer. Default as throwing up an exception
+ * <li><b>rejectedTakeBufferHandler:</b> Policy for rejected take buffer. Default as throwing up an exception<p>
+ * 
+ * With <b>jmxEnabled</b>, the {@link CachedUidGeneratorMXBean} adjusts the padding factor & the schedule interval,
+ * pauses or resumes the schedule, and triggers a padding at runtime
  * 
  * @author yutianbao
  */
@@ -52,10 +62,15 @@ public class CachedUidGenerator extends DefaultUidGenerator implements Disposabl
     private static final Logger LOGGER = LoggerFactory.getLogger(CachedUidGenerator.class);
     private static final int DEFAULT_BOOST_POWER = 3;
 
+    /** Park nanos of the batch waiting for the running padding, doubled on each retry up to the max */
+    private static final long MIN_PADDING_WAIT_NANOS = 10_000L;
+    private static final long MAX_PADDING_WAIT_NANOS = 1_000_000L;
+
     /** Spring properties */
     private int boostPower = DEFAULT_BOOST_POWER;
     private int paddingFactor = RingBuffer.DEFAULT_PADDING_PERCENT;
     private Long scheduleInterval;
+    private boolean virtualThreadsEnabled = false;
     
     private RejectedPutBufferHandler rejectedPutBufferHandler;
     private RejectedTakeBufferHandler rejectedTakeBufferHandler;
@@ -84,31 +99,110 @@ public class CachedUidGenerator extends DefaultUidGenerator implements Disposabl
         }
     }
 
+    /**
+     * Get UIDs in a batch from the RingBuffer, the cursor is moved once for each batch taken. The empty RingBuffer
+     * is padded by the caller thread, or waits for the running padding, since the async padding may be starved by a
+     * large batch. The waiting parks with a back-off from {@value #MIN_PADDING_WAIT_NANOS}ns to
+     * {@value #MAX_PADDING_WAIT_NANOS}ns, instead of spinning on the CPU the padding needs. The
+     * {@link RejectedTakeBufferHandler} is applied if it is still empty, the same as {@link #getUID()}
+     */
+    @Override
+    public void getUIDs(long[] uids, int offset, int count) throws UidGenerateException {
+        try {
+            int takenCount = 0;
+            while (takenCount < count) {
+                int taken = ringBuffer.take(uids, offset + takenCount, count - takenCount);
+                if (taken == 0) {
+                    // pads on the caller thread, or waits for the padding running on another thread
+                    bufferPaddingExecutor.paddingBuffer();
+                    taken = awaitPadding(uids, offset + takenCount, count - takenCount);
+                }
+                if (taken == 0) {
+                    uids[offset + takenCount] = ringBuffer.take();
+                    taken = 1;
+                }
+                takenCount += taken;
+            }
+        } catch (Exception e) {
+            LOGGER.error("Generate unique ids exception. ", e);
+            throw new UidGenerateException(e);
+        }
+    }
+
+    /**
+     * Wait for the padding running on another thread, until some UIDs are taken or the padding is done
+     *
+     * @return the count of UIDs taken, 0 for the padding done but still empty
+     */
+    private int awaitPadding(long[] uids, int offset, int length) {
+        long parkNanos = MIN_PADDING_WAIT_NANOS;
+        int taken;
+        while ((taken = ringBuffer.take(uids, offset, length)) == 0 && bufferPaddingExecutor.isRunning()) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new UidGenerateException("Interrupted while waiting for padding buffer");
+            }
+
+            LockSupport.parkNanos(this, parkNanos);
+            parkNanos = Math.min(parkNanos << 1, MAX_PADDING_WAIT_NANOS);
+        }
+        return taken;
+    }
+
+    @Override
+    public int tryGetUIDs(long[] uids, int offset, int length) throws UidGenerateException {
+        int taken = ringBuffer.take(uids, offset, length);
+
+        // the padding is already triggered by the empty RingBuffer, retry soon
+        return taken > 0 ? taken : -1;
+    }
+
     @Override
     public String parseUID(long uid) {
         return super.parseUID(uid);
     }
     
+    @Override
+    protected UidGeneratorMonitor newMonitor() {
+        return new CachedUidGeneratorMonitor(metricsCollector, () -> workerId);
+    }
+
     @Override
     public void destroy() throws Exception {
         bufferPaddingExecutor.shutdown();
+        super.destroy();
     }
 
     /**
      * Get the UIDs in the same specified second under the max sequence
      * 
-     * @param currentSecond
+     * @param currentSecond seconds since 1970-01-01, converted to the time unit containing it
      * @return UID list, size of {@link BitsAllocator#getMaxSequence()} + 1
+     * @deprecated the padding calls {@link #nextIdsForOneTimestamp(long)} with the delta time since the epoch in
+     *             {@link #timeUnitMillis}. This one is final, so that the subclasses overriding it fail to compile
+     *             instead of being ignored by the padding, override {@link #nextIdsForOneTimestamp(long)} instead
      */
-    protected List<Long> nextIdsForOneSecond(long currentSecond) {
+    @Deprecated
+    protected final List<Long> nextIdsForOneSecond(long currentSecond) {
+        return nextIdsForOneTimestamp(Math.floorDiv(TimeUnit.SECONDS.toMillis(currentSecond) - epochMillis,
+                timeUnitMillis));
+    }
+
+    /**
+     * Get the UIDs in the same specified timestamp under the max sequence
+     * 
+     * @param currentTimestamp delta time since the epoch, unit as {@link #timeUnitMillis}
+     * @return UID list, size of {@link BitsAllocator#getMaxSequence()} + 1
+     */
+    protected List<Long> nextIdsForOneTimestamp(long currentTimestamp) {
         // Initialize result list size of (max sequence + 1)
         int listSize = (int) bitsAllocator.getMaxSequence() + 1;
         List<Long> uidList = new ArrayList<>(listSize);
 
-        // Allocate the first sequence of the second, the others can be calculated with the offset
-        long firstSeqUid = bitsAllocator.allocate(currentSecond - epochSeconds, workerId, 0L);
+        // Allocate the first sequence of the timestamp, the others can be calculated with the offset.
+        // The UIDs are scrambled on padding, so the scrambler costs nothing on taking
+        long firstSeqUid = bitsAllocator.allocate(currentTimestamp, workerId, 0L);
         for (int offset = 0; offset < listSize; offset++) {
-            uidList.add(firstSeqUid + offset);
+            uidList.add(scramble(firstSeqUid + offset));
         }
 
         return uidList;
@@ -125,15 +219,20 @@ public class CachedUidGenerator extends DefaultUidGenerator implements Disposabl
 
         // initialize RingBufferPaddingExecutor
         boolean usingSchedule = (scheduleInterval != null);
-        this.bufferPaddingExecutor = new BufferPaddingExecutor(ringBuffer, this::nextIdsForOneSecond, usingSchedule);
+        this.bufferPaddingExecutor = new BufferPaddingExecutor(ringBuffer, this::nextIdsForOneTimestamp, usingSchedule,
+                epochMillis, timeUnitMillis, virtualThreadsEnabled);
         if (usingSchedule) {
             bufferPaddingExecutor.setScheduleInterval(scheduleInterval);
         }
         
-        LOGGER.info("Initialized BufferPaddingExecutor. Using schdule:{}, interval:{}", usingSchedule, scheduleInterval);
+        LOGGER.info("Initialized BufferPaddingExecutor. Using schdule:{}, interval:{}, virtual threads:{}", usingSchedule,
+                scheduleInterval, bufferPaddingExecutor.isVirtualThreads());
         
-        // set rejected put/take handle policy
+        // set rejected put/take handle policy & metrics
         this.ringBuffer.setBufferPaddingExecutor(bufferPaddingExecutor);
+        this.ringBuffer.setUidMetrics(uidMetrics);
+        this.bufferPaddingExecutor.setUidMetrics(uidMetrics);
+        monitor.attach(ringBuffer, bufferPaddingExecutor);
         if (rejectedPutBufferHandler != null) {
             this.ringBuffer.setRejectedPutHandler(rejectedPutBufferHandler);
         }
@@ -156,6 +255,11 @@ public class CachedUidGenerator extends DefaultUidGenerator implements Disposabl
         this.boostPower = boostPower;
     }
     
+    public void setPaddingFactor(int paddingFactor) {
+        Assert.isTrue(paddingFactor > 0 && paddingFactor < 100, "Padding factor must be in (0, 100)!");
+        this.paddingFactor = paddingFactor;
+    }
+
     public void setRejectedPutBufferHandler(RejectedPutBufferHandler rejectedPutBufferHandler) {
         Assert.notNull(rejectedPutBufferHandler, "RejectedPutBufferHandler can't be null!");
         this.rejectedPutBufferHandler = rejectedPutBufferHandler;
@@ -171,4 +275,8 @@ public class CachedUidGenerator extends DefaultUidGenerator implements Disposabl
         this.scheduleInterval = scheduleInterval;
     }
 
+    public void setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+    }
+
 }
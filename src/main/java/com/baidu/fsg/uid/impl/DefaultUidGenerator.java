@@ -15,18 +15,34 @@
  */
 package com.baidu.fsg.uid.impl;
 
-import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.LockSupport;
 
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
 
 import com.baidu.fsg.uid.BitsAllocator;
+import com.baidu.fsg.uid.MultiFieldBitsAllocator;
+import com.baidu.fsg.uid.UidInfo;
 import com.baidu.fsg.uid.UidGenerator;
+import com.baidu.fsg.uid.async.NonBlockingUidSource;
+import com.baidu.fsg.uid.async.UidFuture;
 import com.baidu.fsg.uid.exception.UidGenerateException;
+import com.baidu.fsg.uid.metrics.CompositeUidMetrics;
+import com.baidu.fsg.uid.metrics.UidGeneratorMonitor;
+import com.baidu.fsg.uid.metrics.UidMetrics;
+import com.baidu.fsg.uid.metrics.UidMetricsCollector;
+import com.baidu.fsg.uid.scramble.UidScrambler;
 import com.baidu.fsg.uid.utils.DateUtils;
+import com.baidu.fsg.uid.utils.NamingThreadFactory;
 import com.baidu.fsg.uid.worker.WorkerIdAssigner;
 
 /**
@@ -39,7 +55,8 @@ import com.baidu.fsg.uid.worker.WorkerIdAssigner;
  * <li>worker id: The next 22 bits, represents the worker's id which assigns based on database, max id is about 420W
  * <li>sequence: The next 13 bits, represents a sequence within the same second, max for 8192/s<br><br>
  *
- * The {@link DefaultUidGenerator#parseUID(long)} is a tool method to parse the bits
+ * The {@link DefaultUidGenerator#parseUID(long)} is a tool method to parse the bits, and
+ * {@link DefaultUidGenerator#decode(long, UidInfo)} decodes into a reusable holder without allocation
  *
  * <pre>{@code
  * +------+----------------------+----------------+-----------+
@@ -52,136 +69,589 @@ import com.baidu.fsg.uid.worker.WorkerIdAssigner;
  * <li>timeBits: default as 28
  * <li>workerBits: default as 22
  * <li>seqBits: default as 13
+ * <li>timeUnitMillis: time unit of the delta time, such as 1, 10, 100, 1000. Default as 1000 (second). The sequence
+ *                     becomes a budget per time unit, a smaller unit trades the lifetime for smoother throughput
  * <li>epochStr: Epoch date string format 'yyyy-MM-dd'. Default as '2016-05-20'<p>
  *
- * <b>Note that:</b> The total bits must be 64 -1
+ * <b>Note that:</b> The total bits must be 64 -1<p>
+ *
+ * A region(datacenter) segment can be carved out between the delta time and the worker id, so that each region
+ * assigns its worker ids independently, such as by its own WORKER_NODE table.
+ * <li>regionBits: default as 0, no region segment. The workerBits should be reduced to keep the total bits
+ * <li>regionId: region id of this generator, default as 0<p>
+ *
+ * <pre>{@code
+ * +------+----------------------+--------+-----------+-----------+
+ * | sign |     delta seconds    | region | worker id | sequence  |
+ * +------+----------------------+--------+-----------+-----------+
+ * }</pre>
+ *
+ *
+ * When the clock moves backwards, the policy can be specified by Spring property setting as well.
+ * <li>maxBackwardsWaitMillis: Clock rollbacks no more than this threshold are tolerated by waiting until the clock
+ *                             catches up. Default as 0, means never wait
+ * <li>standbyWorkerEnabled: Whether to reserve a standby worker id from {@link WorkerIdAssigner} on startup. Larger
+ *                           rollbacks switch the generation to the standby worker id once. Default as false<br>
+ * Otherwise the generation is refused with an {@link UidGenerateException}<p>
+ *
+ * When the sequence is exhausted within one time unit, the caller parks until the next time unit without holding the
+ * lock. <b>waitSpinMicros</b> can be specified to spin a short time just before the next time unit. Default as 0<p>
+ *
+ * For range-partitioned stores, an opt-in <b>uidScrambler</b> scrambles the output by a reversible
+ * {@link UidScrambler}, so that the writes spread over the regions. The {@link #parseUID(long)} &
+ * {@link #decode(long, UidInfo)} unscramble the UID first, while the range bounds such as {@link #minUid(long)} are
+ * on the unscrambled UIDs<p>
+ *
+ * The internals such as the clock backwards & the sequence exhaustion are counted by a {@link UidMetricsCollector}.
+ * <li>uidMetrics: an additional {@link UidMetrics} listener, such as a bridge to the metrics system in use
+ * <li>jmxEnabled: whether to register a {@link com.baidu.fsg.uid.metrics.UidGeneratorMXBean} of the generator into the
+ *                 platform MBeanServer. Default as false<p>
+ *
+ * As a {@link NonBlockingUidSource}, the {@link #getUIDAsync()} & {@link com.baidu.fsg.uid.async.UidPublisher} get
+ * UIDs without blocking the caller, the waits are turned into retries scheduled on the <b>asyncExecutor</b>. Default
+ * as a daemon single thread created on demand, and shut down on {@link #destroy()}
  *
  * @author yutianbao
  */
-public class DefaultUidGenerator implements UidGenerator, InitializingBean {
+public class DefaultUidGenerator implements UidGenerator, NonBlockingUidSource, InitializingBean, DisposableBean {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultUidGenerator.class);
+    private static final String ASYNC_EXECUTOR_NAME = "UidAsyncExecutor";
+
+    /** Field names & indexes of the full layout */
+    public static final String[] FIELD_NAMES = { "timestamp", "region", "worker", "sequence" };
+    public static final int TIMESTAMP_FIELD = 0;
+    public static final int REGION_FIELD = 1;
+    public static final int WORKER_FIELD = 2;
+    public static final int SEQUENCE_FIELD = 3;
 
     /** Bits allocate */
     protected int timeBits = 28;
     protected int workerBits = 22;
     protected int seqBits = 13;
 
-    /** Customer epoch, unit as second. For example 2016-05-20 (ms: 1463673600000)*/
+    /** Region segment, carved out between the delta time and the worker id */
+    protected int regionBits = 0;
+    protected long regionId = 0L;
+
+    /** Time unit of the delta time, unit as millisecond. Default as second */
+    protected long timeUnitMillis = BitsAllocator.DEFAULT_TIME_UNIT_MILLIS;
+
+    /** Customer epoch, unit as millisecond. For example 2016-05-20 (ms: 1463673600000)*/
     protected String epochStr = "2016-05-20";
-    protected long epochSeconds = TimeUnit.MILLISECONDS.toSeconds(1463673600000L);
+    protected long epochMillis = 1463673600000L;
 
     /** Stable fields after spring bean initializing */
     protected BitsAllocator bitsAllocator;
+    protected MultiFieldBitsAllocator fieldsAllocator;
+    /** Worker id within the layout, consists of the region id & the assigned worker id */
     protected long workerId;
 
-    /** Volatile fields caused by nextId() */
+    /** Volatile fields caused by nextId(). Timestamp as the delta time since the epoch, unit as {@link #timeUnitMillis} */
     protected long sequence = 0L;
-    protected long lastSecond = -1L;
+    protected long lastTimestamp = -1L;
+
+    /** Lock of the allocation. A {@link ReentrantLock} instead of the monitor, which never pins a virtual thread */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Clock backwards policy */
+    protected long maxBackwardsWaitMillis = 0L;
+    protected boolean standbyWorkerEnabled = false;
+    protected long standbyWorkerId = -1L;
+    /** Whether the current clock backwards is reported, each one is reported once however many retries */
+    private boolean clockBackwardsReported = false;
+
+    /** Spin before the deadline of waiting for the next time unit, unit as nanosecond. Default as 0, no spin */
+    protected long waitSpinNanos = 0L;
+
+    /** Metrics, the collector is always notified, the listener specified is notified after it */
+    protected final UidMetricsCollector metricsCollector = new UidMetricsCollector();
+    protected UidMetrics uidMetrics = metricsCollector;
+    protected UidGeneratorMonitor monitor;
 
     /** Spring property */
     protected WorkerIdAssigner workerIdAssigner;
+    protected UidScrambler uidScrambler;
+    protected boolean jmxEnabled = false;
+    protected volatile ScheduledExecutorService asyncExecutor;
+    private boolean asyncExecutorCreated = false;
 
     @Override
     public void afterPropertiesSet() throws Exception {
-        // initialize bits allocator
-        bitsAllocator = new BitsAllocator(timeBits, workerBits, seqBits);
+        // initialize bits allocator, the region & worker fields are allocated as one worker field on the hot path
+        bitsAllocator = new BitsAllocator(timeBits, regionBits + workerBits, seqBits, timeUnitMillis);
+        fieldsAllocator = newFieldsAllocator();
+        if (regionId > fieldsAllocator.getMaxValue(REGION_FIELD)) {
+            throw new RuntimeException("Region id " + regionId + " exceeds the max " + fieldsAllocator.getMaxValue(REGION_FIELD));
+        }
 
         // initialize worker id
-        workerId = workerIdAssigner.assignWorkerId();
-        if (workerId > bitsAllocator.getMaxWorkerId()) {
-            throw new RuntimeException("Worker id " + workerId + " exceeds the max " + bitsAllocator.getMaxWorkerId());
+        workerId = assignWorkerId();
+
+        // reserve standby worker id for the clock moved backwards
+        if (standbyWorkerEnabled) {
+            standbyWorkerId = assignWorkerId();
+            LOGGER.info("Reserved standby workerID:{}", standbyWorkerId);
         }
 
-        LOGGER.info("Initialized bits(1, {}, {}, {}) for workerID:{}", timeBits, workerBits, seqBits, workerId);
+        LOGGER.info("Initialized bits(1, {}, {}, {}, {}) timeUnit:{}ms for regionID:{} workerID:{}", timeBits, regionBits,
+                workerBits, seqBits, timeUnitMillis, regionId, workerId);
+
+        // register MBean
+        monitor = newMonitor();
+        if (jmxEnabled) {
+            monitor.register(getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Create the monitor of this generator, registered as MBean if {@link #jmxEnabled}
+     */
+    protected UidGeneratorMonitor newMonitor() {
+        return new UidGeneratorMonitor(metricsCollector, () -> workerId);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (monitor != null) {
+            monitor.unregister();
+        }
+        if (asyncExecutorCreated) {
+            asyncExecutor.shutdownNow();
+        }
     }
 
     @Override
     public long getUID() throws UidGenerateException {
         try {
-            return nextId();
+            return scramble(nextId());
         } catch (Exception e) {
             LOGGER.error("Generate unique id exception. ", e);
             throw new UidGenerateException(e);
         }
     }
 
+    /**
+     * Get a UID asynchronously, the caller is never blocked<br>
+     * The future completes at once if a UID is available, otherwise completes on the {@link #getAsyncExecutor()}
+     * 
+     * @return future of the UID, completed exceptionally by {@link UidGenerateException}
+     */
+    public CompletableFuture<Long> getUIDAsync() {
+        return UidFuture.submit(this, getAsyncExecutor());
+    }
+
+    /**
+     * Get UIDs in a batch, the sequences within a time unit are allocated contiguously by one lock acquire
+     * 
+     * @param uids array to fill in
+     * @param offset start of the array
+     * @param count count of the UIDs
+     * @throws UidGenerateException
+     */
+    @Override
+    public void getUIDs(long[] uids, int offset, int count) throws UidGenerateException {
+        Assert.isTrue(offset >= 0 && count >= 0 && offset <= uids.length - count, "UIDs out of bounds");
+        try {
+            int allocatedCount = 0;
+            while (allocatedCount < count) {
+                long allocated = tryNextUids(uids, offset + allocatedCount, count - allocatedCount);
+
+                // Negative value means the millis to wait until
+                if (allocated < 0) {
+                    waitUntil(-allocated);
+                } else {
+                    allocatedCount += allocated;
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.error("Generate unique ids exception. ", e);
+            throw new UidGenerateException(e);
+        }
+
+        scramble(uids, offset, count);
+    }
+
+    @Override
+    public int tryGetUIDs(long[] uids, int offset, int length) throws UidGenerateException {
+        int count = 0;
+        long allocated = 0L;
+        while (count < length && (allocated = tryNextUids(uids, offset + count, length - count)) > 0) {
+            count += allocated;
+        }
+
+        if (count == 0 && allocated < 0) {
+            // the next time unit, or the last timestamp if the clock moved backwards
+            long delayMillis = Math.max(-allocated - currentTimeMillis(), 1L);
+            return (int) -Math.min(delayMillis, Integer.MAX_VALUE);
+        }
+
+        scramble(uids, offset, count);
+        return count;
+    }
+
     @Override
     public String parseUID(long uid) {
-        long totalBits = BitsAllocator.TOTAL_BITS;
-        long signBits = bitsAllocator.getSignBits();
-        long timestampBits = bitsAllocator.getTimestampBits();
-        long workerIdBits = bitsAllocator.getWorkerIdBits();
-        long sequenceBits = bitsAllocator.getSequenceBits();
+        return decode(uid, new UidInfo()).appendJson(new StringBuilder(128)).toString();
+    }
 
-        // parse UID
-        long sequence = (uid << (totalBits - sequenceBits)) >>> (totalBits - sequenceBits);
-        long workerId = (uid << (timestampBits + signBits)) >>> (totalBits - workerIdBits);
-        long deltaSeconds = uid >>> (workerIdBits + sequenceBits);
+    /**
+     * Decode the UID into the elements without allocation, the holder can be reused for lots of UIDs
+     * 
+     * @param uid
+     * @param info the holder to fill in
+     * @return the holder
+     */
+    public UidInfo decode(long uid, UidInfo info) {
+        long rawUid = unscramble(uid);
+        long deltaTime = fieldsAllocator.extract(rawUid, TIMESTAMP_FIELD);
+        long regionId = fieldsAllocator.extract(rawUid, REGION_FIELD);
+        long workerId = fieldsAllocator.extract(rawUid, WORKER_FIELD);
+        long sequence = fieldsAllocator.extract(rawUid, SEQUENCE_FIELD);
+
+        return info.set(uid, deltaTime, epochMillis + deltaTime * timeUnitMillis, regionId, workerId, sequence)
+                   .setLayout(regionBits > 0, timeUnitMillis);
+    }
 
-        Date thatTime = new Date(TimeUnit.SECONDS.toMillis(epochSeconds + deltaSeconds));
-        String thatTimeStr = DateUtils.formatByDateTimePattern(thatTime);
+    /**
+     * Get the min UID created since the time, for the range scan on UIDs instead of an index on the created time<br>
+     * Sample: <code>WHERE ID BETWEEN minUid(from) AND maxUid(to)</code><p>
+     * 
+     * <b>Note that:</b> The bound is as fine as the time unit, and the {@link CachedUidGenerator} borrows UIDs from
+     * the future, so the time of a cached UID may be ahead of its creation
+     * 
+     * @param fromMillis start of the window, unit as millisecond
+     * @return min UID, {@link Long#MAX_VALUE} if the time is beyond the max delta time
+     */
+    public long minUid(long fromMillis) {
+        return minUid(fromMillis, -1L);
+    }
 
-        // format as string
-        return String.format("{\"UID\":\"%d\",\"timestamp\":\"%s\",\"workerId\":\"%d\",\"sequence\":\"%d\"}",
-                uid, thatTimeStr, workerId, sequence);
+    /**
+     * Get the max UID created until the time
+     * 
+     * @param toMillis end of the window(inclusive), unit as millisecond
+     * @return max UID, -1 if the time is before the epoch
+     */
+    public long maxUid(long toMillis) {
+        return maxUid(toMillis, -1L);
     }
 
     /**
-     * Get UID
+     * Get the min UID created since the time by the specified worker
+     * 
+     * @param fromMillis start of the window, unit as millisecond
+     * @param workerId worker id within the layout, negative means any worker
+     * @return min UID, {@link Long#MAX_VALUE} if the time is beyond the max delta time
+     */
+    public long minUid(long fromMillis, long workerId) {
+        long deltaTime = Math.max(Math.floorDiv(fromMillis - epochMillis, timeUnitMillis), 0L);
+        if (deltaTime > bitsAllocator.getMaxDeltaTime()) {
+            return Long.MAX_VALUE;
+        }
+
+        return workerId < 0 ? bitsAllocator.minUid(deltaTime) : bitsAllocator.minUid(deltaTime, workerId);
+    }
+
+    /**
+     * Get the max UID created until the time by the specified worker
+     * 
+     * @param toMillis end of the window(inclusive), unit as millisecond
+     * @param workerId worker id within the layout, negative means any worker
+     * @return max UID, -1 if the time is before the epoch
+     */
+    public long maxUid(long toMillis, long workerId) {
+        long deltaTime = Math.min(Math.floorDiv(toMillis - epochMillis, timeUnitMillis), bitsAllocator.getMaxDeltaTime());
+        if (deltaTime < 0) {
+            return -1L;
+        }
+
+        return workerId < 0 ? bitsAllocator.maxUid(deltaTime) : bitsAllocator.maxUid(deltaTime, workerId);
+    }
+
+    /**
+     * Get the UID ranges of lots of time windows. Empty window gets a min UID greater than the max UID
+     * 
+     * @param fromMillis starts of the windows
+     * @param toMillis ends of the windows(inclusive)
+     * @param minUids min UIDs to fill in
+     * @param maxUids max UIDs to fill in
+     */
+    public void uidRanges(long[] fromMillis, long[] toMillis, long[] minUids, long[] maxUids) {
+        Assert.isTrue(fromMillis.length == toMillis.length, "Starts and ends of the windows not match");
+        Assert.isTrue(minUids.length >= fromMillis.length && maxUids.length >= fromMillis.length,
+                "UIDs shorter than the windows");
+        for (int i = 0; i < fromMillis.length; i++) {
+            minUids[i] = minUid(fromMillis[i], -1L);
+            maxUids[i] = maxUid(toMillis[i], -1L);
+        }
+    }
+
+    /**
+     * Get UID<br>
+     * The lock is only held while allocating, the waits for the next time unit or the clock catching up
+     * are taken outside the lock, so that other callers are not queued behind the sleeping thread
      *
      * @return UID
      * @throws UidGenerateException in the case: Clock moved backwards; Exceeds the max timestamp
      */
-    protected synchronized long nextId() {
-        long currentSecond = getCurrentSecond();
+    protected long nextId() {
+        for (;;) {
+            long uid = tryNextId();
+            if (uid >= 0) {
+                return uid;
+            }
+
+            // Negative value means the millis to wait until
+            waitUntil(-uid);
+        }
+    }
+
+    /**
+     * Try to allocate UIDs without waiting, for the batches & the {@link NonBlockingUidSource}
+     *
+     * @param uids array to fill in
+     * @param offset start of the array
+     * @param length max count of the UIDs, positive
+     * @return count of the UIDs allocated if positive, otherwise the negated millis to wait until before retrying
+     */
+    protected long tryNextUids(long[] uids, int offset, int length) {
+        return tryNextIds(uids, offset, length);
+    }
+
+    /**
+     * Try to allocate UID without waiting, holding the lock
+     *
+     * @return UID if non-negative, otherwise the negated millis to wait until before retrying
+     */
+    protected long tryNextId() {
+        lock.lock();
+        try {
+            long reserved = reserveSequences(1L);
+            if (reserved < 0) {
+                return reserved;
+            }
+
+            // Allocate bits for UID
+            return bitsAllocator.allocate(lastTimestamp, workerId, sequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Try to allocate contiguous UIDs within the current time unit holding the lock
+     *
+     * @return count of the UIDs allocated if positive, otherwise the negated millis to wait until before retrying
+     */
+    private long tryNextIds(long[] uids, int offset, int length) {
+        long reserved;
+        long firstUid;
+        lock.lock();
+        try {
+            reserved = reserveSequences(length);
+            if (reserved < 0) {
+                return reserved;
+            }
+            firstUid = bitsAllocator.allocate(lastTimestamp, workerId, sequence - reserved + 1);
+        } finally {
+            lock.unlock();
+        }
 
-        // Clock moved backwards, refuse to generate uid
-        if (currentSecond < lastSecond) {
-            long refusedSeconds = lastSecond - currentSecond;
-            throw new UidGenerateException("Clock moved backwards. Refusing for %d seconds", refusedSeconds);
+        // The sequence is the lowest bits, the UIDs of the contiguous sequences are contiguous as well
+        for (int i = 0; i < reserved; i++) {
+            uids[offset + i] = firstUid + i;
+        }
+
+        return reserved;
+    }
+
+    /**
+     * Reserve the sequences of the current time unit, which end at {@link #sequence} then, holding the lock
+     *
+     * @param maxCount max count of the sequences, positive
+     * @return count of the sequences reserved if positive, otherwise the negated millis to wait until before retrying
+     */
+    private long reserveSequences(long maxCount) {
+        long currentTimestamp = getCurrentTimestamp();
+
+        // Clock moved backwards, wait for the clock or switch to the standby worker id, otherwise refuse
+        if (currentTimestamp < lastTimestamp) {
+            if (handleClockBackwards(currentTimestamp)) {
+                return -toMillis(lastTimestamp);
+            }
+        } else if (clockBackwardsReported) {
+            clockBackwardsReported = false;
+        }
+
+        // At the same time unit, increase sequence. At the different time unit, sequence restart from zero
+        long firstSequence = 0L;
+        if (currentTimestamp == lastTimestamp) {
+            // Exceed the max sequence, we wait the next time unit to generate uid
+            if (sequence == bitsAllocator.getMaxSequence()) {
+                long deadlineMillis = toMillis(lastTimestamp + 1);
+                uidMetrics.onSequenceExhausted(deadlineMillis - currentTimeMillis());
+                return -deadlineMillis;
+            }
+            firstSequence = sequence + 1;
+        }
+
+        long count = Math.min(maxCount, bitsAllocator.getMaxSequence() - firstSequence + 1);
+        sequence = firstSequence + count - 1;
+        lastTimestamp = currentTimestamp;
+        return count;
+    }
+
+    /**
+     * Scramble the UID for output if the {@link UidScrambler} is specified
+     */
+    protected long scramble(long uid) {
+        return uidScrambler == null ? uid : uidScrambler.scramble(uid);
+    }
+
+    /**
+     * Scramble the UIDs of the range for output if the {@link UidScrambler} is specified
+     */
+    protected void scramble(long[] uids, int offset, int count) {
+        if (uidScrambler != null) {
+            for (int i = offset; i < offset + count; i++) {
+                uids[i] = uidScrambler.scramble(uids[i]);
+            }
         }
+    }
+
+    /**
+     * Unscramble the output UID if the {@link UidScrambler} is specified
+     */
+    protected long unscramble(long uid) {
+        return uidScrambler == null ? uid : uidScrambler.unscramble(uid);
+    }
 
-        // At the same second, increase sequence
-        if (currentSecond == lastSecond) {
-            sequence = (sequence + 1) & bitsAllocator.getMaxSequence();
-            // Exceed the max sequence, we wait the next second to generate uid
-            if (sequence == 0) {
-                currentSecond = getNextSecond(lastSecond);
+    /**
+     * Handle the clock moved backwards according to the policy, holding the lock<br>
+     * <li>Rollback within {@link #maxBackwardsWaitMillis}: wait until the clock catches up the last timestamp
+     * <li>Rollback beyond the threshold: switch to the reserved standby worker id, the sequence restarts from zero<br>
+     * A rollback is reported to the {@link UidMetrics} once, not for each caller or retry until the clock catches up
+     * 
+     * @param currentTimestamp
+     * @return true if it should wait until the clock catches up the last timestamp
+     * @throws UidGenerateException if neither waiting nor switching is possible
+     */
+    protected boolean handleClockBackwards(long currentTimestamp) {
+        long backwardsMillis = (lastTimestamp - currentTimestamp) * timeUnitMillis;
+        boolean reported = clockBackwardsReported;
+        clockBackwardsReported = true;
+
+        // Small rollback, wait until the clock catches up
+        if (backwardsMillis <= maxBackwardsWaitMillis) {
+            if (!reported) {
+                LOGGER.warn("Clock moved backwards {} millis. Waiting for the clock catches up", backwardsMillis);
+                uidMetrics.onClockBackwardsWait(backwardsMillis, toMillis(lastTimestamp) - currentTimeMillis());
             }
+            return true;
+        }
 
-        // At the different second, sequence restart from zero
-        } else {
-            sequence = 0L;
+        // Large rollback, switch to the standby worker id which has never generated any UID
+        if (standbyWorkerId >= 0) {
+            LOGGER.warn("Clock moved backwards {} millis. Switch workerID from {} to standby {}", backwardsMillis,
+                    workerId, standbyWorkerId);
+            uidMetrics.onWorkerIdSwitch(backwardsMillis, workerId, standbyWorkerId);
+            workerId = standbyWorkerId;
+            standbyWorkerId = -1L;
+            lastTimestamp = -1L;
+            clockBackwardsReported = false;
+            return false;
         }
 
-        lastSecond = currentSecond;
+        if (!reported) {
+            uidMetrics.onClockBackwardsRefused(backwardsMillis);
+        }
+        throw new UidGenerateException("Clock moved backwards. Refusing for %d millis", backwardsMillis);
+    }
 
-        // Allocate bits for UID
-        return bitsAllocator.allocate(currentSecond - epochSeconds, workerId, sequence);
+    /**
+     * Wait until the specified millis without holding the lock<br>
+     * Park the thread for most of the time, and spin {@link #waitSpinNanos} just before the deadline if specified
+     */
+    private void waitUntil(long deadlineMillis) {
+        long remainingMillis;
+        while ((remainingMillis = deadlineMillis - currentTimeMillis()) > 0) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new UidGenerateException("Interrupted while waiting for generating UID");
+            }
+
+            long parkNanos = TimeUnit.MILLISECONDS.toNanos(remainingMillis) - waitSpinNanos;
+            if (parkNanos > 0) {
+                LockSupport.parkNanos(this, parkNanos);
+            }
+        }
     }
 
     /**
-     * Get next millisecond
+     * Assign worker id by {@link WorkerIdAssigner} and check it within the max worker id
+     * 
+     * @return worker id within the layout, combined with the region id
      */
-    private long getNextSecond(long lastTimestamp) {
-        long timestamp = getCurrentSecond();
-        while (timestamp <= lastTimestamp) {
-            timestamp = getCurrentSecond();
+    protected long assignWorkerId() {
+        long assignedWorkerId = workerIdAssigner.assignWorkerId();
+        long maxWorkerId = fieldsAllocator.getMaxValue(WORKER_FIELD);
+        if (assignedWorkerId > maxWorkerId) {
+            throw new RuntimeException("Worker id " + assignedWorkerId + " exceeds the max " + maxWorkerId);
         }
 
-        return timestamp;
+        return (regionId << workerBits) | assignedWorkerId;
+    }
+
+    /**
+     * Create the full layout with the region segment, field indexes as {@link #TIMESTAMP_FIELD},
+     * {@link #REGION_FIELD}, {@link #WORKER_FIELD}, {@link #SEQUENCE_FIELD}. The region field is a placeholder of 0 bit
+     * when the region segment is disabled, and always extracted as 0
+     */
+    private MultiFieldBitsAllocator newFieldsAllocator() {
+        return new MultiFieldBitsAllocator(FIELD_NAMES, new int[] { timeBits, regionBits, workerBits, seqBits });
     }
 
     /**
-     * Get current second
+     * Get current timestamp as the delta time since the epoch, unit as {@link #timeUnitMillis}<br>
+     * The time units start from the epoch, so that the epoch is not required to be aligned to the time unit
      */
-    private long getCurrentSecond() {
-        long currentSecond = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
-        if (currentSecond - epochSeconds > bitsAllocator.getMaxDeltaSeconds()) {
-            throw new UidGenerateException("Timestamp bits is exhausted. Refusing UID generate. Now: " + currentSecond);
+    private long getCurrentTimestamp() {
+        long currentTimestamp = Math.floorDiv(currentTimeMillis() - epochMillis, timeUnitMillis);
+        if (currentTimestamp > bitsAllocator.getMaxDeltaTime()) {
+            throw new UidGenerateException("Timestamp bits is exhausted. Refusing UID generate. Now: " + currentTimestamp);
         }
 
-        return currentSecond;
+        return currentTimestamp;
+    }
+
+    /**
+     * Get current time of the clock, unit as millisecond. Overridden by the tests to move the clock
+     */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Get the start of the timestamp, unit as millisecond
+     */
+    private long toMillis(long timestamp) {
+        return epochMillis + timestamp * timeUnitMillis;
+    }
+
+    /**
+     * Get the executor of the async UIDs, create a daemon single thread if not specified
+     */
+    public ScheduledExecutorService getAsyncExecutor() {
+        if (asyncExecutor == null) {
+            synchronized (this) {
+                if (asyncExecutor == null) {
+                    asyncExecutor = Executors.newSingleThreadScheduledExecutor(
+                            new NamingThreadFactory(ASYNC_EXECUTOR_NAME, true));
+                    asyncExecutorCreated = true;
+                }
+            }
+        }
+
+        return asyncExecutor;
     }
 
     /**
@@ -191,6 +661,24 @@ public class DefaultUidGenerator implements UidGenerator, InitializingBean {
         this.workerIdAssigner = workerIdAssigner;
     }
 
+    public void setUidScrambler(UidScrambler uidScrambler) {
+        this.uidScrambler = uidScrambler;
+    }
+
+    public void setUidMetrics(UidMetrics uidMetrics) {
+        Assert.notNull(uidMetrics, "UidMetrics can't be null!");
+        this.uidMetrics = new CompositeUidMetrics(metricsCollector, uidMetrics);
+    }
+
+    public void setJmxEnabled(boolean jmxEnabled) {
+        this.jmxEnabled = jmxEnabled;
+    }
+
+    public void setAsyncExecutor(ScheduledExecutorService asyncExecutor) {
+        Assert.notNull(asyncExecutor, "Async executor can't be null!");
+        this.asyncExecutor = asyncExecutor;
+    }
+
     public void setTimeBits(int timeBits) {
         if (timeBits > 0) {
             this.timeBits = timeBits;
@@ -209,10 +697,70 @@ public class DefaultUidGenerator implements UidGenerator, InitializingBean {
         }
     }
 
+    public void setMaxBackwardsWaitMillis(long maxBackwardsWaitMillis) {
+        Assert.isTrue(maxBackwardsWaitMillis >= 0, "Max backwards wait millis can't be negative!");
+        this.maxBackwardsWaitMillis = maxBackwardsWaitMillis;
+    }
+
+    public void setStandbyWorkerEnabled(boolean standbyWorkerEnabled) {
+        this.standbyWorkerEnabled = standbyWorkerEnabled;
+    }
+
+    public void setRegionBits(int regionBits) {
+        if (regionBits > 0) {
+            this.regionBits = regionBits;
+        }
+    }
+
+    public void setRegionId(long regionId) {
+        Assert.isTrue(regionId >= 0, "Region id can't be negative!");
+        this.regionId = regionId;
+    }
+
+    public void setTimeUnitMillis(long timeUnitMillis) {
+        Assert.isTrue(timeUnitMillis > 0, "Time unit millis must be positive!");
+        this.timeUnitMillis = timeUnitMillis;
+    }
+
+    public void setWaitSpinMicros(long waitSpinMicros) {
+        Assert.isTrue(waitSpinMicros >= 0, "Wait spin micros can't be negative!");
+        this.waitSpinNanos = TimeUnit.MICROSECONDS.toNanos(waitSpinMicros);
+    }
+
     public void setEpochStr(String epochStr) {
         if (StringUtils.isNotBlank(epochStr)) {
             this.epochStr = epochStr;
-            this.epochSeconds = TimeUnit.MILLISECONDS.toSeconds(DateUtils.parseByDayPattern(epochStr).getTime());
+            this.epochMillis = DateUtils.parseByDayPattern(epochStr).getTime();
         }
     }
+
+    /**
+     * Getters for metrics
+     */
+    public UidMetricsCollector getMetricsCollector() {
+        return metricsCollector;
+    }
+
+    public UidGeneratorMonitor getMonitor() {
+        return monitor;
+    }
+
+    /**
+     * Getters for clock backwards statistics
+     */
+    public long getClockBackwardsCount() {
+        return metricsCollector.getClockBackwardsCount();
+    }
+
+    public long getClockBackwardsWaitedMillis() {
+        return metricsCollector.getClockBackwardsWaitedMillis();
+    }
+
+    public long getClockBackwardsLostMillis() {
+        return metricsCollector.getClockBackwardsLostMillis();
+    }
+
+    public long getWorkerIdSwitchCount() {
+        return metricsCollector.getWorkerIdSwitchCount();
+    }
 }
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.impl;
+
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import com.baidu.fsg.uid.BitsAllocator;
+import com.baidu.fsg.uid.UidGenerator;
+import com.baidu.fsg.uid.utils.PaddedAtomicLong;
+import com.baidu.fsg.uid.worker.WorkerIdAssigner;
+
+/**
+ * Represents a multiple workers implementation of {@link UidGenerator} extends from {@link DefaultUidGenerator}<p>
+ * 
+ * One {@link DefaultUidGenerator} is limited to <code>{@link BitsAllocator#getMaxSequence()} + 1</code> UIDs per time
+ * unit for its single worker id. This generator claims {@link #workerCount} worker ids from {@link WorkerIdAssigner}
+ * on startup, each worker id has its own sequence state and lock, and the UIDs are generated by the workers in a
+ * round-robin way. The throughput scales with the worker count, and the uniqueness is still guaranteed by the
+ * different worker ids. The metrics of the workers are reported to the {@link #getMetricsCollector()} of this
+ * generator.<p>
+ * 
+ * The spring properties are the same as {@link DefaultUidGenerator}, besides:<br>
+ * <li><b>workerCount:</b> Count of worker ids to claim. Default as {@value #DEFAULT_WORKER_COUNT}
+ */
+public class MultiWorkerUidGenerator extends DefaultUidGenerator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MultiWorkerUidGenerator.class);
+    private static final int DEFAULT_WORKER_COUNT = 2;
+
+    /** Spring properties */
+    private int workerCount = DEFAULT_WORKER_COUNT;
+
+    /** Workers, the first one is this generator itself */
+    private DefaultUidGenerator[] workers;
+
+    /** Round-robin position of the workers */
+    private final PaddedAtomicLong position = new PaddedAtomicLong();
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        // initialize bits allocator & the first worker id
+        super.afterPropertiesSet();
+
+        // initialize the other workers with the same layout & policy
+        workers = new DefaultUidGenerator[workerCount];
+        workers[0] = this;
+        for (int i = 1; i < workerCount; i++) {
+            workers[i] = newWorker();
+        }
+
+        LOGGER.info("Initialized {} workers for workerIDs:{}", workerCount, Arrays.toString(getWorkerIds()));
+    }
+
+    /**
+     * Try the workers in a round-robin way, until one of them allocates. The caller only waits when all the workers
+     * are exhausted, until the earliest of their deadlines
+     */
+    @Override
+    protected long tryNextId() {
+        long uid = Long.MIN_VALUE;
+        for (int i = 0; i < workers.length && uid < 0; i++) {
+            int index = (int) ((position.getAndIncrement() & Long.MAX_VALUE) % workers.length);
+            DefaultUidGenerator worker = workers[index];
+            uid = Math.max(uid, worker == this ? super.tryNextId() : worker.tryNextId());
+        }
+
+        return uid;
+    }
+
+    /**
+     * Try the workers in a round-robin way, until one of them allocates. The earliest of their deadlines is returned
+     * when all the workers are exhausted
+     */
+    @Override
+    protected long tryNextUids(long[] uids, int offset, int length) {
+        long allocated = Long.MIN_VALUE;
+        for (int i = 0; i < workers.length && allocated < 0; i++) {
+            int index = (int) ((position.getAndIncrement() & Long.MAX_VALUE) % workers.length);
+            DefaultUidGenerator worker = workers[index];
+            allocated = Math.max(allocated, worker == this ? super.tryNextUids(uids, offset, length)
+                    : worker.tryNextUids(uids, offset, length));
+        }
+
+        return allocated;
+    }
+
+    /**
+     * Create a worker with the same layout & policy, and assign its worker id
+     */
+    private DefaultUidGenerator newWorker() throws Exception {
+        DefaultUidGenerator worker = new DefaultUidGenerator();
+        worker.timeBits = timeBits;
+        worker.workerBits = workerBits;
+        worker.seqBits = seqBits;
+        worker.regionBits = regionBits;
+        worker.regionId = regionId;
+        worker.timeUnitMillis = timeUnitMillis;
+        worker.epochStr = epochStr;
+        worker.epochMillis = epochMillis;
+        worker.maxBackwardsWaitMillis = maxBackwardsWaitMillis;
+        worker.standbyWorkerEnabled = standbyWorkerEnabled;
+        worker.waitSpinNanos = waitSpinNanos;
+        worker.workerIdAssigner = workerIdAssigner;
+
+        // the workers report to the metrics of this generator
+        worker.uidMetrics = uidMetrics;
+
+        worker.afterPropertiesSet();
+        return worker;
+    }
+
+    /**
+     * Get the worker ids claimed
+     * 
+     * @return worker ids
+     */
+    public long[] getWorkerIds() {
+        long[] workerIds = new long[workers.length];
+        for (int i = 0; i < workers.length; i++) {
+            workerIds[i] = workers[i].workerId;
+        }
+
+        return workerIds;
+    }
+
+    /**
+     * Setters for spring property
+     */
+    public void setWorkerCount(int workerCount) {
+        Assert.isTrue(workerCount > 0, "Worker count must be positive!");
+        this.workerCount = workerCount;
+    }
+
+}
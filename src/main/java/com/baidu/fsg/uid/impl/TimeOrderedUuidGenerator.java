@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.impl;
+
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+import com.baidu.fsg.uid.exception.UidGenerateException;
+
+/**
+ * Represents a time-ordered 128 bits {@link UUID} generator in the UUIDv7 layout, on top of a {@link DefaultUidGenerator}
+ * or a {@link CachedUidGenerator}<p>
+ * 
+ * Each UUID is converted from one UID, so the uniqueness & the throughput are the same as the UID generator, and the
+ * {@link CachedUidGenerator} serves the UUIDs from its RingBuffer as well. The UUID is allocated as blow:<br>
+ * <li>unix_ts_ms: The highest 48 bits, the timestamp of the UID in millis, <code>epoch + deltaTime * timeUnit</code>
+ * <li>ver: The next 4 bits, 7
+ * <li>rand_a: The next 12 bits, 0
+ * <li>var: The next 2 bits, 0b10
+ * <li>rand_b: The lowest 62 bits, the worker id & sequence bits of the UID
+ *
+ * <pre>{@code
+ * +--------------------+-----+--------+-----+---------------------------+
+ * |     unix_ts_ms     | ver | rand_a | var |   worker id & sequence    |
+ * +--------------------+-----+--------+-----+---------------------------+
+ *        48bits         4bits  12bits   2bits          62bits
+ * }</pre>
+ * 
+ * The UUIDs of a generator ascend in the unsigned byte order as the UIDs, so the inserts of a B-tree index stay
+ * append-only. Note that {@link UUID#compareTo(UUID)} compares signed longs, which is the same order until the year 6429.
+ * The UUID can be converted back to the UID by {@link #toUID(UUID)}.<p>
+ * 
+ * Spring property:
+ * <li><b>uidGenerator:</b> The underlying {@link DefaultUidGenerator} or {@link CachedUidGenerator}
+ */
+public class TimeOrderedUuidGenerator implements InitializingBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimeOrderedUuidGenerator.class);
+
+    /** Version & variant bits */
+    private static final long VERSION_BITS = 0x7000L;
+    private static final long VARIANT_BITS = 0x8000000000000000L;
+    private static final int TIMESTAMP_SHIFT = 16;
+
+    /** Spring property */
+    private DefaultUidGenerator uidGenerator;
+
+    /** Layout of the UID */
+    private int timestampShift;
+    private long restMask;
+    private long epochMillis;
+    private long timeUnitMillis;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        Assert.notNull(uidGenerator, "UidGenerator can't be null!");
+        Assert.notNull(uidGenerator.bitsAllocator, "UidGenerator must be initialized before!");
+
+        this.timestampShift = uidGenerator.bitsAllocator.getTimestampShift();
+        this.restMask = (1L << timestampShift) - 1;
+        this.epochMillis = uidGenerator.epochMillis;
+        this.timeUnitMillis = uidGenerator.timeUnitMillis;
+        LOGGER.info("Initialized UUID generator on {} for workerID:{}", uidGenerator.getClass().getSimpleName(),
+                uidGenerator.workerId);
+    }
+
+    /**
+     * Get a time-ordered UUID
+     * 
+     * @return UUID
+     * @throws UidGenerateException
+     */
+    public UUID getUUID() throws UidGenerateException {
+        long uid = nextRawUid();
+        return new UUID(mostSigBits(uid), leastSigBits(uid));
+    }
+
+    /**
+     * Get a time-ordered UUID as a pair of longs without allocation
+     * 
+     * @param pairs array to fill in, most significant bits at the offset, least significant bits at the offset + 1
+     * @param offset
+     * @throws UidGenerateException
+     */
+    public void getUUID(long[] pairs, int offset) throws UidGenerateException {
+        long uid = nextRawUid();
+        pairs[offset] = mostSigBits(uid);
+        pairs[offset + 1] = leastSigBits(uid);
+    }
+
+    /**
+     * Get a batch of time-ordered UUIDs as pairs of longs
+     * 
+     * @param pairs array to fill in, 2 longs for each UUID
+     * @param offset start of the pairs
+     * @param count count of the UUIDs
+     * @throws UidGenerateException
+     */
+    public void getUUIDs(long[] pairs, int offset, int count) throws UidGenerateException {
+        Assert.isTrue(offset >= 0 && count >= 0 && offset + 2L * count <= pairs.length, "Pairs out of bounds");
+        for (int i = 0; i < count; i++) {
+            getUUID(pairs, offset + 2 * i);
+        }
+    }
+
+    /**
+     * Get a batch of time-ordered UUIDs
+     * 
+     * @param uuids array to fill in
+     * @param offset
+     * @param count
+     * @throws UidGenerateException
+     */
+    public void getUUIDs(UUID[] uuids, int offset, int count) throws UidGenerateException {
+        for (int i = 0; i < count; i++) {
+            uuids[offset + i] = getUUID();
+        }
+    }
+
+    /**
+     * Convert the UUID back to the UID of the generator
+     * 
+     * @param uuid
+     * @return UID, scrambled as the output of the generator if a scrambler is specified
+     */
+    public long toUID(UUID uuid) {
+        long millis = uuid.getMostSignificantBits() >>> TIMESTAMP_SHIFT;
+        long deltaTime = (millis - epochMillis) / timeUnitMillis;
+        return uidGenerator.scramble((deltaTime << timestampShift) | (uuid.getLeastSignificantBits() & restMask));
+    }
+
+    /**
+     * Parse the UUID as {@link DefaultUidGenerator#parseUID(long)}
+     * 
+     * @param uuid
+     * @return Parsed info
+     */
+    public String parseUUID(UUID uuid) {
+        return uidGenerator.parseUID(toUID(uuid));
+    }
+
+    /**
+     * Next UID of the generator, unscrambled
+     */
+    private long nextRawUid() {
+        return uidGenerator.unscramble(uidGenerator.getUID());
+    }
+
+    private long mostSigBits(long uid) {
+        long millis = epochMillis + (uid >>> timestampShift) * timeUnitMillis;
+        return (millis << TIMESTAMP_SHIFT) | VERSION_BITS;
+    }
+
+    private long leastSigBits(long uid) {
+        return VARIANT_BITS | (uid & restMask);
+    }
+
+    /**
+     * Setters for spring property
+     */
+    public void setUidGenerator(DefaultUidGenerator uidGenerator) {
+        this.uidGenerator = uidGenerator;
+    }
+
+}
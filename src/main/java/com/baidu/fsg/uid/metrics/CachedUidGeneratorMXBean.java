@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.metrics;
+
+/**
+ * Management interface of a {@link com.baidu.fsg.uid.impl.CachedUidGenerator}, tunes the padding at runtime without
+ * restarting, which costs a new worker id and a full refill of the RingBuffer. The adjustments are not persisted
+ */
+public interface CachedUidGeneratorMXBean extends UidGeneratorMXBean {
+
+    /** Padding factor in (0, 100), the padding is triggered when the available UIDs are less than the threshold */
+    int getPaddingFactor();
+
+    void setPaddingFactor(int paddingFactor);
+
+    int getPaddingThreshold();
+
+    /** Schedule interval of padding, unit as second. Setting it starts the schedule if not using schedule */
+    long getScheduleInterval();
+
+    void setScheduleInterval(long scheduleInterval);
+
+    boolean isUsingSchedule();
+
+    boolean isSchedulePaused();
+
+    /** Pause the scheduled padding, the padding triggered by the threshold is not affected */
+    void pauseSchedule();
+
+    /** Resume the scheduled padding paused */
+    void resumeSchedule();
+
+    /** Trigger a padding immediately in the padding thread pool */
+    void triggerPadding();
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.metrics;
+
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import com.baidu.fsg.uid.buffer.BufferPaddingExecutor;
+import com.baidu.fsg.uid.buffer.RingBuffer;
+
+/**
+ * Represents the {@link CachedUidGeneratorMXBean} of a cached generator, the tunings are applied to the attached
+ * {@link RingBuffer} & {@link BufferPaddingExecutor}
+ */
+public class CachedUidGeneratorMonitor extends UidGeneratorMonitor implements CachedUidGeneratorMXBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachedUidGeneratorMonitor.class);
+
+    /**
+     * Constructor with the collector & the worker id in use
+     * 
+     * @param collector
+     * @param workerIdSupplier
+     */
+    public CachedUidGeneratorMonitor(UidMetricsCollector collector, LongSupplier workerIdSupplier) {
+        super(collector, workerIdSupplier);
+    }
+
+    @Override
+    public int getPaddingFactor() {
+        RingBuffer ringBuffer = getRingBuffer();
+        return ringBuffer == null ? 0 : ringBuffer.getPaddingFactor();
+    }
+
+    @Override
+    public void setPaddingFactor(int paddingFactor) {
+        RingBuffer ringBuffer = attachedRingBuffer();
+        ringBuffer.setPaddingFactor(paddingFactor);
+        LOGGER.info("Adjusted paddingFactor:{}. {}", paddingFactor, ringBuffer);
+    }
+
+    @Override
+    public int getPaddingThreshold() {
+        RingBuffer ringBuffer = getRingBuffer();
+        return ringBuffer == null ? 0 : ringBuffer.getPaddingThreshold();
+    }
+
+    @Override
+    public long getScheduleInterval() {
+        BufferPaddingExecutor bufferPaddingExecutor = getBufferPaddingExecutor();
+        return bufferPaddingExecutor == null || !bufferPaddingExecutor.isUsingSchedule() ? 0L
+                : bufferPaddingExecutor.getScheduleInterval();
+    }
+
+    @Override
+    public void setScheduleInterval(long scheduleInterval) {
+        attachedBufferPaddingExecutor().reschedule(scheduleInterval);
+    }
+
+    @Override
+    public boolean isUsingSchedule() {
+        BufferPaddingExecutor bufferPaddingExecutor = getBufferPaddingExecutor();
+        return bufferPaddingExecutor != null && bufferPaddingExecutor.isUsingSchedule();
+    }
+
+    @Override
+    public boolean isSchedulePaused() {
+        BufferPaddingExecutor bufferPaddingExecutor = getBufferPaddingExecutor();
+        return bufferPaddingExecutor != null && bufferPaddingExecutor.isSchedulePaused();
+    }
+
+    @Override
+    public void pauseSchedule() {
+        attachedBufferPaddingExecutor().pauseSchedule();
+    }
+
+    @Override
+    public void resumeSchedule() {
+        attachedBufferPaddingExecutor().resumeSchedule();
+    }
+
+    @Override
+    public void triggerPadding() {
+        LOGGER.info("Trigger padding buffer by management");
+        attachedBufferPaddingExecutor().asyncPadding();
+    }
+
+    private RingBuffer attachedRingBuffer() {
+        RingBuffer ringBuffer = getRingBuffer();
+        Assert.state(ringBuffer != null, "RingBuffer is not initialized!");
+        return ringBuffer;
+    }
+
+    private BufferPaddingExecutor attachedBufferPaddingExecutor() {
+        BufferPaddingExecutor bufferPaddingExecutor = getBufferPaddingExecutor();
+        Assert.state(bufferPaddingExecutor != null, "BufferPaddingExecutor is not initialized!");
+        return bufferPaddingExecutor;
+    }
+
+}
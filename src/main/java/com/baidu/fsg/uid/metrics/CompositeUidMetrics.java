@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.metrics;
+
+import org.springframework.util.Assert;
+
+/**
+ * Represents a {@link UidMetrics} dispatching the callbacks to several delegates in order
+ */
+public class CompositeUidMetrics implements UidMetrics {
+
+    private final UidMetrics[] delegates;
+
+    /**
+     * Constructor with the delegates
+     * 
+     * @param delegates
+     */
+    public CompositeUidMetrics(UidMetrics... delegates) {
+        Assert.noNullElements(delegates, "Delegates can't be null!");
+        this.delegates = delegates.clone();
+    }
+
+    @Override
+    public void onPaddingStart() {
+        for (UidMetrics delegate : delegates) {
+            delegate.onPaddingStart();
+        }
+    }
+
+    @Override
+    public void onPadding(int paddedUids, long durationNanos, long firstMillis, long lastMillis) {
+        for (UidMetrics delegate : delegates) {
+            delegate.onPadding(paddedUids, durationNanos, firstMillis, lastMillis);
+        }
+    }
+
+    @Override
+    public void onRejectedPut() {
+        for (UidMetrics delegate : delegates) {
+            delegate.onRejectedPut();
+        }
+    }
+
+    @Override
+    public void onRejectedTake() {
+        for (UidMetrics delegate : delegates) {
+            delegate.onRejectedTake();
+        }
+    }
+
+    @Override
+    public void onClockBackwardsWait(long backwardsMillis, long waitMillis) {
+        for (UidMetrics delegate : delegates) {
+            delegate.onClockBackwardsWait(backwardsMillis, waitMillis);
+        }
+    }
+
+    @Override
+    public void onWorkerIdSwitch(long backwardsMillis, long fromWorkerId, long toWorkerId) {
+        for (UidMetrics delegate : delegates) {
+            delegate.onWorkerIdSwitch(backwardsMillis, fromWorkerId, toWorkerId);
+        }
+    }
+
+    @Override
+    public void onClockBackwardsRefused(long backwardsMillis) {
+        for (UidMetrics delegate : delegates) {
+            delegate.onClockBackwardsRefused(backwardsMillis);
+        }
+    }
+
+    @Override
+    public void onSequenceExhausted(long waitMillis) {
+        for (UidMetrics delegate : delegates) {
+            delegate.onSequenceExhausted(waitMillis);
+        }
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.metrics;
+
+/**
+ * Management interface of a UID generator, registered by the generator with <b>jmxEnabled</b><p>
+ * 
+ * The counters are accumulated since the startup, the rates such as the take rate are the deltas between two reads.
+ * The RingBuffer attributes are 0 for the generators without a RingBuffer
+ */
+public interface UidGeneratorMXBean {
+
+    /** Worker id in use, changes on switching to the standby worker id */
+    long getWorkerId();
+
+    /** RingBuffer */
+    int getBufferSize();
+
+    /** Available UIDs in the RingBuffer, as tail - cursor */
+    long getBufferOccupancy();
+
+    /** UIDs taken from the RingBuffer */
+    long getTakeCount();
+
+    /** How far the latest padded time unit is ahead of the wall clock, unit as millisecond */
+    long getBorrowedMillis();
+
+    /** Padding */
+    long getPaddingCount();
+
+    long getPaddedUidCount();
+
+    long getPaddingTotalMillis();
+
+    long getPaddingMaxMillis();
+
+    /** Rejections */
+    long getRejectedPutCount();
+
+    long getRejectedTakeCount();
+
+    /** Clock backwards */
+    long getClockBackwardsCount();
+
+    long getClockBackwardsWaitedMillis();
+
+    long getClockBackwardsLostMillis();
+
+    long getWorkerIdSwitchCount();
+
+    /** Sequence exhaustion */
+    long getSequenceExhaustedCount();
+
+    long getSequenceExhaustedWaitMillis();
+
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.baidu.fsg.uid.buffer.BufferPaddingExecutor;
+import com.baidu.fsg.uid.buffer.RingBuffer;
+
+/**
+ * Represents the {@link UidGeneratorMXBean} of a generator, the counters are read from {@link UidMetricsCollector}
+ * and the gauges from the {@link RingBuffer} & {@link BufferPaddingExecutor} if attached
+ */
+public class UidGeneratorMonitor implements UidGeneratorMXBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UidGeneratorMonitor.class);
+
+    /** JMX domain */
+    public static final String JMX_DOMAIN = "com.baidu.fsg.uid";
+
+    private final UidMetricsCollector collector;
+    private final LongSupplier workerIdSupplier;
+
+    /** RingBuffer of the cached generator */
+    private volatile RingBuffer ringBuffer;
+    private volatile BufferPaddingExecutor bufferPaddingExecutor;
+
+    /** Name registered */
+    private ObjectName objectName;
+
+    /**
+     * Constructor with the collector & the worker id in use
+     * 
+     * @param collector
+     * @param workerIdSupplier
+     */
+    public UidGeneratorMonitor(UidMetricsCollector collector, LongSupplier workerIdSupplier) {
+        this.collector = collector;
+        this.workerIdSupplier = workerIdSupplier;
+    }
+
+    /**
+     * Attach the RingBuffer of the cached generator
+     * 
+     * @param ringBuffer
+     * @param bufferPaddingExecutor
+     */
+    public void attach(RingBuffer ringBuffer, BufferPaddingExecutor bufferPaddingExecutor) {
+        this.ringBuffer = ringBuffer;
+        this.bufferPaddingExecutor = bufferPaddingExecutor;
+    }
+
+    /**
+     * Register into the platform MBeanServer as <code>com.baidu.fsg.uid:type={type},workerId={workerId}</code>
+     * 
+     * @param type type of the generator
+     * @throws JMException
+     */
+    public synchronized void register(String type) throws JMException {
+        MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        objectName = new ObjectName(JMX_DOMAIN + ":type=" + ObjectName.quote(type) + ",workerId=" + getWorkerId());
+        mbeanServer.registerMBean(this, objectName);
+        LOGGER.info("Registered MBean {}", objectName);
+    }
+
+    /**
+     * Unregister from the platform MBeanServer if registered
+     */
+    public synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            LOGGER.warn("Unregister MBean {} failed", objectName, e);
+        }
+        objectName = null;
+    }
+
+    /**
+     * RingBuffer & BufferPaddingExecutor attached, null if not attached
+     */
+    protected RingBuffer getRingBuffer() {
+        return ringBuffer;
+    }
+
+    protected BufferPaddingExecutor getBufferPaddingExecutor() {
+        return bufferPaddingExecutor;
+    }
+
+    /**
+     * Name registered, null if not registered
+     */
+    public synchronized ObjectName getObjectName() {
+        return objectName;
+    }
+
+    @Override
+    public long getWorkerId() {
+        return workerIdSupplier.getAsLong();
+    }
+
+    @Override
+    public int getBufferSize() {
+        RingBuffer ringBuffer = this.ringBuffer;
+        return ringBuffer == null ? 0 : ringBuffer.getBufferSize();
+    }
+
+    @Override
+    public long getBufferOccupancy() {
+        RingBuffer ringBuffer = this.ringBuffer;
+        return ringBuffer == null ? 0L : Math.max(ringBuffer.getTail() - ringBuffer.getCursor(), 0L);
+    }
+
+    @Override
+    public long getTakeCount() {
+        // the cursor starts from -1, and moves one step for each take
+        RingBuffer ringBuffer = this.ringBuffer;
+        return ringBuffer == null ? 0L : ringBuffer.getCursor() + 1;
+    }
+
+    @Override
+    public long getBorrowedMillis() {
+        BufferPaddingExecutor bufferPaddingExecutor = this.bufferPaddingExecutor;
+        if (bufferPaddingExecutor == null) {
+            return 0L;
+        }
+
+        long lastMillis = bufferPaddingExecutor.getLastTimestampMillis();
+        return Math.max(lastMillis - System.currentTimeMillis(), 0L);
+    }
+
+    @Override
+    public long getPaddingCount() {
+        return collector.getPaddingCount();
+    }
+
+    @Override
+    public long getPaddedUidCount() {
+        return collector.getPaddedUidCount();
+    }
+
+    @Override
+    public long getPaddingTotalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(collector.getPaddingNanos());
+    }
+
+    @Override
+    public long getPaddingMaxMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(collector.getPaddingMaxNanos());
+    }
+
+    @Override
+    public long getRejectedPutCount() {
+        return collector.getRejectedPutCount();
+    }
+
+    @Override
+    public long getRejectedTakeCount() {
+        return collector.getRejectedTakeCount();
+    }
+
+    @Override
+    public long getClockBackwardsCount() {
+        return collector.getClockBackwardsCount();
+    }
+
+    @Override
+    public long getClockBackwardsWaitedMillis() {
+        return collector.getClockBackwardsWaitedMillis();
+    }
+
+    @Override
+    public long getClockBackwardsLostMillis() {
+        return collector.getClockBackwardsLostMillis();
+    }
+
+    @Override
+    public long getWorkerIdSwitchCount() {
+        return collector.getWorkerIdSwitchCount();
+    }
+
+    @Override
+    public long getSequenceExhaustedCount() {
+        return collector.getSequenceExhaustedCount();
+    }
+
+    @Override
+    public long getSequenceExhaustedWaitMillis() {
+        return collector.getSequenceExhaustedWaitMillis();
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.metrics;
+
+/**
+ * Listener of the generator internals, all the callbacks are no-op by default<p>
+ * 
+ * The callbacks are invoked on the threads generating or padding UIDs, some of them holding the lock of the
+ * generator. Implementations must be thread safe & cheap, such as striped counters, and must not throw
+ */
+public interface UidMetrics {
+
+    /** No-op metrics */
+    UidMetrics NONE = new UidMetrics() {
+    };
+
+    /**
+     * A padding run of the RingBuffer is started, on the same thread as {@link #onPadding(int, long, long, long)}
+     */
+    default void onPaddingStart() {
+    }
+
+    /**
+     * A padding run of the RingBuffer is finished
+     * 
+     * @param paddedUids UIDs put into the RingBuffer
+     * @param durationNanos duration of the run
+     * @param firstMillis start of the first time unit provided in the run, unit as millisecond
+     * @param lastMillis start of the last time unit provided in the run, unit as millisecond
+     */
+    default void onPadding(int paddedUids, long durationNanos, long firstMillis, long lastMillis) {
+    }
+
+    /**
+     * A put is rejected since the RingBuffer is full, each padding run ends with one
+     */
+    default void onRejectedPut() {
+    }
+
+    /**
+     * A take is rejected since the RingBuffer is empty
+     */
+    default void onRejectedTake() {
+    }
+
+    /**
+     * The clock moved backwards within the tolerance, the generation waits for the clock catching up. Notified once
+     * for a rollback, however many callers wait or retry
+     * 
+     * @param backwardsMillis
+     * @param waitMillis
+     */
+    default void onClockBackwardsWait(long backwardsMillis, long waitMillis) {
+    }
+
+    /**
+     * The clock moved backwards beyond the tolerance, the generation switches to the standby worker id
+     * 
+     * @param backwardsMillis
+     * @param fromWorkerId
+     * @param toWorkerId
+     */
+    default void onWorkerIdSwitch(long backwardsMillis, long fromWorkerId, long toWorkerId) {
+    }
+
+    /**
+     * The clock moved backwards beyond the tolerance without a standby worker id, the generation is refused. Notified
+     * once for a rollback, while each generation is refused until the clock catches up
+     * 
+     * @param backwardsMillis
+     */
+    default void onClockBackwardsRefused(long backwardsMillis) {
+    }
+
+    /**
+     * The sequence is exhausted within a time unit, the generation waits for the next one
+     * 
+     * @param waitMillis
+     */
+    default void onSequenceExhausted(long waitMillis) {
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Represents a {@link UidMetrics} counting the callbacks by striped {@link LongAdder}s, so that the counting threads
+ * don't contend on one cache line. The reads are sums of the stripes, which are not atomic snapshots across counters
+ */
+public class UidMetricsCollector implements UidMetrics {
+
+    /** Padding */
+    private final LongAdder paddingCount = new LongAdder();
+    private final LongAdder paddedUidCount = new LongAdder();
+    private final LongAdder paddingNanos = new LongAdder();
+    private final LongAccumulator paddingMaxNanos = new LongAccumulator(Math::max, 0L);
+
+    /** Rejections */
+    private final LongAdder rejectedPutCount = new LongAdder();
+    private final LongAdder rejectedTakeCount = new LongAdder();
+
+    /** Clock backwards */
+    private final LongAdder clockBackwardsCount = new LongAdder();
+    private final LongAdder clockBackwardsWaitedMillis = new LongAdder();
+    private final LongAdder clockBackwardsLostMillis = new LongAdder();
+    private final LongAdder workerIdSwitchCount = new LongAdder();
+
+    /** Sequence exhaustion */
+    private final LongAdder sequenceExhaustedCount = new LongAdder();
+    private final LongAdder sequenceExhaustedWaitMillis = new LongAdder();
+
+    @Override
+    public void onPadding(int paddedUids, long durationNanos, long firstMillis, long lastMillis) {
+        paddingCount.increment();
+        paddedUidCount.add(paddedUids);
+        paddingNanos.add(durationNanos);
+        paddingMaxNanos.accumulate(durationNanos);
+    }
+
+    @Override
+    public void onRejectedPut() {
+        rejectedPutCount.increment();
+    }
+
+    @Override
+    public void onRejectedTake() {
+        rejectedTakeCount.increment();
+    }
+
+    @Override
+    public void onClockBackwardsWait(long backwardsMillis, long waitMillis) {
+        clockBackwardsCount.increment();
+        clockBackwardsWaitedMillis.add(Math.max(waitMillis, 0L));
+    }
+
+    @Override
+    public void onWorkerIdSwitch(long backwardsMillis, long fromWorkerId, long toWorkerId) {
+        clockBackwardsCount.increment();
+        clockBackwardsLostMillis.add(backwardsMillis);
+        workerIdSwitchCount.increment();
+    }
+
+    @Override
+    public void onClockBackwardsRefused(long backwardsMillis) {
+        clockBackwardsCount.increment();
+    }
+
+    @Override
+    public void onSequenceExhausted(long waitMillis) {
+        sequenceExhaustedCount.increment();
+        sequenceExhaustedWaitMillis.add(Math.max(waitMillis, 0L));
+    }
+
+    /**
+     * Getters
+     */
+    public long getPaddingCount() {
+        return paddingCount.sum();
+    }
+
+    public long getPaddedUidCount() {
+        return paddedUidCount.sum();
+    }
+
+    public long getPaddingNanos() {
+        return paddingNanos.sum();
+    }
+
+    public long getPaddingMaxNanos() {
+        return paddingMaxNanos.get();
+    }
+
+    public long getRejectedPutCount() {
+        return rejectedPutCount.sum();
+    }
+
+    public long getRejectedTakeCount() {
+        return rejectedTakeCount.sum();
+    }
+
+    public long getClockBackwardsCount() {
+        return clockBackwardsCount.sum();
+    }
+
+    public long getClockBackwardsWaitedMillis() {
+        return clockBackwardsWaitedMillis.sum();
+    }
+
+    public long getClockBackwardsLostMillis() {
+        return clockBackwardsLostMillis.sum();
+    }
+
+    public long getWorkerIdSwitchCount() {
+        return workerIdSwitchCount.sum();
+    }
+
+    public long getSequenceExhaustedCount() {
+        return sequenceExhaustedCount.sum();
+    }
+
+    public long getSequenceExhaustedWaitMillis() {
+        return sequenceExhaustedWaitMillis.sum();
+    }
+
+}
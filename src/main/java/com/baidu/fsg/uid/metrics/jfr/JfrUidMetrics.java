@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.metrics.jfr;
+
+import com.baidu.fsg.uid.metrics.UidMetrics;
+
+/**
+ * Represents a {@link UidMetrics} emitting Java Flight Recorder events, so that the generator behavior lines up with
+ * the GC & lock events in one recording:<br>
+ * <li>{@link PaddingEvent}: Padding runs, spans the run with the UIDs added & the time units provided
+ * <li>{@link RejectedTakeEvent}, {@link RejectedPutEvent}: RingBuffer rejections, the put one is disabled by default
+ * <li>{@link ClockBackwardsEvent}: Clock moved backwards, with the action of the policy
+ * <li>{@link SequenceExhaustedEvent}: Sequence exhausted, with the wait for the next time unit<p>
+ * 
+ * The events are created and checked by {@link jdk.jfr.Event#shouldCommit()} before setting fields, which is
+ * optimized away by the JIT when no recording enables them. It requires a JVM with <code>jdk.jfr</code>, such as JDK
+ * 8u262+ or 11+, and the classes of this package are only loaded when it is specified:
+ * <pre>{@code
+ * <property name="uidMetrics">
+ *     <bean class="com.baidu.fsg.uid.metrics.jfr.JfrUidMetrics"/>
+ * </property>
+ * }</pre>
+ */
+public class JfrUidMetrics implements UidMetrics {
+
+    /** Padding event in progress, the start & the end of a run are on the same thread */
+    private final ThreadLocal<PaddingEvent> paddingEvent = new ThreadLocal<>();
+
+    @Override
+    public void onPaddingStart() {
+        PaddingEvent event = new PaddingEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            paddingEvent.set(event);
+        }
+    }
+
+    @Override
+    public void onPadding(int paddedUids, long durationNanos, long firstMillis, long lastMillis) {
+        PaddingEvent event = paddingEvent.get();
+        if (event == null) {
+            return;
+        }
+
+        paddingEvent.remove();
+        event.end();
+        if (event.shouldCommit()) {
+            event.paddedUids = paddedUids;
+            event.firstMillis = firstMillis;
+            event.lastMillis = lastMillis;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onRejectedPut() {
+        RejectedPutEvent event = new RejectedPutEvent();
+        if (event.shouldCommit()) {
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onRejectedTake() {
+        RejectedTakeEvent event = new RejectedTakeEvent();
+        if (event.shouldCommit()) {
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onClockBackwardsWait(long backwardsMillis, long waitMillis) {
+        commitClockBackwards(ClockBackwardsEvent.WAIT, backwardsMillis, Math.max(waitMillis, 0L), -1L, -1L);
+    }
+
+    @Override
+    public void onWorkerIdSwitch(long backwardsMillis, long fromWorkerId, long toWorkerId) {
+        commitClockBackwards(ClockBackwardsEvent.SWITCH, backwardsMillis, 0L, fromWorkerId, toWorkerId);
+    }
+
+    @Override
+    public void onClockBackwardsRefused(long backwardsMillis) {
+        commitClockBackwards(ClockBackwardsEvent.REFUSE, backwardsMillis, 0L, -1L, -1L);
+    }
+
+    @Override
+    public void onSequenceExhausted(long waitMillis) {
+        SequenceExhaustedEvent event = new SequenceExhaustedEvent();
+        if (event.shouldCommit()) {
+            event.wait = Math.max(waitMillis, 0L);
+            event.commit();
+        }
+    }
+
+    private static void commitClockBackwards(String action, long backwardsMillis, long waitMillis, long fromWorkerId,
+            long toWorkerId) {
+        ClockBackwardsEvent event = new ClockBackwardsEvent();
+        if (event.shouldCommit()) {
+            event.action = action;
+            event.backwards = backwardsMillis;
+            event.wait = waitMillis;
+            event.fromWorkerId = fromWorkerId;
+            event.toWorkerId = toWorkerId;
+            event.commit();
+        }
+    }
+
+}
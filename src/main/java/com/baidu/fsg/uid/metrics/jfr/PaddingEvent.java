@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timestamp;
+
+/**
+ * JFR event of a padding run of the RingBuffer, spans from the start to the end of the run
+ */
+@Name(PaddingEvent.NAME)
+@Label("UID Padding")
+@Category({ "UID Generator", "RingBuffer" })
+@Description("Padding run filling the RingBuffer with UIDs of the borrowed time units")
+@StackTrace(false)
+public class PaddingEvent extends Event {
+    public static final String NAME = "com.baidu.fsg.uid.Padding";
+
+    @Label("Padded UIDs")
+    int paddedUids;
+
+    @Label("First Time Unit")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    long firstMillis;
+
+    @Label("Last Time Unit")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    long lastMillis;
+
+}
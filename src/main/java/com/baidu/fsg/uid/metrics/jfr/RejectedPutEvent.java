@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of a put rejected since the RingBuffer is full. Each padding run ends with one, so it is disabled by
+ * default
+ */
+@Name(RejectedPutEvent.NAME)
+@Label("UID Rejected Put")
+@Category({ "UID Generator", "RingBuffer" })
+@Description("Put rejected since the RingBuffer is full, each padding run ends with one")
+@Enabled(false)
+@StackTrace(false)
+public class RejectedPutEvent extends Event {
+    public static final String NAME = "com.baidu.fsg.uid.RejectedPut";
+
+}
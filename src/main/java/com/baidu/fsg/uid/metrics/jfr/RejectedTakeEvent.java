@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of a take rejected since the RingBuffer is empty, with the stack trace of the caller
+ */
+@Name(RejectedTakeEvent.NAME)
+@Label("UID Rejected Take")
+@Category({ "UID Generator", "RingBuffer" })
+@Description("Take rejected since the RingBuffer is empty")
+public class RejectedTakeEvent extends Event {
+    public static final String NAME = "com.baidu.fsg.uid.RejectedTake";
+
+}
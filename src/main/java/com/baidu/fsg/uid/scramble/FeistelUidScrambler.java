@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.scramble;
+
+import org.springframework.util.Assert;
+
+/**
+ * Represents a {@link UidScrambler} of a keyed Feistel network on the 63 bits<p>
+ * 
+ * The 63 bits are split into the high 31 bits and the low 32 bits, and the rounds xor one half with a keyed
+ * splitmix hash of the other half alternately. Each round is invertible whatever the hash, so the inverse applies
+ * the rounds in the reverse order. The sign bit keeps 0, and a round costs one multiply and few shifts.<p>
+ * 
+ * The key can be specified by Spring property setting, the same key must be used to unscramble
+ * <li>key: secret of the rounds, default as 0
+ * <li>rounds: count of the rounds, default as 4
+ */
+public class FeistelUidScrambler implements UidScrambler {
+
+    /** Default rounds, 4 rounds mix every bit into every bit of the output */
+    public static final int DEFAULT_ROUNDS = 4;
+
+    private static final int LOW_BITS = 32;
+    private static final long LOW_MASK = (1L << LOW_BITS) - 1;
+    private static final long HIGH_MASK = (1L << (Long.SIZE - 1 - LOW_BITS)) - 1;
+
+    /** Round keys derived from the key */
+    private long[] roundKeys;
+    private long key = 0L;
+    private int rounds = DEFAULT_ROUNDS;
+
+    /**
+     * Constructor for spring property
+     */
+    public FeistelUidScrambler() {
+        this.roundKeys = deriveRoundKeys(key, rounds);
+    }
+
+    /**
+     * Constructor with the key
+     * 
+     * @param key
+     */
+    public FeistelUidScrambler(long key) {
+        this(key, DEFAULT_ROUNDS);
+    }
+
+    /**
+     * Constructor with the key & rounds
+     * 
+     * @param key
+     * @param rounds
+     */
+    public FeistelUidScrambler(long key, int rounds) {
+        Assert.isTrue(rounds > 0, "Rounds must be positive!");
+        this.key = key;
+        this.rounds = rounds;
+        this.roundKeys = deriveRoundKeys(key, rounds);
+    }
+
+    @Override
+    public long scramble(long uid) {
+        long high = (uid >>> LOW_BITS) & HIGH_MASK;
+        long low = uid & LOW_MASK;
+        for (int i = 0; i < roundKeys.length; i++) {
+            if ((i & 1) == 0) {
+                high ^= hash(low, roundKeys[i]) & HIGH_MASK;
+            } else {
+                low ^= hash(high, roundKeys[i]) & LOW_MASK;
+            }
+        }
+
+        return (high << LOW_BITS) | low;
+    }
+
+    @Override
+    public long unscramble(long scrambled) {
+        long high = (scrambled >>> LOW_BITS) & HIGH_MASK;
+        long low = scrambled & LOW_MASK;
+        for (int i = roundKeys.length - 1; i >= 0; i--) {
+            if ((i & 1) == 0) {
+                high ^= hash(low, roundKeys[i]) & HIGH_MASK;
+            } else {
+                low ^= hash(high, roundKeys[i]) & LOW_MASK;
+            }
+        }
+
+        return (high << LOW_BITS) | low;
+    }
+
+    /**
+     * Keyed hash of the half, the high bits of the product are folded into the low bits
+     */
+    private static long hash(long half, long roundKey) {
+        long z = (half ^ roundKey) * 0xBF58476D1CE4E5B9L;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Derive round keys by splitmix64 of the key
+     */
+    private static long[] deriveRoundKeys(long key, int rounds) {
+        long[] roundKeys = new long[rounds];
+        long state = key;
+        for (int i = 0; i < rounds; i++) {
+            long z = (state += 0x9E3779B97F4A7C15L);
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            roundKeys[i] = z ^ (z >>> 31);
+        }
+        return roundKeys;
+    }
+
+    /**
+     * Setters for spring property
+     */
+    public void setKey(long key) {
+        this.key = key;
+        this.roundKeys = deriveRoundKeys(key, rounds);
+    }
+
+    public void setRounds(int rounds) {
+        Assert.isTrue(rounds > 0, "Rounds must be positive!");
+        this.rounds = rounds;
+        this.roundKeys = deriveRoundKeys(key, rounds);
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.scramble;
+
+/**
+ * Represents a reversible bijection on the 63 bits UIDs<p>
+ * 
+ * Monotonic UIDs make the last region of a range-partitioned store the write hotspot. A scrambled UID spreads the
+ * writes over all the regions, and is still decodable by {@link #unscramble(long)}
+ */
+public interface UidScrambler {
+
+    /**
+     * Scramble the UID, the result is non-negative as well
+     * 
+     * @param uid non-negative UID
+     * @return scrambled UID
+     */
+    long scramble(long uid);
+
+    /**
+     * Inverse of {@link #scramble(long)}
+     * 
+     * @param scrambled scrambled UID
+     * @return original UID
+     */
+    long unscramble(long scrambled);
+
+}
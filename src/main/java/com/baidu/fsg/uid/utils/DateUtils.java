@@ -18,6 +18,7 @@ package com.baidu.fsg.uid.utils;
 import java.text.ParseException;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.TimeZone;
 
 import org.apache.commons.lang.time.DateFormatUtils;
 
@@ -36,6 +37,14 @@ public abstract class DateUtils extends org.apache.commons.lang.time.DateUtils {
 
     public static final Date DEFAULT_DATE = DateUtils.parseByDayPattern("1970-01-01");
 
+    /**
+     * Default time zone on class initializing, used by the allocation free formatting. Looking up
+     * <code>TimeZone.getDefault()</code> per call clones the zone, so a later <code>TimeZone.setDefault</code> is not
+     * seen by {@link #appendDateTime(StringBuilder, long, boolean)}
+     */
+    private static final TimeZone DEFAULT_TIME_ZONE = TimeZone.getDefault();
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+
     /**
      * Parse date by 'yyyy-MM-dd' pattern
      *
@@ -107,6 +116,54 @@ public abstract class DateUtils extends org.apache.commons.lang.time.DateUtils {
         return DateFormatUtils.format(date, DATETIME_PATTERN);
     }
 
+    /**
+     * Append the millis as 'yyyy-MM-dd HH:mm:ss' or 'yyyy-MM-dd HH:mm:ss.SSS' pattern in the default time zone on
+     * class initializing, unlike {@link #formatByDateTimePattern(Date)} which follows the current default<br>
+     * There is no {@link Date} or formatter created, the builder is the only memory written
+     *
+     * @param builder
+     * @param millis epoch millis
+     * @param withMillis whether append the millis of second
+     * @return the builder
+     */
+    public static StringBuilder appendDateTime(StringBuilder builder, long millis, boolean withMillis) {
+        long localMillis = millis + DEFAULT_TIME_ZONE.getOffset(millis);
+        long days = Math.floorDiv(localMillis, MILLIS_PER_DAY);
+        int millisOfDay = (int) Math.floorMod(localMillis, MILLIS_PER_DAY);
+
+        // civil date from days since 1970-01-01, proleptic Gregorian calendar
+        long shiftedDays = days + 719468;
+        long era = (shiftedDays >= 0 ? shiftedDays : shiftedDays - 146096) / 146097;
+        int dayOfEra = (int) (shiftedDays - era * 146097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        builder.append(year).append('-');
+        appendTwoDigits(builder, month).append('-');
+        appendTwoDigits(builder, day).append(' ');
+        appendTwoDigits(builder, millisOfDay / 3600000).append(':');
+        appendTwoDigits(builder, millisOfDay / 60000 % 60).append(':');
+        appendTwoDigits(builder, millisOfDay / 1000 % 60);
+        if (withMillis) {
+            int millisOfSecond = millisOfDay % 1000;
+            builder.append('.').append((char) ('0' + millisOfSecond / 100));
+            appendTwoDigits(builder, millisOfSecond % 100);
+        }
+
+        return builder;
+    }
+
+    /**
+     * Append the value in [0, 100) as two digits
+     */
+    private static StringBuilder appendTwoDigits(StringBuilder builder, int value) {
+        return builder.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
     /**
      * Get current day using format date by 'yyyy-MM-dd HH:mm:ss' pattern
      *
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.buffer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Virtual threads of {@link BufferPaddingExecutor} for JDK 21+, packaged in <code>META-INF/versions/21</code><br>
+ * The virtual threads run each padding on a new virtual thread instead of a pool, the padding only parks on the put
+ * lock of the {@link RingBuffer}, which releases the carrier thread
+ */
+class PaddingThreads {
+
+    /**
+     * Create the executor of padding immediately, a virtual thread per padding
+     */
+    static ExecutorService newVirtualWorkerExecutor(String name) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory());
+    }
+
+    /**
+     * Create the executor of the scheduled padding, a single virtual thread
+     */
+    static ScheduledExecutorService newVirtualScheduleExecutor(String name) {
+        return Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name(name).factory());
+    }
+
+    /**
+     * Whether the virtual threads are supported
+     */
+    static boolean isVirtualSupported() {
+        return true;
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.bulk;
+
+/**
+ * Kernels of {@link BulkUidDecoder} for JDK 21+, packaged in <code>META-INF/versions/21</code><br>
+ * Dispatches to {@link VectorDecodeKernels} if <code>jdk.incubator.vector</code> is resolved in the boot layer,
+ * otherwise falls back to the scalar loops
+ */
+class BulkDecodeKernels {
+
+    /** Whether the incubator vector module is added, such as by <code>--add-modules jdk.incubator.vector</code> */
+    private static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    /**
+     * Decode the timestamp column: <code>epochMillis + ((uid >>> shift) & mask) * timeUnitMillis</code>
+     */
+    static void decodeTimestamps(long[] uids, int offset, int length, long[] out, int outOffset, int shift, long mask,
+                                 long timeUnitMillis, long epochMillis) {
+        if (VECTORIZED) {
+            VectorDecodeKernels.decodeTimestamps(uids, offset, length, out, outOffset, shift, mask, timeUnitMillis,
+                    epochMillis);
+            return;
+        }
+
+        for (int i = 0; i < length; i++) {
+            out[outOffset + i] = epochMillis + ((uids[offset + i] >>> shift) & mask) * timeUnitMillis;
+        }
+    }
+
+    /**
+     * Decode an int column: <code>(uid >>> shift) & mask</code>
+     */
+    static void decodeInts(long[] uids, int offset, int length, int[] out, int outOffset, int shift, long mask) {
+        if (VECTORIZED) {
+            VectorDecodeKernels.decodeInts(uids, offset, length, out, outOffset, shift, mask);
+            return;
+        }
+
+        for (int i = 0; i < length; i++) {
+            out[outOffset + i] = (int) ((uids[offset + i] >>> shift) & mask);
+        }
+    }
+
+    /**
+     * Whether the vector kernels are in use
+     */
+    static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.bulk;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernels of {@link BulkUidDecoder} implemented by <code>jdk.incubator.vector</code><br>
+ * Only loaded by {@link BulkDecodeKernels} when the module is resolved
+ */
+final class VectorDecodeKernels {
+
+    /** Long lanes of the preferred shape, and int lanes of the same count in a half shape */
+    private static final VectorSpecies<Long> LONG_SPECIES = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_PREFERRED
+            .withShape(VectorShape.forBitSize(LONG_SPECIES.vectorBitSize() / 2));
+
+    private VectorDecodeKernels() {
+    }
+
+    /**
+     * Decode the timestamp column: <code>epochMillis + ((uid >>> shift) & mask) * timeUnitMillis</code>
+     */
+    static void decodeTimestamps(long[] uids, int offset, int length, long[] out, int outOffset, int shift, long mask,
+                                 long timeUnitMillis, long epochMillis) {
+        int i = 0;
+        int upperBound = LONG_SPECIES.loopBound(length);
+        for (; i < upperBound; i += LONG_SPECIES.length()) {
+            LongVector.fromArray(LONG_SPECIES, uids, offset + i)
+                      .lanewise(VectorOperators.LSHR, shift)
+                      .and(mask)
+                      .mul(timeUnitMillis)
+                      .add(epochMillis)
+                      .intoArray(out, outOffset + i);
+        }
+
+        // the tail
+        for (; i < length; i++) {
+            out[outOffset + i] = epochMillis + ((uids[offset + i] >>> shift) & mask) * timeUnitMillis;
+        }
+    }
+
+    /**
+     * Decode an int column: <code>(uid >>> shift) & mask</code>
+     */
+    static void decodeInts(long[] uids, int offset, int length, int[] out, int outOffset, int shift, long mask) {
+        int i = 0;
+        int upperBound = LONG_SPECIES.loopBound(length);
+        for (; i < upperBound; i += LONG_SPECIES.length()) {
+            LongVector.fromArray(LONG_SPECIES, uids, offset + i)
+                      .lanewise(VectorOperators.LSHR, shift)
+                      .and(mask)
+                      .convertShape(VectorOperators.L2I, INT_SPECIES, 0)
+                      .reinterpretAsInts()
+                      .intoArray(out, outOffset + i);
+        }
+
+        // the tail
+        for (; i < length; i++) {
+            out[outOffset + i] = (int) ((uids[offset + i] >>> shift) & mask);
+        }
+    }
+
+}
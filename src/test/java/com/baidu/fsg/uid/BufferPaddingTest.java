@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.fsg.uid.buffer.BufferPaddingExecutor;
+import com.baidu.fsg.uid.buffer.RingBuffer;
+import com.baidu.fsg.uid.exception.UidGenerateException;
+import com.baidu.fsg.uid.impl.CachedUidGenerator;
+import com.baidu.fsg.uid.metrics.UidMetricsCollector;
+
+/**
+ * Test for the paddings of {@link BufferPaddingExecutor} triggered during a running padding, and the batch of
+ * {@link CachedUidGenerator} on the empty RingBuffer, no database required
+ */
+public class BufferPaddingTest {
+    private static final int BUFFER_SIZE = 8;
+    /** 8 UIDs per time unit, 16 slots of the RingBuffer */
+    private static final int SEQ_BITS = 3;
+    private static final int BOOST_POWER = 1;
+
+    /** Block the next padding until released */
+    private final AtomicBoolean blocking = new AtomicBoolean(false);
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    /**
+     * Test for the paddings returned as still running, padded once more at the end of the running one
+     */
+    @Test
+    public void testMissedPadding() throws Exception {
+        UidMetricsCollector collector = new UidMetricsCollector();
+        BufferPaddingExecutor paddingExecutor = newPaddingExecutor(collector);
+        try {
+            blocking.set(true);
+            Thread thread = new Thread(paddingExecutor::paddingBuffer);
+            thread.start();
+            blocked.await();
+
+            // the callers don't wait for the running padding
+            for (int i = 0; i < 3; i++) {
+                paddingExecutor.paddingBuffer();
+            }
+            Assert.assertEquals(0L, collector.getPaddingCount());
+
+            // padded once more for all of them
+            released.countDown();
+            thread.join();
+            waitPaddingCount(collector, 2L);
+            Thread.sleep(50L);
+            Assert.assertEquals(2L, collector.getPaddingCount());
+        } finally {
+            paddingExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Test for the async paddings triggered during a running padding, coalesced into one more padding
+     */
+    @Test
+    public void testAsyncPaddingCoalesced() throws Exception {
+        UidMetricsCollector collector = new UidMetricsCollector();
+        BufferPaddingExecutor paddingExecutor = newPaddingExecutor(collector);
+        try {
+            paddingExecutor.paddingBuffer();
+            Assert.assertEquals(1L, collector.getPaddingCount());
+
+            blocking.set(true);
+            paddingExecutor.asyncPadding();
+            blocked.await();
+
+            // a burst of the takes below the threshold
+            for (int i = 0; i < 100; i++) {
+                paddingExecutor.asyncPadding();
+            }
+            Thread.sleep(50L);
+
+            released.countDown();
+            waitPaddingCount(collector, 3L);
+            Thread.sleep(50L);
+            Assert.assertEquals(3L, collector.getPaddingCount());
+        } finally {
+            paddingExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Test for the batch on the empty RingBuffer, parked until the padding running on another thread is done
+     */
+    @Test
+    public void testBatchWaitsForPadding() throws Exception {
+        CachedUidGenerator uidGenerator = newCachedGenerator();
+        try {
+            long[] uids = drain(uidGenerator);
+
+            // waits for the padding instead of the rejection
+            Set<Long> uidSet = new ConcurrentSkipListSet<>();
+            Thread thread = new Thread(() -> {
+                long[] batch = new long[BUFFER_SIZE];
+                uidGenerator.getUIDs(batch, 0, batch.length);
+                for (long uid : batch) {
+                    uidSet.add(uid);
+                }
+            });
+            thread.start();
+
+            // parked with a back-off, not spinning
+            waitState(thread, Thread.State.TIMED_WAITING);
+            Assert.assertTrue(uidSet.isEmpty());
+
+            released.countDown();
+            thread.join();
+            Assert.assertEquals(BUFFER_SIZE, uidSet.size());
+            Assert.assertTrue(uidSet.iterator().next() > uids[uids.length - 1]);
+            Assert.assertEquals(0L, uidGenerator.getMetricsCollector().getRejectedTakeCount());
+        } finally {
+            released.countDown();
+            uidGenerator.destroy();
+        }
+    }
+
+    /**
+     * Test for interrupting the batch waiting for the padding
+     */
+    @Test
+    public void testBatchWaitInterrupted() throws Exception {
+        CachedUidGenerator uidGenerator = newCachedGenerator();
+        try {
+            drain(uidGenerator);
+
+            AtomicReference<Throwable> error = new AtomicReference<>();
+            Thread thread = new Thread(() -> {
+                try {
+                    uidGenerator.getUIDs(new long[BUFFER_SIZE], 0, BUFFER_SIZE);
+                } catch (Throwable e) {
+                    error.set(e);
+                }
+            });
+            thread.start();
+
+            waitState(thread, Thread.State.TIMED_WAITING);
+            thread.interrupt();
+            thread.join();
+            Assert.assertTrue(error.get() instanceof UidGenerateException);
+        } finally {
+            released.countDown();
+            uidGenerator.destroy();
+        }
+    }
+
+    /**
+     * Create the padding executor of a RingBuffer, {@value #BUFFER_SIZE} UIDs per time unit
+     */
+    private BufferPaddingExecutor newPaddingExecutor(UidMetricsCollector collector) {
+        RingBuffer ringBuffer = new RingBuffer(BUFFER_SIZE);
+        BufferPaddingExecutor paddingExecutor = new BufferPaddingExecutor(ringBuffer, timestamp -> {
+            block();
+            List<Long> uids = new ArrayList<>();
+            for (long i = 0; i < BUFFER_SIZE; i++) {
+                uids.add(timestamp * BUFFER_SIZE + i);
+            }
+            return uids;
+        }, false);
+        ringBuffer.setBufferPaddingExecutor(paddingExecutor);
+        ringBuffer.setRejectedPutHandler((buffer, uid) -> { });
+        paddingExecutor.setUidMetrics(collector);
+        return paddingExecutor;
+    }
+
+    /**
+     * Create the cached generator, the UIDs provided are blocked once {@link #blocking} is set
+     */
+    private CachedUidGenerator newCachedGenerator() throws Exception {
+        CachedUidGenerator uidGenerator = new CachedUidGenerator() {
+            @Override
+            protected List<Long> nextIdsForOneTimestamp(long currentTimestamp) {
+                block();
+                return super.nextIdsForOneTimestamp(currentTimestamp);
+            }
+        };
+        uidGenerator.setWorkerIdAssigner(new AtomicLong()::incrementAndGet);
+        uidGenerator.setTimeBits(41);
+        uidGenerator.setWorkerBits(22 - SEQ_BITS);
+        uidGenerator.setSeqBits(SEQ_BITS);
+        uidGenerator.setTimeUnitMillis(1L);
+        uidGenerator.setBoostPower(BOOST_POWER);
+        uidGenerator.afterPropertiesSet();
+        return uidGenerator;
+    }
+
+    /**
+     * Take all the UIDs of the full RingBuffer, the async padding triggered is blocked
+     *
+     * @return the UIDs taken
+     */
+    private long[] drain(CachedUidGenerator uidGenerator) throws InterruptedException {
+        blocking.set(true);
+        long[] uids = new long[(1 << SEQ_BITS) << BOOST_POWER];
+        Assert.assertEquals(uids.length, uidGenerator.tryGetUIDs(uids, 0, uids.length));
+        blocked.await();
+        Assert.assertEquals(-1, uidGenerator.tryGetUIDs(new long[1], 0, 1));
+        return uids;
+    }
+
+    private void block() {
+        if (blocking.compareAndSet(true, false)) {
+            blocked.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void waitPaddingCount(UidMetricsCollector collector, long paddingCount) throws InterruptedException {
+        while (collector.getPaddingCount() < paddingCount) {
+            Thread.sleep(1L);
+        }
+    }
+
+    private void waitState(Thread thread, Thread.State state) throws InterruptedException {
+        while (thread.getState() != state) {
+            Thread.sleep(1L);
+        }
+    }
+
+}
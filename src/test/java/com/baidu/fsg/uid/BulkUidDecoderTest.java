@@ -0,0 +1,53 @@
+package com.baidu.fsg.uid;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.fsg.uid.bulk.BulkUidDecoder;
+
+/**
+ * Test for {@link BulkUidDecoder}
+ */
+public class BulkUidDecoderTest {
+    private static final int SIZE = 100003;
+    private static final long EPOCH_MILLIS = 1463673600000L;
+
+    /**
+     * Test for columnar decoding same as scalar extracting
+     */
+    @Test
+    public void testDecode() {
+        // the vector kernels are expected on the multi-release jar of JDK 21+ only, see the java21 profile
+        Assert.assertEquals(Boolean.getBoolean("uid.bulk.vectorized"), BulkUidDecoder.isVectorized());
+
+        BitsAllocator bitsAllocator = new BitsAllocator(31, 19, 13, 10L);
+        BulkUidDecoder decoder = new BulkUidDecoder(bitsAllocator, EPOCH_MILLIS);
+
+        Random random = new Random(7L);
+        long[] uids = new long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            uids[i] = random.nextLong() & Long.MAX_VALUE;
+        }
+
+        long[] timestamps = new long[SIZE];
+        int[] workerIds = new int[SIZE];
+        int[] sequences = new int[SIZE];
+        decoder.decode(uids, timestamps, workerIds, sequences);
+
+        for (int i = 0; i < SIZE; i++) {
+            long uid = uids[i];
+            Assert.assertEquals(EPOCH_MILLIS + bitsAllocator.extractDeltaTime(uid) * 10L, timestamps[i]);
+            Assert.assertEquals(bitsAllocator.extractWorkerId(uid), workerIds[i]);
+            Assert.assertEquals(bitsAllocator.extractSequence(uid), sequences[i]);
+        }
+
+        // Decode a range into the columns at an offset
+        int[] rangeSequences = new int[20];
+        decoder.decode(uids, 5, 10, new long[20], new int[20], rangeSequences, 10);
+        Assert.assertEquals(sequences[5], rangeSequences[10]);
+        Assert.assertEquals(sequences[14], rangeSequences[19]);
+    }
+
+}
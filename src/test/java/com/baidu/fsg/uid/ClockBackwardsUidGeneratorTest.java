@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.fsg.uid.exception.UidGenerateException;
+import com.baidu.fsg.uid.impl.DefaultUidGenerator;
+
+/**
+ * Test for the clock backwards policy of {@link DefaultUidGenerator} on a controllable clock, no database required
+ */
+public class ClockBackwardsUidGeneratorTest {
+    private static final int THREADS = 4;
+    private static final long NOW = 1500000000000L;
+
+    private final AtomicLong clock = new AtomicLong(NOW);
+    private final AtomicLong workerIds = new AtomicLong();
+
+    /**
+     * Test for the rollback within the tolerance, the callers wait until the clock catches up
+     */
+    @Test
+    public void testWait() throws Exception {
+        DefaultUidGenerator uidGenerator = newGenerator();
+        uidGenerator.setMaxBackwardsWaitMillis(1000L);
+        uidGenerator.afterPropertiesSet();
+        long lastUid = uidGenerator.getUID();
+
+        // the callers park until the clock catches up
+        clock.set(NOW - 50L);
+        Set<Long> uidSet = new ConcurrentSkipListSet<>();
+        List<Thread> threadList = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread(() -> uidSet.add(uidGenerator.getUID()));
+            threadList.add(thread);
+            thread.start();
+        }
+        waitParked(threadList);
+
+        // the retries of the non-blocking source never wait
+        long[] uids = new long[8];
+        Assert.assertEquals(-50, uidGenerator.tryGetUIDs(uids, 0, uids.length));
+        Assert.assertEquals(-50, uidGenerator.tryGetUIDs(uids, 0, uids.length));
+        Assert.assertTrue(uidSet.isEmpty());
+
+        clock.set(NOW);
+        for (Thread thread : threadList) {
+            thread.join();
+        }
+        Assert.assertEquals(THREADS, uidSet.size());
+        Assert.assertTrue(uidSet.iterator().next() > lastUid);
+
+        // reported once for all the callers & retries
+        Assert.assertEquals(1L, uidGenerator.getClockBackwardsCount());
+        Assert.assertEquals(50L, uidGenerator.getClockBackwardsWaitedMillis());
+        Assert.assertEquals(0L, uidGenerator.getWorkerIdSwitchCount());
+
+        // another rollback is reported again
+        clock.set(NOW - 10L);
+        Assert.assertEquals(-10, uidGenerator.tryGetUIDs(uids, 0, uids.length));
+        Assert.assertEquals(2L, uidGenerator.getClockBackwardsCount());
+    }
+
+    /**
+     * Test for the rollback beyond the tolerance, switch to the standby worker id once, then refuse
+     */
+    @Test
+    public void testStandbyWorker() throws Exception {
+        DefaultUidGenerator uidGenerator = newGenerator();
+        uidGenerator.setStandbyWorkerEnabled(true);
+        uidGenerator.afterPropertiesSet();
+        long lastUid = uidGenerator.getUID();
+        UidInfo info = uidGenerator.decode(lastUid, new UidInfo());
+        Assert.assertEquals(1L, info.getWorkerId());
+
+        // generates on the standby worker id at once, without waiting
+        clock.set(NOW - 5000L);
+        long uid = uidGenerator.getUID();
+        uidGenerator.decode(uid, info);
+        Assert.assertEquals(2L, info.getWorkerId());
+        Assert.assertEquals(NOW - 5000L, info.getTimestampMillis());
+        Assert.assertEquals(1L, uidGenerator.getWorkerIdSwitchCount());
+        Assert.assertEquals(5000L, uidGenerator.getClockBackwardsLostMillis());
+
+        // no standby worker id any more
+        clock.set(NOW - 10000L);
+        assertRefused(uidGenerator);
+        Assert.assertEquals(2L, uidGenerator.getClockBackwardsCount());
+        Assert.assertEquals(1L, uidGenerator.getWorkerIdSwitchCount());
+    }
+
+    /**
+     * Test for the rollback without any policy, refused until the clock catches up and reported once
+     */
+    @Test
+    public void testRefuse() throws Exception {
+        DefaultUidGenerator uidGenerator = newGenerator();
+        uidGenerator.afterPropertiesSet();
+        uidGenerator.getUID();
+
+        clock.set(NOW - 1000L);
+        for (int i = 0; i < 3; i++) {
+            assertRefused(uidGenerator);
+        }
+        Assert.assertEquals(1L, uidGenerator.getClockBackwardsCount());
+
+        // catches up
+        clock.set(NOW + 1000L);
+        uidGenerator.getUID();
+
+        // another rollback
+        clock.set(NOW);
+        assertRefused(uidGenerator);
+        Assert.assertEquals(2L, uidGenerator.getClockBackwardsCount());
+        Assert.assertEquals(0L, uidGenerator.getClockBackwardsWaitedMillis());
+    }
+
+    /**
+     * Create the generator on the clock of this test, a worker id assigned for each call
+     */
+    private DefaultUidGenerator newGenerator() {
+        DefaultUidGenerator uidGenerator = new DefaultUidGenerator() {
+            @Override
+            protected long currentTimeMillis() {
+                return clock.get();
+            }
+        };
+        uidGenerator.setWorkerIdAssigner(workerIds::incrementAndGet);
+        return uidGenerator;
+    }
+
+    private void assertRefused(DefaultUidGenerator uidGenerator) {
+        try {
+            uidGenerator.getUID();
+            Assert.fail("Clock moved backwards, but generated");
+        } catch (UidGenerateException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Wait until the threads are parked for the clock
+     */
+    private void waitParked(List<Thread> threadList) throws InterruptedException {
+        for (Thread thread : threadList) {
+            while (thread.getState() != Thread.State.TIMED_WAITING) {
+                Thread.sleep(1L);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.fsg.uid.buffer.BufferPaddingExecutor;
+import com.baidu.fsg.uid.buffer.RingBuffer;
+import com.baidu.fsg.uid.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.metrics.jfr.JfrUidMetrics;
+import com.baidu.fsg.uid.metrics.jfr.PaddingEvent;
+import com.baidu.fsg.uid.metrics.jfr.RejectedPutEvent;
+import com.baidu.fsg.uid.metrics.jfr.RejectedTakeEvent;
+import com.baidu.fsg.uid.metrics.jfr.SequenceExhaustedEvent;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Test for {@link JfrUidMetrics}, no database required
+ */
+public class JfrUidMetricsTest {
+    private static final int BUFFER_SIZE = 8;
+
+    /**
+     * Test for the events emitted in a recording
+     */
+    @Test
+    public void testEvents() throws Exception {
+        JfrUidMetrics jfrUidMetrics = new JfrUidMetrics();
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(PaddingEvent.NAME);
+            recording.enable(RejectedPutEvent.NAME);
+            recording.enable(RejectedTakeEvent.NAME);
+            recording.enable(SequenceExhaustedEvent.NAME);
+            recording.start();
+
+            padAndDrain(jfrUidMetrics);
+            exhaustSequence(jfrUidMetrics);
+
+            recording.stop();
+            Path file = Files.createTempFile("uid-metrics", ".jfr");
+            try {
+                recording.dump(file);
+                events = RecordingFile.readAllEvents(file);
+            } finally {
+                Files.delete(file);
+            }
+        }
+
+        Map<String, List<RecordedEvent>> eventsByName = new HashMap<>();
+        for (RecordedEvent event : events) {
+            eventsByName.computeIfAbsent(event.getEventType().getName(), name -> new ArrayList<>()).add(event);
+        }
+
+        List<RecordedEvent> paddingEvents = eventsByName.get(PaddingEvent.NAME);
+        Assert.assertEquals(1, paddingEvents.size());
+        Assert.assertEquals(BUFFER_SIZE, paddingEvents.get(0).getInt("paddedUids"));
+        Assert.assertTrue(paddingEvents.get(0).getLong("firstMillis") > 0);
+        Assert.assertEquals(1, eventsByName.get(RejectedPutEvent.NAME).size());
+        Assert.assertEquals(1, eventsByName.get(RejectedTakeEvent.NAME).size());
+        Assert.assertTrue(eventsByName.get(SequenceExhaustedEvent.NAME).size() >= 4);
+    }
+
+    /**
+     * Test for no event emitted without recording
+     */
+    @Test
+    public void testWithoutRecording() throws Exception {
+        JfrUidMetrics jfrUidMetrics = new JfrUidMetrics();
+        padAndDrain(jfrUidMetrics);
+        exhaustSequence(jfrUidMetrics);
+    }
+
+    /**
+     * Fill in all slots of a RingBuffer, then take all and one more rejected
+     */
+    private void padAndDrain(JfrUidMetrics jfrUidMetrics) {
+        RingBuffer ringBuffer = new RingBuffer(BUFFER_SIZE);
+        BufferPaddingExecutor paddingExecutor = new BufferPaddingExecutor(ringBuffer, timestamp -> {
+            List<Long> uids = new ArrayList<>();
+            for (long i = 0; i < BUFFER_SIZE; i++) {
+                uids.add(timestamp * BUFFER_SIZE + i);
+            }
+            return uids;
+        }, false) {
+            @Override
+            public void asyncPadding() {
+            }
+        };
+        ringBuffer.setBufferPaddingExecutor(paddingExecutor);
+        ringBuffer.setRejectedPutHandler((buffer, uid) -> { });
+        ringBuffer.setRejectedTakeHandler(buffer -> {
+            throw new IllegalStateException("Empty");
+        });
+        ringBuffer.setUidMetrics(jfrUidMetrics);
+        paddingExecutor.setUidMetrics(jfrUidMetrics);
+
+        paddingExecutor.paddingBuffer();
+        for (int i = 0; i < BUFFER_SIZE; i++) {
+            ringBuffer.take();
+        }
+        try {
+            ringBuffer.take();
+            Assert.fail("Take from an empty RingBuffer");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        paddingExecutor.shutdown();
+    }
+
+    /**
+     * Generate 20 UIDs by 4 UIDs per 10 millis
+     */
+    private void exhaustSequence(JfrUidMetrics jfrUidMetrics) throws Exception {
+        DefaultUidGenerator uidGenerator = new DefaultUidGenerator();
+        uidGenerator.setWorkerIdAssigner(new AtomicLong()::incrementAndGet);
+        uidGenerator.setTimeBits(36);
+        uidGenerator.setWorkerBits(25);
+        uidGenerator.setSeqBits(2);
+        uidGenerator.setTimeUnitMillis(10L);
+        uidGenerator.setUidMetrics(jfrUidMetrics);
+        uidGenerator.afterPropertiesSet();
+
+        for (int i = 0; i < 20; i++) {
+            uidGenerator.getUID();
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.baidu.fsg.uid;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.fsg.uid.impl.DefaultUidGenerator;
+
+/**
+ * Test for {@link MultiFieldBitsAllocator}
+ */
+public class MultiFieldBitsAllocatorTest {
+
+    /**
+     * Test for allocate & extract with region field
+     */
+    @Test
+    public void testAllocateAndExtract() {
+        Map<String, Integer> fields = new LinkedHashMap<>();
+        fields.put("timestamp", 28);
+        fields.put("region", 4);
+        fields.put("worker", 18);
+        fields.put("sequence", 13);
+        MultiFieldBitsAllocator allocator = new MultiFieldBitsAllocator(fields);
+
+        long[] values = { 123456L, 9L, 54321L, 8191L };
+        long uid = allocator.allocate(values);
+        Assert.assertTrue(uid > 0L);
+
+        long[] extracted = new long[allocator.getFieldCount()];
+        allocator.extract(uid, extracted);
+        Assert.assertArrayEquals(values, extracted);
+        Assert.assertEquals(9L, allocator.extract(uid, allocator.indexOf("region")));
+
+        // Same bits as BitsAllocator with region & worker as one worker field
+        BitsAllocator bitsAllocator = new BitsAllocator(28, 22, 13);
+        Assert.assertEquals(bitsAllocator.allocate(123456L, (9L << 18) | 54321L, 8191L), uid);
+
+        // Replace a field
+        long replaced = allocator.deposit(uid, allocator.indexOf("worker"), 7L);
+        Assert.assertEquals(7L, allocator.extract(replaced, allocator.indexOf("worker")));
+        Assert.assertEquals(123456L, allocator.extract(replaced, allocator.indexOf("timestamp")));
+    }
+
+    /**
+     * Test for the generator with region segment
+     */
+    @Test
+    public void testRegionGenerator() throws Exception {
+        DefaultUidGenerator uidGenerator = new DefaultUidGenerator();
+        uidGenerator.setWorkerIdAssigner(() -> 5L);
+        uidGenerator.setTimeBits(29);
+        uidGenerator.setWorkerBits(18);
+        uidGenerator.setRegionBits(3);
+        uidGenerator.setRegionId(6L);
+        uidGenerator.afterPropertiesSet();
+
+        String parsedInfo = uidGenerator.parseUID(uidGenerator.getUID());
+        Assert.assertTrue(parsedInfo.contains("\"regionId\":\"6\""));
+        Assert.assertTrue(parsedInfo.contains("\"workerId\":\"5\""));
+    }
+
+    /**
+     * Test for bits not enough
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotEnoughBits() {
+        new MultiFieldBitsAllocator(new String[] { "timestamp", "sequence" }, new int[] { 28, 13 });
+    }
+
+}
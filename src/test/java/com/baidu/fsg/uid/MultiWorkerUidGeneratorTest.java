@@ -0,0 +1,109 @@
+package com.baidu.fsg.uid;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.fsg.uid.impl.MultiWorkerUidGenerator;
+
+/**
+ * Test for {@link MultiWorkerUidGenerator}, no database required
+ */
+public class MultiWorkerUidGeneratorTest {
+    private static final int SIZE = 20000;
+    private static final int WORKER_COUNT = 4;
+    private static final int THREADS = Runtime.getRuntime().availableProcessors() << 1;
+
+    private MultiWorkerUidGenerator uidGenerator;
+
+    @Before
+    public void setUp() throws Exception {
+        AtomicLong workerIdSequence = new AtomicLong();
+
+        uidGenerator = new MultiWorkerUidGenerator();
+        uidGenerator.setWorkerIdAssigner(workerIdSequence::incrementAndGet);
+        uidGenerator.setTimeBits(41);
+        uidGenerator.setWorkerBits(17);
+        uidGenerator.setSeqBits(5);
+        uidGenerator.setTimeUnitMillis(1L);
+        uidGenerator.setWorkerCount(WORKER_COUNT);
+        uidGenerator.afterPropertiesSet();
+    }
+
+    /**
+     * Test for worker ids claimed
+     */
+    @Test
+    public void testWorkerIds() {
+        Set<Long> workerIds = new HashSet<>();
+        for (long workerId : uidGenerator.getWorkerIds()) {
+            workerIds.add(workerId);
+        }
+        Assert.assertEquals(WORKER_COUNT, workerIds.size());
+    }
+
+    /**
+     * Test for parallel generate
+     */
+    @Test
+    public void testParallelGenerate() throws InterruptedException {
+        Set<Long> uidSet = new ConcurrentSkipListSet<>();
+        List<Thread> threadList = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < SIZE / THREADS; j++) {
+                    uidSet.add(uidGenerator.getUID());
+                }
+            });
+            threadList.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threadList) {
+            thread.join();
+        }
+
+        Assert.assertEquals(SIZE / THREADS * THREADS, uidSet.size());
+    }
+
+    /**
+     * Test for the UIDs taken from the other workers of the same second, while the sequences of one worker are
+     * exhausted by a batch
+     */
+    @Test
+    public void testNextIdOnOtherWorkers() throws Exception {
+        AtomicLong workerIdSequence = new AtomicLong();
+        MultiWorkerUidGenerator secondGenerator = new MultiWorkerUidGenerator();
+        secondGenerator.setWorkerIdAssigner(workerIdSequence::incrementAndGet);
+        secondGenerator.setTimeBits(31);
+        secondGenerator.setWorkerBits(27);
+        secondGenerator.setSeqBits(5);
+        secondGenerator.setTimeUnitMillis(1000L);
+        secondGenerator.setWorkerCount(WORKER_COUNT);
+        secondGenerator.afterPropertiesSet();
+
+        // start in the first half of a second, far from the next one
+        while (System.currentTimeMillis() % 1000L >= 500L) {
+            Thread.sleep(10L);
+        }
+
+        int sequences = 1 << 5;
+        long[] uids = new long[sequences];
+        Assert.assertEquals(sequences, secondGenerator.tryGetUIDs(uids, 0, sequences));
+
+        UidInfo info = new UidInfo();
+        long timestampMillis = secondGenerator.decode(uids[0], info).getTimestampMillis();
+        for (int i = 0; i < (WORKER_COUNT - 1) * sequences; i++) {
+            Assert.assertEquals(timestampMillis, secondGenerator.decode(secondGenerator.getUID(), info)
+                    .getTimestampMillis());
+        }
+    }
+
+}
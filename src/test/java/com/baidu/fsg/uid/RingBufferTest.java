@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.fsg.uid.buffer.BufferPaddingExecutor;
+import com.baidu.fsg.uid.buffer.RingBuffer;
+
+/**
+ * Test for {@link RingBuffer} taken by concurrent consumers, no database required
+ */
+public class RingBufferTest {
+    private static final int BUFFER_SIZE = 8;
+    private static final int SIZE = 1000000;
+    private static final int CONSUMERS = 4;
+    private static final long DURATION_MILLIS = 2000L;
+
+    /** Rejection of the take, without the logging & the stack trace of the default policy */
+    private static final RuntimeException REJECTED_TAKE = new RuntimeException("Rejected take buffer", null, false,
+            false) {
+    };
+
+    /**
+     * Test for the consumers racing for the last UID of the ring, the losers are rejected instead of taking it twice.
+     * The consumers spin on the nearly empty ring for a while or the size, whichever comes first
+     */
+    @Test
+    public void testConcurrentTake() throws Exception {
+        // no padding threshold, the ring is nearly empty all the time
+        RingBuffer ringBuffer = new RingBuffer(BUFFER_SIZE, 1);
+        BufferPaddingExecutor paddingExecutor = new BufferPaddingExecutor(ringBuffer,
+                timestamp -> Collections.emptyList(), false) {
+            @Override
+            public void asyncPadding() {
+            }
+        };
+        ringBuffer.setBufferPaddingExecutor(paddingExecutor);
+        ringBuffer.setRejectedPutHandler((buffer, uid) -> { });
+        ringBuffer.setRejectedTakeHandler(buffer -> {
+            throw REJECTED_TAKE;
+        });
+
+        long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+        AtomicLong taken = new AtomicLong();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Set<Long> uidSet = new ConcurrentSkipListSet<>();
+        List<Thread> threadList = new ArrayList<>(CONSUMERS);
+        for (int i = 0; i < CONSUMERS; i++) {
+            Thread thread = new Thread(() -> {
+                while (taken.get() < SIZE && error.get() == null && System.currentTimeMillis() < deadline) {
+                    try {
+                        if (!uidSet.add(ringBuffer.take())) {
+                            error.compareAndSet(null, new AssertionError("Taken twice"));
+                        }
+                        taken.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        if (e != REJECTED_TAKE) {
+                            error.compareAndSet(null, e);
+                        }
+                    }
+                }
+            });
+            threadList.add(thread);
+            thread.start();
+        }
+
+        long uid = 0;
+        while (uid < SIZE && error.get() == null && System.currentTimeMillis() < deadline) {
+            if (ringBuffer.put(uid)) {
+                uid++;
+            } else {
+                Thread.yield();
+            }
+        }
+
+        for (Thread thread : threadList) {
+            thread.join();
+        }
+        paddingExecutor.shutdown();
+
+        Assert.assertNull(String.valueOf(error.get()), error.get());
+        Assert.assertTrue(taken.get() > 0);
+        Assert.assertEquals(taken.get(), uidSet.size());
+    }
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.fsg.uid.exception.UidGenerateException;
+import com.baidu.fsg.uid.impl.DefaultUidGenerator;
+
+/**
+ * Test for the wait of {@link DefaultUidGenerator} on the sequence exhausted, on a controllable clock, no database
+ * required
+ */
+public class SequenceExhaustedUidGeneratorTest {
+    private static final long NOW = 1500000000000L;
+    /** 8 UIDs per millisecond */
+    private static final int SEQ_BITS = 3;
+
+    private final AtomicLong clock = new AtomicLong(NOW);
+
+    /**
+     * Test for parking until the next time unit, the sequence restarts from zero
+     */
+    @Test
+    public void testNextTimeUnit() throws Exception {
+        DefaultUidGenerator uidGenerator = newGenerator(0L);
+        long lastUid = exhaust(uidGenerator);
+
+        AtomicReference<Long> nextUid = new AtomicReference<>();
+        Thread thread = new Thread(() -> nextUid.set(uidGenerator.getUID()));
+        thread.start();
+
+        // parked on the clock instead of spinning, and the lock is free for the others
+        waitState(thread, Thread.State.TIMED_WAITING);
+        Assert.assertEquals(1L, uidGenerator.getMetricsCollector().getSequenceExhaustedCount());
+        Assert.assertEquals(-1, uidGenerator.tryGetUIDs(new long[1], 0, 1));
+        Assert.assertNull(nextUid.get());
+
+        clock.addAndGet(1L);
+        thread.join();
+        UidInfo info = uidGenerator.decode(nextUid.get(), new UidInfo());
+        Assert.assertTrue(nextUid.get() > lastUid);
+        Assert.assertEquals(NOW + 1L, info.getTimestampMillis());
+        Assert.assertEquals(0L, info.getSequence());
+    }
+
+    /**
+     * Test for spinning just before the next time unit
+     */
+    @Test
+    public void testSpinBeforeNextTimeUnit() throws Exception {
+        DefaultUidGenerator uidGenerator = newGenerator(2000L);
+        exhaust(uidGenerator);
+
+        AtomicReference<Long> nextUid = new AtomicReference<>();
+        Thread thread = new Thread(() -> nextUid.set(uidGenerator.getUID()));
+        thread.start();
+
+        // the deadline is within the spin, never parks
+        Thread.sleep(10L);
+        Assert.assertEquals(Thread.State.RUNNABLE, thread.getState());
+
+        clock.addAndGet(1L);
+        thread.join();
+        Assert.assertEquals(NOW + 1L, uidGenerator.decode(nextUid.get(), new UidInfo()).getTimestampMillis());
+    }
+
+    /**
+     * Test for interrupting the wait
+     */
+    @Test
+    public void testInterrupted() throws Exception {
+        DefaultUidGenerator uidGenerator = newGenerator(0L);
+        exhaust(uidGenerator);
+
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            try {
+                uidGenerator.getUID();
+            } catch (Throwable e) {
+                error.set(e);
+            }
+        });
+        thread.start();
+
+        waitState(thread, Thread.State.TIMED_WAITING);
+        thread.interrupt();
+        thread.join();
+        Assert.assertTrue(error.get() instanceof UidGenerateException);
+
+        // a batch is interrupted as well
+        Thread.currentThread().interrupt();
+        try {
+            uidGenerator.getUIDs(new long[1], 0, 1);
+            Assert.fail("Interrupted, but generated");
+        } catch (UidGenerateException e) {
+            Assert.assertTrue(Thread.interrupted());
+        }
+    }
+
+    /**
+     * Create the generator on the clock of this test, in millisecond
+     */
+    private DefaultUidGenerator newGenerator(long waitSpinMicros) throws Exception {
+        DefaultUidGenerator uidGenerator = new DefaultUidGenerator() {
+            @Override
+            protected long currentTimeMillis() {
+                return clock.get();
+            }
+        };
+        uidGenerator.setWorkerIdAssigner(() -> 1L);
+        uidGenerator.setTimeBits(41);
+        uidGenerator.setWorkerBits(22 - SEQ_BITS);
+        uidGenerator.setSeqBits(SEQ_BITS);
+        uidGenerator.setTimeUnitMillis(1L);
+        uidGenerator.setWaitSpinMicros(waitSpinMicros);
+        uidGenerator.afterPropertiesSet();
+        return uidGenerator;
+    }
+
+    /**
+     * Exhaust the sequence of the current time unit
+     *
+     * @return the last UID of the time unit
+     */
+    private long exhaust(DefaultUidGenerator uidGenerator) {
+        long uid = -1L;
+        for (int i = 0; i < 1 << SEQ_BITS; i++) {
+            uid = uidGenerator.getUID();
+        }
+
+        Assert.assertEquals((1 << SEQ_BITS) - 1, uidGenerator.decode(uid, new UidInfo()).getSequence());
+        Assert.assertEquals(0L, uidGenerator.getMetricsCollector().getSequenceExhaustedCount());
+        return uid;
+    }
+
+    private void waitState(Thread thread, Thread.State state) throws InterruptedException {
+        while (thread.getState() != state) {
+            Thread.sleep(1L);
+        }
+    }
+
+}
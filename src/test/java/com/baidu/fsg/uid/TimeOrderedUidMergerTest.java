@@ -0,0 +1,110 @@
+package com.baidu.fsg.uid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.fsg.uid.collection.TimeOrderedUidMerger;
+import com.baidu.fsg.uid.collection.TimeOrderedUidMerger.TieBreak;
+
+/**
+ * Test for {@link TimeOrderedUidMerger}
+ */
+public class TimeOrderedUidMergerTest {
+
+    private final BitsAllocator bitsAllocator = new BitsAllocator(28, 22, 13);
+
+    /**
+     * Test for merging by both tie-breaks
+     */
+    @Test
+    public void testMerge() {
+        for (int workers : new int[] { 1, 2, 3, 17, 1000 }) {
+            for (TieBreak tieBreak : TieBreak.values()) {
+                assertMerged(generate(workers, 20000, new Random(workers)), tieBreak);
+            }
+        }
+    }
+
+    /**
+     * Test for the sequence tie-break interleaves the workers within a timestamp
+     */
+    @Test
+    public void testSequenceTieBreak() {
+        long[][] streams = new long[3][];
+        for (int worker = 0; worker < streams.length; worker++) {
+            streams[worker] = new long[] { bitsAllocator.allocate(1, worker, 0), bitsAllocator.allocate(1, worker, 1) };
+        }
+
+        TimeOrderedUidMerger merger = new TimeOrderedUidMerger(bitsAllocator, TieBreak.SEQUENCE, iterators(streams));
+        long[] merged = new long[10];
+        Assert.assertEquals(6, merger.next(merged, 0, merged.length));
+        for (int i = 0; i < 6; i++) {
+            Assert.assertEquals(i / 3, bitsAllocator.extractSequence(merged[i]));
+            Assert.assertEquals(i % 3, bitsAllocator.extractWorkerId(merged[i]));
+        }
+        Assert.assertFalse(merger.hasNext());
+    }
+
+    private void assertMerged(long[][] streams, TieBreak tieBreak) {
+        TimeOrderedUidMerger merger = new TimeOrderedUidMerger(bitsAllocator, tieBreak, iterators(streams));
+        List<Long> expected = new ArrayList<>();
+        for (long[] stream : streams) {
+            for (long uid : stream) {
+                expected.add(uid);
+            }
+        }
+
+        long[] merged = new long[expected.size()];
+        int count = 0;
+        long lastKey = -1L;
+        while (merger.hasNext()) {
+            long uid = merger.nextLong();
+            long key = merger.sortKey(uid);
+            Assert.assertTrue(key >= lastKey);
+            Assert.assertEquals(bitsAllocator.extractDeltaTime(uid), bitsAllocator.extractDeltaTime(key));
+            lastKey = key;
+            merged[count++] = uid;
+        }
+
+        Assert.assertEquals(expected.size(), count);
+        long[] sortedExpected = expected.stream().mapToLong(Long::longValue).sorted().toArray();
+        Arrays.sort(merged);
+        Assert.assertArrayEquals(sortedExpected, merged);
+    }
+
+    /**
+     * Generate the streams of the workers, each in the generated order with random counts in each second
+     */
+    private long[][] generate(int workers, int size, Random random) {
+        long[][] streams = new long[workers][];
+        for (int worker = 0; worker < workers; worker++) {
+            long[] stream = new long[random.nextInt(2 * size / workers + 1)];
+            long second = 100000L + random.nextInt(10);
+            long sequence = 0L;
+            for (int i = 0; i < stream.length; i++) {
+                if (random.nextInt(50) == 0) {
+                    second += 1 + random.nextInt(3);
+                    sequence = 0L;
+                }
+                stream[i] = bitsAllocator.allocate(second, worker, sequence++);
+            }
+            streams[worker] = stream;
+        }
+        return streams;
+    }
+
+    private PrimitiveIterator.OfLong[] iterators(long[][] streams) {
+        PrimitiveIterator.OfLong[] iterators = new PrimitiveIterator.OfLong[streams.length];
+        for (int i = 0; i < streams.length; i++) {
+            iterators[i] = Arrays.stream(streams[i]).iterator();
+        }
+        return iterators;
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.baidu.fsg.uid;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.fsg.uid.impl.CachedUidGenerator;
+import com.baidu.fsg.uid.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.impl.TimeOrderedUuidGenerator;
+import com.baidu.fsg.uid.scramble.FeistelUidScrambler;
+
+/**
+ * Test for {@link TimeOrderedUuidGenerator}, no database required
+ */
+public class TimeOrderedUuidGeneratorTest {
+    private static final int SIZE = 100000;
+    private static final long WORKER_ID = 4321L;
+
+    /**
+     * Test for UUIDs on {@link DefaultUidGenerator}
+     */
+    @Test
+    public void testDefault() throws Exception {
+        DefaultUidGenerator uidGenerator = new DefaultUidGenerator();
+        initialize(uidGenerator);
+        uidGenerator.setTimeUnitMillis(10L);
+        uidGenerator.setTimeBits(36);
+        uidGenerator.setWorkerBits(17);
+        uidGenerator.setSeqBits(10);
+        uidGenerator.afterPropertiesSet();
+
+        assertUUIDs(uidGenerator);
+    }
+
+    /**
+     * Test for UUIDs on {@link CachedUidGenerator} with the scrambled UIDs
+     */
+    @Test
+    public void testCached() throws Exception {
+        CachedUidGenerator uidGenerator = new CachedUidGenerator();
+        initialize(uidGenerator);
+        uidGenerator.setUidScrambler(new FeistelUidScrambler(7L));
+        uidGenerator.afterPropertiesSet();
+        try {
+            assertUUIDs(uidGenerator);
+        } finally {
+            uidGenerator.destroy();
+        }
+    }
+
+    private void initialize(DefaultUidGenerator uidGenerator) {
+        uidGenerator.setWorkerIdAssigner(() -> WORKER_ID);
+        uidGenerator.setTimeBits(29);
+        uidGenerator.setWorkerBits(21);
+    }
+
+    private void assertUUIDs(DefaultUidGenerator uidGenerator) throws Exception {
+        TimeOrderedUuidGenerator uuidGenerator = new TimeOrderedUuidGenerator();
+        uuidGenerator.setUidGenerator(uidGenerator);
+        uuidGenerator.afterPropertiesSet();
+
+        long start = System.currentTimeMillis();
+        long[] pairs = new long[SIZE * 2];
+        uuidGenerator.getUUIDs(pairs, 0, SIZE);
+
+        Set<Long> uids = new HashSet<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            UUID uuid = new UUID(pairs[2 * i], pairs[2 * i + 1]);
+            Assert.assertEquals(7, uuid.version());
+            Assert.assertEquals(2, uuid.variant());
+
+            // Ascending in the unsigned order, append-only for a B-tree
+            if (i > 0) {
+                int compare = Long.compareUnsigned(pairs[2 * i - 2], pairs[2 * i]);
+                Assert.assertTrue(compare < 0 || (compare == 0 && Long.compareUnsigned(pairs[2 * i - 1], pairs[2 * i + 1]) < 0));
+            }
+
+            // Convert back to the UID
+            long uid = uuidGenerator.toUID(uuid);
+            Assert.assertTrue(uids.add(uid));
+            UidInfo info = uidGenerator.decode(uid, new UidInfo());
+            Assert.assertEquals(WORKER_ID, info.getWorkerId());
+            Assert.assertEquals(info.getTimestampMillis(), uuid.getMostSignificantBits() >>> 16);
+        }
+
+        // Timestamp of the first one is about now, the cached may be borrowed from the future
+        long firstMillis = pairs[0] >>> 16;
+        Assert.assertTrue(Math.abs(firstMillis - start) < 5000L);
+
+        UUID uuid = uuidGenerator.getUUID();
+        Assert.assertTrue(uuidGenerator.parseUUID(uuid).contains("\"workerId\":\"" + WORKER_ID + "\""));
+    }
+
+}
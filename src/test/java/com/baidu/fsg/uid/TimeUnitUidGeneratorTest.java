@@ -0,0 +1,178 @@
+package com.baidu.fsg.uid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.fsg.uid.impl.CachedUidGenerator;
+import com.baidu.fsg.uid.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.utils.DateUtils;
+
+/**
+ * Test for {@link DefaultUidGenerator} with millisecond time unit, no database required
+ */
+public class TimeUnitUidGeneratorTest {
+    private static final int SIZE = 20000;
+    private static final int THREADS = Runtime.getRuntime().availableProcessors() << 1;
+
+    private DefaultUidGenerator uidGenerator;
+
+    @Before
+    public void setUp() throws Exception {
+        // 32 UIDs per millisecond, makes sequence exhausted frequently
+        uidGenerator = new DefaultUidGenerator();
+        uidGenerator.setWorkerIdAssigner(() -> 1L);
+        uidGenerator.setTimeBits(41);
+        uidGenerator.setWorkerBits(17);
+        uidGenerator.setSeqBits(5);
+        uidGenerator.setTimeUnitMillis(1L);
+        uidGenerator.afterPropertiesSet();
+    }
+
+    /**
+     * Test for serially generate, UIDs are increasing
+     */
+    @Test
+    public void testSerialGenerate() {
+        long lastUid = -1L;
+        for (int i = 0; i < SIZE; i++) {
+            long uid = uidGenerator.getUID();
+            Assert.assertTrue(uid > lastUid);
+            lastUid = uid;
+        }
+
+        // Check parsed timestamp with millisecond
+        String parsedInfo = uidGenerator.parseUID(lastUid);
+        Assert.assertTrue(parsedInfo.matches(".*\"timestamp\":\"\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}\\.\\d{3}\".*"));
+    }
+
+    /**
+     * Test for UID range bounds of time windows
+     */
+    @Test
+    public void testUidRange() {
+        long beforeMillis = System.currentTimeMillis();
+        long uid = uidGenerator.getUID();
+        long afterMillis = System.currentTimeMillis();
+
+        Assert.assertTrue(uidGenerator.minUid(beforeMillis) <= uid);
+        Assert.assertTrue(uidGenerator.maxUid(afterMillis) >= uid);
+        Assert.assertTrue(uidGenerator.minUid(beforeMillis, 1L) <= uid);
+        Assert.assertTrue(uidGenerator.maxUid(afterMillis, 1L) >= uid);
+        Assert.assertTrue(uidGenerator.maxUid(afterMillis, 0L) < uid);
+        Assert.assertTrue(uidGenerator.minUid(afterMillis + 1) > uid);
+        Assert.assertTrue(uidGenerator.maxUid(beforeMillis - 1) < uid);
+
+        // Batch & empty window
+        long[] minUids = new long[2];
+        long[] maxUids = new long[2];
+        uidGenerator.uidRanges(new long[] { beforeMillis, 0L }, new long[] { afterMillis, 0L }, minUids, maxUids);
+        Assert.assertTrue(minUids[0] <= uid && uid <= maxUids[0]);
+        Assert.assertTrue(minUids[1] > maxUids[1]);
+    }
+
+    /**
+     * Test for UID ranges shorter than the windows
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testUidRangesTooShort() {
+        uidGenerator.uidRanges(new long[] { 0L, 0L }, new long[] { 0L, 0L }, new long[2], new long[1]);
+    }
+
+    /**
+     * Test for the time unit not dividing the epoch, the decoded timestamp is the start of the time unit generated in
+     */
+    @Test
+    public void testUnalignedEpoch() throws Exception {
+        long epochMillis = DateUtils.parseByDayPattern("2016-05-20").getTime();
+        long timeUnitMillis = 7L;
+        while (epochMillis % timeUnitMillis == 0) {
+            timeUnitMillis += 2;
+        }
+
+        DefaultUidGenerator unalignedGenerator = new DefaultUidGenerator();
+        unalignedGenerator.setWorkerIdAssigner(() -> 1L);
+        unalignedGenerator.setTimeBits(41);
+        unalignedGenerator.setWorkerBits(17);
+        unalignedGenerator.setSeqBits(5);
+        unalignedGenerator.setTimeUnitMillis(timeUnitMillis);
+        unalignedGenerator.setEpochStr("2016-05-20");
+        unalignedGenerator.afterPropertiesSet();
+
+        UidInfo info = new UidInfo();
+        for (int i = 0; i < SIZE; i++) {
+            long beforeMillis = System.currentTimeMillis();
+            long uid = unalignedGenerator.getUID();
+            long afterMillis = System.currentTimeMillis();
+
+            long timestampMillis = unalignedGenerator.decode(uid, info).getTimestampMillis();
+            Assert.assertEquals(0L, (timestampMillis - epochMillis) % timeUnitMillis);
+            Assert.assertTrue(timestampMillis <= afterMillis);
+            Assert.assertTrue(timestampMillis > beforeMillis - timeUnitMillis);
+            Assert.assertTrue(unalignedGenerator.minUid(timestampMillis) <= uid);
+            Assert.assertTrue(unalignedGenerator.minUid(timestampMillis + timeUnitMillis) > uid);
+        }
+    }
+
+    /**
+     * Test for the deprecated UIDs of a second, the argument is still the seconds since 1970-01-01
+     */
+    @Test
+    public void testIdsForOneSecond() throws Exception {
+        long currentSecond = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        AtomicReference<List<Long>> uidList = new AtomicReference<>();
+        CachedUidGenerator cachedGenerator = new CachedUidGenerator() {
+            @Override
+            public void afterPropertiesSet() throws Exception {
+                super.afterPropertiesSet();
+                uidList.set(nextIdsForOneSecond(currentSecond));
+            }
+        };
+        cachedGenerator.setWorkerIdAssigner(() -> 1L);
+        cachedGenerator.setTimeBits(31);
+        cachedGenerator.setWorkerBits(27);
+        cachedGenerator.setSeqBits(5);
+        cachedGenerator.afterPropertiesSet();
+
+        try {
+            UidInfo info = cachedGenerator.decode(uidList.get().get(0), new UidInfo());
+            Assert.assertEquals(32, uidList.get().size());
+            Assert.assertEquals(TimeUnit.SECONDS.toMillis(currentSecond), info.getTimestampMillis());
+            Assert.assertEquals(0L, info.getSequence());
+        } finally {
+            cachedGenerator.destroy();
+        }
+    }
+
+    /**
+     * Test for parallel generate
+     */
+    @Test
+    public void testParallelGenerate() throws InterruptedException {
+        Set<Long> uidSet = new ConcurrentSkipListSet<>();
+        List<Thread> threadList = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < SIZE / THREADS; j++) {
+                    uidSet.add(uidGenerator.getUID());
+                }
+            });
+            threadList.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threadList) {
+            thread.join();
+        }
+
+        Assert.assertEquals(SIZE / THREADS * THREADS, uidSet.size());
+    }
+
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import com.baidu.fsg.uid.async.UidFuture;
+import com.baidu.fsg.uid.async.UidPublisher;
+import com.baidu.fsg.uid.buffer.BufferPaddingExecutor;
+import com.baidu.fsg.uid.buffer.RingBuffer;
+import com.baidu.fsg.uid.impl.CachedUidGenerator;
+import com.baidu.fsg.uid.impl.DefaultUidGenerator;
+
+/**
+ * Test for {@link UidFuture} & {@link UidPublisher}, no database required
+ */
+public class UidAsyncTest {
+    private static final int BUFFER_SIZE = 8;
+    private static final long TIMEOUT_SECONDS = 10L;
+
+    /**
+     * Test for batch take of the RingBuffer, an empty ring takes none instead of rejection
+     */
+    @Test
+    public void testRingBufferBatchTake() {
+        RingBuffer ringBuffer = new RingBuffer(BUFFER_SIZE);
+        BufferPaddingExecutor paddingExecutor = new BufferPaddingExecutor(ringBuffer, timestamp -> {
+            List<Long> uids = new ArrayList<>();
+            for (long i = 0; i < BUFFER_SIZE; i++) {
+                uids.add(timestamp * BUFFER_SIZE + i);
+            }
+            return uids;
+        }, false) {
+            @Override
+            public void asyncPadding() {
+            }
+        };
+        ringBuffer.setBufferPaddingExecutor(paddingExecutor);
+        ringBuffer.setRejectedPutHandler((buffer, uid) -> { });
+        ringBuffer.setRejectedTakeHandler(buffer -> Assert.fail("Rejected take"));
+        paddingExecutor.paddingBuffer();
+
+        // all slots are taken in order, the count is limited by the rest
+        long[] uids = new long[BUFFER_SIZE + 2];
+        Assert.assertEquals(5, ringBuffer.take(uids, 2, 5));
+        Assert.assertEquals(3, ringBuffer.take(uids, 7, 3));
+        for (int i = 3; i < uids.length; i++) {
+            Assert.assertEquals(uids[i - 1] + 1, uids[i]);
+        }
+        Assert.assertEquals(0, ringBuffer.take(uids, 0, BUFFER_SIZE));
+        Assert.assertEquals(BUFFER_SIZE, ringBuffer.getCursor() + 1);
+        paddingExecutor.shutdown();
+    }
+
+    /**
+     * Test for the async UIDs over the sequence exhaustion
+     */
+    @Test
+    public void testUIDAsync() throws Exception {
+        // 4 UIDs per 10 millis
+        DefaultUidGenerator uidGenerator = new DefaultUidGenerator();
+        uidGenerator.setWorkerIdAssigner(new AtomicLong()::incrementAndGet);
+        uidGenerator.setTimeBits(36);
+        uidGenerator.setWorkerBits(25);
+        uidGenerator.setSeqBits(2);
+        uidGenerator.setTimeUnitMillis(10L);
+        uidGenerator.afterPropertiesSet();
+
+        try {
+            // the first UIDs complete at once, the others complete later on the executor
+            List<CompletableFuture<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                futures.add(uidGenerator.getUIDAsync());
+            }
+            int doneCount = 0;
+            for (CompletableFuture<Long> future : futures) {
+                doneCount += future.isDone() ? 1 : 0;
+            }
+            Assert.assertTrue(doneCount < futures.size());
+
+            Set<Long> uidSet = new HashSet<>();
+            for (CompletableFuture<Long> future : futures) {
+                uidSet.add(future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            }
+            Assert.assertEquals(futures.size(), uidSet.size());
+        } finally {
+            uidGenerator.destroy();
+        }
+    }
+
+    /**
+     * Test for the retry delay returned until the deadline of the try, the clock backwards is reported once
+     */
+    @Test
+    public void testRetryDelay() throws Exception {
+        AtomicLong clock = new AtomicLong(1500000000003L);
+        DefaultUidGenerator uidGenerator = new DefaultUidGenerator() {
+            @Override
+            protected long currentTimeMillis() {
+                return clock.get();
+            }
+        };
+
+        // 4 UIDs per 10 millis
+        uidGenerator.setWorkerIdAssigner(new AtomicLong()::incrementAndGet);
+        uidGenerator.setTimeBits(36);
+        uidGenerator.setWorkerBits(25);
+        uidGenerator.setSeqBits(2);
+        uidGenerator.setTimeUnitMillis(10L);
+        uidGenerator.setMaxBackwardsWaitMillis(100L);
+        uidGenerator.afterPropertiesSet();
+
+        // sequence exhausted, retry at the next time unit
+        long[] uids = new long[8];
+        Assert.assertEquals(4, uidGenerator.tryGetUIDs(uids, 0, uids.length));
+        Assert.assertEquals(-7, uidGenerator.tryGetUIDs(uids, 0, uids.length));
+
+        // clock moved backwards, retry when the clock catches up the start of the last time unit
+        clock.addAndGet(-25L);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(-22, uidGenerator.tryGetUIDs(uids, 0, uids.length));
+        }
+        Assert.assertEquals(1L, uidGenerator.getClockBackwardsCount());
+
+        clock.addAndGet(35L);
+        Assert.assertEquals(4, uidGenerator.tryGetUIDs(uids, 0, uids.length));
+        uidGenerator.destroy();
+    }
+
+    /**
+     * Test for the publisher honoring the demand, the batches are rescheduled over the sequence exhaustion
+     */
+    @Test
+    public void testPublisher() throws Exception {
+        // 2 UIDs per millisecond, fewer than a batch
+        DefaultUidGenerator uidGenerator = new DefaultUidGenerator();
+        uidGenerator.setWorkerIdAssigner(new AtomicLong()::incrementAndGet);
+        uidGenerator.setTimeBits(41);
+        uidGenerator.setWorkerBits(21);
+        uidGenerator.setSeqBits(1);
+        uidGenerator.setTimeUnitMillis(1L);
+        uidGenerator.afterPropertiesSet();
+
+        try {
+            CollectingSubscriber subscriber = new CollectingSubscriber(40);
+            new UidPublisher(uidGenerator, uidGenerator.getAsyncExecutor(), 3).subscribe(subscriber);
+            subscriber.subscription.request(10);
+            Assert.assertTrue(subscriber.latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            Assert.assertNull(subscriber.error.get());
+
+            // no more than the demand, in order
+            Thread.sleep(50L);
+            Assert.assertEquals(40, subscriber.uids.size());
+            for (int i = 1; i < subscriber.uids.size(); i++) {
+                Assert.assertTrue(subscriber.uids.get(i - 1) < subscriber.uids.get(i));
+            }
+        } finally {
+            uidGenerator.destroy();
+        }
+    }
+
+    /**
+     * Test for the publisher of the cached generator, waiting for the padding when the RingBuffer is empty
+     */
+    @Test
+    public void testCachedPublisher() throws Exception {
+        CachedUidGenerator uidGenerator = new CachedUidGenerator();
+        uidGenerator.setWorkerIdAssigner(new AtomicLong()::incrementAndGet);
+        uidGenerator.setTimeBits(29);
+        uidGenerator.setWorkerBits(21);
+        uidGenerator.setSeqBits(13);
+        uidGenerator.setEpochStr("2016-09-20");
+        uidGenerator.setBoostPower(1);
+        uidGenerator.afterPropertiesSet();
+
+        try {
+            int count = 8192 << 3;
+            CollectingSubscriber subscriber = new CollectingSubscriber(count);
+            new UidPublisher(uidGenerator, uidGenerator.getAsyncExecutor()).subscribe(subscriber);
+            subscriber.subscription.request(count);
+            Assert.assertTrue(subscriber.latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            Assert.assertNull(subscriber.error.get());
+            Assert.assertEquals(count, new HashSet<>(subscriber.uids).size());
+        } finally {
+            uidGenerator.destroy();
+        }
+    }
+
+    /**
+     * Test for the invalid request signaled by onError
+     */
+    @Test
+    public void testInvalidRequest() throws Exception {
+        DefaultUidGenerator uidGenerator = new DefaultUidGenerator();
+        uidGenerator.setWorkerIdAssigner(new AtomicLong()::incrementAndGet);
+        uidGenerator.setTimeBits(29);
+        uidGenerator.setWorkerBits(21);
+        uidGenerator.setSeqBits(13);
+        uidGenerator.setEpochStr("2016-09-20");
+        uidGenerator.afterPropertiesSet();
+
+        try {
+            CollectingSubscriber subscriber = new CollectingSubscriber(1);
+            new UidPublisher(uidGenerator, uidGenerator.getAsyncExecutor()).subscribe(subscriber);
+            subscriber.subscription.request(0);
+            Assert.assertTrue(subscriber.latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            Assert.assertTrue(subscriber.error.get() instanceof IllegalArgumentException);
+            Assert.assertTrue(subscriber.uids.isEmpty());
+        } finally {
+            uidGenerator.destroy();
+        }
+    }
+
+    /**
+     * Subscriber collecting the UIDs up to the count, requests 10 more on each 10 UIDs received
+     */
+    private static class CollectingSubscriber implements Subscriber<Long> {
+        private final int count;
+        private final List<Long> uids = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private Subscription subscription;
+
+        CollectingSubscriber(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Long uid) {
+            uids.add(uid);
+            if (uids.size() == count) {
+                subscription.cancel();
+                latch.countDown();
+            } else if (uids.size() % 10 == 0) {
+                subscription.request(10);
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            error.set(e);
+            latch.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+}
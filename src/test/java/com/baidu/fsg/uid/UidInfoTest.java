@@ -0,0 +1,60 @@
+package com.baidu.fsg.uid;
+
+import java.util.Date;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.fsg.uid.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.utils.DateUtils;
+
+/**
+ * Test for {@link UidInfo} and the allocation free decoding
+ */
+public class UidInfoTest {
+
+    /**
+     * Test for date time rendering same as the formatter
+     */
+    @Test
+    public void testAppendDateTime() {
+        Random random = new Random(17L);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            long millis = random.nextLong() % (200L * 365 * 24 * 3600 * 1000);
+            builder.setLength(0);
+            DateUtils.appendDateTime(builder, millis, true);
+            Assert.assertEquals(DateUtils.formatDate(new Date(millis), DateUtils.DATETIME_MS_PATTERN), builder.toString());
+        }
+    }
+
+    /**
+     * Test for decoding into a reused holder
+     */
+    @Test
+    public void testDecode() throws Exception {
+        DefaultUidGenerator uidGenerator = new DefaultUidGenerator();
+        uidGenerator.setWorkerIdAssigner(() -> 3L);
+        uidGenerator.setTimeBits(29);
+        uidGenerator.setWorkerBits(21);
+        uidGenerator.setSeqBits(13);
+        uidGenerator.setEpochStr("2016-09-20");
+        uidGenerator.afterPropertiesSet();
+
+        UidInfo info = new UidInfo();
+        for (int i = 0; i < 1000; i++) {
+            long uid = uidGenerator.getUID();
+            uidGenerator.decode(uid, info);
+            Assert.assertEquals(uid, info.getUid());
+            Assert.assertEquals(3L, info.getWorkerId());
+            Assert.assertEquals(info.getTimestampMillis() / 1000 * 1000, info.getTimestampMillis());
+
+            String thatTime = DateUtils.formatByDateTimePattern(new Date(info.getTimestampMillis()));
+            String expected = String.format("{\"UID\":\"%d\",\"timestamp\":\"%s\",\"workerId\":\"%d\",\"sequence\":\"%d\"}",
+                    uid, thatTime, info.getWorkerId(), info.getSequence());
+            Assert.assertEquals(expected, uidGenerator.parseUID(uid));
+        }
+    }
+
+}
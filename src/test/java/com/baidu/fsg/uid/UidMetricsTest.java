@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.fsg.uid.buffer.BufferPaddingExecutor;
+import com.baidu.fsg.uid.buffer.RingBuffer;
+import com.baidu.fsg.uid.impl.CachedUidGenerator;
+import com.baidu.fsg.uid.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.metrics.UidGeneratorMonitor;
+import com.baidu.fsg.uid.metrics.UidMetrics;
+import com.baidu.fsg.uid.metrics.UidMetricsCollector;
+
+/**
+ * Test for {@link UidMetricsCollector} & {@link UidGeneratorMonitor}, no database required
+ */
+public class UidMetricsTest {
+    private static final int BUFFER_SIZE = 8;
+
+    /**
+     * Test for padding & rejections of the RingBuffer
+     */
+    @Test
+    public void testRingBuffer() {
+        UidMetricsCollector collector = new UidMetricsCollector();
+        RingBuffer ringBuffer = new RingBuffer(BUFFER_SIZE);
+        BufferPaddingExecutor paddingExecutor = new BufferPaddingExecutor(ringBuffer, timestamp -> {
+            List<Long> uids = new ArrayList<>();
+            for (long i = 0; i < BUFFER_SIZE; i++) {
+                uids.add(timestamp * BUFFER_SIZE + i);
+            }
+            return uids;
+        }, false) {
+            @Override
+            public void asyncPadding() {
+            }
+        };
+        ringBuffer.setBufferPaddingExecutor(paddingExecutor);
+        ringBuffer.setRejectedPutHandler((buffer, uid) -> { });
+        ringBuffer.setUidMetrics(collector);
+        paddingExecutor.setUidMetrics(collector);
+
+        // fill in all slots, the last put is rejected
+        paddingExecutor.paddingBuffer();
+        Assert.assertEquals(1L, collector.getPaddingCount());
+        Assert.assertEquals(BUFFER_SIZE, collector.getPaddedUidCount());
+        Assert.assertEquals(1L, collector.getRejectedPutCount());
+        Assert.assertTrue(collector.getPaddingMaxNanos() > 0);
+
+        // take all, the next take is rejected
+        for (int i = 0; i < BUFFER_SIZE; i++) {
+            ringBuffer.take();
+        }
+        try {
+            ringBuffer.take();
+            Assert.fail("Take from an empty RingBuffer");
+        } catch (RuntimeException e) {
+            // expected
+        }
+        Assert.assertEquals(1L, collector.getRejectedTakeCount());
+        paddingExecutor.shutdown();
+    }
+
+    /**
+     * Test for sequence exhaustion counted by the collector & the listener specified
+     */
+    @Test
+    public void testSequenceExhausted() throws Exception {
+        AtomicLong exhaustedCount = new AtomicLong();
+        DefaultUidGenerator uidGenerator = new DefaultUidGenerator();
+        uidGenerator.setWorkerIdAssigner(new AtomicLong()::incrementAndGet);
+        uidGenerator.setTimeBits(36);
+        uidGenerator.setWorkerBits(25);
+        uidGenerator.setSeqBits(2);
+        uidGenerator.setTimeUnitMillis(10L);
+        uidGenerator.setUidMetrics(new UidMetrics() {
+            @Override
+            public void onSequenceExhausted(long waitMillis) {
+                exhaustedCount.incrementAndGet();
+            }
+        });
+        uidGenerator.afterPropertiesSet();
+
+        // 4 UIDs per 10 millis
+        for (int i = 0; i < 20; i++) {
+            uidGenerator.getUID();
+        }
+        Assert.assertTrue(uidGenerator.getMetricsCollector().getSequenceExhaustedCount() >= 4);
+        Assert.assertEquals(uidGenerator.getMetricsCollector().getSequenceExhaustedCount(), exhaustedCount.get());
+    }
+
+    /**
+     * Test for the MBean registered & unregistered
+     */
+    @Test
+    public void testMBean() throws Exception {
+        DefaultUidGenerator uidGenerator = new DefaultUidGenerator();
+        uidGenerator.setWorkerIdAssigner(new AtomicLong()::incrementAndGet);
+        uidGenerator.setTimeBits(29);
+        uidGenerator.setWorkerBits(21);
+        uidGenerator.setSeqBits(13);
+        uidGenerator.setEpochStr("2016-09-20");
+        uidGenerator.setJmxEnabled(true);
+        uidGenerator.afterPropertiesSet();
+        for (int i = 0; i < 20; i++) {
+            uidGenerator.getUID();
+        }
+
+        MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = uidGenerator.getMonitor().getObjectName();
+        Assert.assertTrue(mbeanServer.isRegistered(objectName));
+        Assert.assertEquals(uidGenerator.getMetricsCollector().getSequenceExhaustedCount(),
+                mbeanServer.getAttribute(objectName, "SequenceExhaustedCount"));
+        Assert.assertEquals(0, mbeanServer.getAttribute(objectName, "BufferSize"));
+
+        uidGenerator.destroy();
+        Assert.assertFalse(mbeanServer.isRegistered(objectName));
+    }
+
+    /**
+     * Test for the RingBuffer attributes of the cached generator
+     */
+    @Test
+    public void testCachedMBean() throws Exception {
+        CachedUidGenerator uidGenerator = new CachedUidGenerator();
+        uidGenerator.setWorkerIdAssigner(new AtomicLong()::incrementAndGet);
+        uidGenerator.setTimeBits(29);
+        uidGenerator.setWorkerBits(21);
+        uidGenerator.setSeqBits(13);
+        uidGenerator.setEpochStr("2016-09-20");
+        uidGenerator.setBoostPower(1);
+        uidGenerator.setJmxEnabled(true);
+        uidGenerator.afterPropertiesSet();
+
+        try {
+            for (int i = 0; i < 100; i++) {
+                uidGenerator.getUID();
+            }
+
+            MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = uidGenerator.getMonitor().getObjectName();
+            Assert.assertEquals(8192 << 1, mbeanServer.getAttribute(objectName, "BufferSize"));
+            Assert.assertEquals(100L, mbeanServer.getAttribute(objectName, "TakeCount"));
+            Assert.assertTrue((Long) mbeanServer.getAttribute(objectName, "BufferOccupancy") > 0);
+            Assert.assertTrue((Long) mbeanServer.getAttribute(objectName, "PaddingCount") >= 1);
+            Assert.assertTrue((Long) mbeanServer.getAttribute(objectName, "BorrowedMillis") >= 0);
+        } finally {
+            uidGenerator.destroy();
+        }
+    }
+
+    /**
+     * Test for tuning the padding of the cached generator by the MBean
+     */
+    @Test
+    public void testCachedTuning() throws Exception {
+        CachedUidGenerator uidGenerator = new CachedUidGenerator();
+        uidGenerator.setWorkerIdAssigner(new AtomicLong()::incrementAndGet);
+        uidGenerator.setTimeBits(29);
+        uidGenerator.setWorkerBits(21);
+        uidGenerator.setSeqBits(13);
+        uidGenerator.setEpochStr("2016-09-20");
+        uidGenerator.setBoostPower(1);
+        uidGenerator.setPaddingFactor(20);
+        uidGenerator.setJmxEnabled(true);
+        uidGenerator.afterPropertiesSet();
+
+        try {
+            MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = uidGenerator.getMonitor().getObjectName();
+
+            // padding factor
+            int bufferSize = 8192 << 1;
+            Assert.assertEquals(20, mbeanServer.getAttribute(objectName, "PaddingFactor"));
+            mbeanServer.setAttribute(objectName, new Attribute("PaddingFactor", 80));
+            Assert.assertEquals(80, mbeanServer.getAttribute(objectName, "PaddingFactor"));
+            Assert.assertEquals(bufferSize * 80 / 100, mbeanServer.getAttribute(objectName, "PaddingThreshold"));
+
+            // schedule started at runtime, paused & resumed
+            Assert.assertEquals(false, mbeanServer.getAttribute(objectName, "UsingSchedule"));
+            mbeanServer.setAttribute(objectName, new Attribute("ScheduleInterval", 60L));
+            Assert.assertEquals(true, mbeanServer.getAttribute(objectName, "UsingSchedule"));
+            Assert.assertEquals(60L, mbeanServer.getAttribute(objectName, "ScheduleInterval"));
+            mbeanServer.invoke(objectName, "pauseSchedule", null, null);
+            Assert.assertEquals(true, mbeanServer.getAttribute(objectName, "SchedulePaused"));
+            mbeanServer.invoke(objectName, "resumeSchedule", null, null);
+            Assert.assertEquals(false, mbeanServer.getAttribute(objectName, "SchedulePaused"));
+
+            // trigger padding after taking a half below the threshold, the RingBuffer is full again
+            mbeanServer.setAttribute(objectName, new Attribute("PaddingFactor", 1));
+            for (int i = 0; i < bufferSize / 2; i++) {
+                uidGenerator.getUID();
+            }
+            long paddingCount = uidGenerator.getMetricsCollector().getPaddingCount();
+            mbeanServer.invoke(objectName, "triggerPadding", null, null);
+            long deadline = System.currentTimeMillis() + 5000L;
+            while (uidGenerator.getMetricsCollector().getPaddingCount() == paddingCount
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10L);
+            }
+            Assert.assertTrue(uidGenerator.getMetricsCollector().getPaddingCount() > paddingCount);
+            Assert.assertEquals(bufferSize - 1L, mbeanServer.getAttribute(objectName, "BufferOccupancy"));
+        } finally {
+            uidGenerator.destroy();
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.baidu.fsg.uid;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.fsg.uid.bulk.UidPartitioner;
+import com.baidu.fsg.uid.bulk.UidPartitioner.Mode;
+
+/**
+ * Test for {@link UidPartitioner}
+ */
+public class UidPartitionerTest {
+
+    private final BitsAllocator bitsAllocator = new BitsAllocator(28, 22, 13);
+
+    /**
+     * Test for a burst of one worker is balanced
+     */
+    @Test
+    public void testBurstBalance() {
+        for (int partitions : new int[] { 2, 7, 16, 100, 1024 }) {
+            UidPartitioner partitioner = new UidPartitioner(bitsAllocator, partitions);
+            int size = (int) bitsAllocator.getMaxSequence() + 1;
+            long[] uids = new long[size];
+            for (int i = 0; i < size; i++) {
+                uids[i] = bitsAllocator.allocate(10000, 42, i);
+            }
+
+            int[] result = new int[size];
+            partitioner.partition(uids, result);
+            int[] counts = new int[partitions];
+            for (int i = 0; i < size; i++) {
+                Assert.assertEquals(partitioner.partition(uids[i]), result[i]);
+                counts[result[i]]++;
+            }
+
+            // Within a few UIDs from the mean
+            assertBalanced(counts, size, 3);
+        }
+    }
+
+    /**
+     * Test for low traffic, one UID of sequence 0 per second from few workers
+     */
+    @Test
+    public void testLowTrafficBalance() {
+        int partitions = 16;
+        UidPartitioner partitioner = new UidPartitioner(bitsAllocator, partitions);
+        int[] counts = new int[partitions];
+        int size = 0;
+        for (long second = 0; second < 10000; second++) {
+            for (long workerId = 1; workerId <= 3; workerId++) {
+                counts[partitioner.partition(bitsAllocator.allocate(second, workerId, 0))]++;
+                size++;
+            }
+        }
+        assertBalanced(counts, size, size / partitions / 20);
+    }
+
+    /**
+     * Test for jump consistent hash moves about 1/N on resharding
+     */
+    @Test
+    public void testJumpConsistent() {
+        int size = 100000;
+        UidPartitioner before = new UidPartitioner(bitsAllocator, 9, Mode.JUMP_CONSISTENT);
+        UidPartitioner after = new UidPartitioner(bitsAllocator, 10, Mode.JUMP_CONSISTENT);
+
+        int[] counts = new int[10];
+        int moved = 0;
+        for (int i = 0; i < size; i++) {
+            long uid = bitsAllocator.allocate(20000 + i / 100, i % 7, i % 100);
+            int from = before.partition(uid);
+            int to = after.partition(uid);
+            counts[to]++;
+
+            // Moved UIDs go to the new partition only
+            if (from != to) {
+                Assert.assertEquals(9, to);
+                moved++;
+            }
+        }
+
+        Assert.assertEquals(size / 10, moved, size / 100);
+        assertBalanced(counts, size, size / 10 / 10);
+    }
+
+    private void assertBalanced(int[] counts, int size, int tolerance) {
+        double mean = (double) size / counts.length;
+        for (int count : counts) {
+            Assert.assertEquals(mean, count, tolerance + 1);
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.baidu.fsg.uid;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.fsg.uid.bulk.UidGroups;
+import com.baidu.fsg.uid.bulk.UidRadixSorter;
+
+/**
+ * Test for {@link UidRadixSorter}
+ */
+public class UidRadixSorterTest {
+    private static final int SIZE = 1000003;
+
+    private final BitsAllocator bitsAllocator = new BitsAllocator(28, 22, 13);
+    private final UidRadixSorter sorter = new UidRadixSorter(bitsAllocator);
+
+    /**
+     * Test for sorting generator output & random values against {@link Arrays#sort(long[])}
+     */
+    @Test
+    public void testSort() {
+        Random random = new Random(19L);
+        long[] random64 = new long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            random64[i] = random.nextLong();
+        }
+
+        for (long[] uids : new long[][] { generate(SIZE, random), random64, generate(100, random), new long[0] }) {
+            long[] expected = uids.clone();
+            Arrays.sort(expected);
+
+            long[] sorted = uids.clone();
+            sorter.sort(sorted);
+            Assert.assertArrayEquals(expected, sorted);
+
+            sorted = uids.clone();
+            sorter.parallelSort(sorted);
+            Assert.assertArrayEquals(expected, sorted);
+        }
+
+        // Sort a range only
+        long[] uids = generate(SIZE, random);
+        long[] expected = uids.clone();
+        Arrays.sort(expected, 1000, SIZE - 1000);
+        sorter.parallelSort(uids, 1000, SIZE - 1000);
+        Assert.assertArrayEquals(expected, uids);
+    }
+
+    /**
+     * Test for grouping by worker id
+     */
+    @Test
+    public void testGroupByWorker() {
+        long[] uids = generate(SIZE, new Random(23L));
+        UidGroups groups = sorter.groupByWorker(uids);
+
+        Assert.assertEquals(SIZE, groups.getOffset(groups.getGroupCount()));
+        int[] positions = new int[groups.getGroupCount()];
+        for (long uid : uids) {
+            long workerId = bitsAllocator.extractWorkerId(uid);
+            int group = Arrays.binarySearch(groups.getWorkerIds(), workerId);
+            Assert.assertTrue(group >= 0);
+
+            // Same order as the input within a group
+            Assert.assertEquals(uid, groups.getUids()[groups.getOffset(group) + positions[group]++]);
+        }
+        for (int group = 0; group < groups.getGroupCount(); group++) {
+            Assert.assertEquals(groups.getSize(group), positions[group]);
+        }
+    }
+
+    /**
+     * Generate shuffled UIDs of some workers in some seconds
+     */
+    private long[] generate(int size, Random random) {
+        long[] uids = new long[size];
+        for (int i = 0; i < size; i++) {
+            uids[i] = bitsAllocator.allocate(200000 + random.nextInt(60), 3000 + random.nextInt(300), random.nextInt(8192));
+        }
+        return uids;
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.baidu.fsg.uid;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.fsg.uid.impl.CachedUidGenerator;
+import com.baidu.fsg.uid.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.scramble.FeistelUidScrambler;
+import com.baidu.fsg.uid.scramble.UidScrambler;
+
+/**
+ * Test for {@link FeistelUidScrambler} & the scrambled output of generators
+ */
+public class UidScramblerTest {
+    private static final int SIZE = 100000;
+    private static final long WORKER_ID = 1234L;
+
+    private final UidScrambler scrambler = new FeistelUidScrambler(20160520L);
+
+    /**
+     * Test for the bijection is reversible and non-negative
+     */
+    @Test
+    public void testReversible() {
+        Random random = new Random(17L);
+        for (int i = 0; i < SIZE; i++) {
+            long uid = random.nextLong() & Long.MAX_VALUE;
+            long scrambled = scrambler.scramble(uid);
+            Assert.assertTrue(scrambled >= 0);
+            Assert.assertEquals(uid, scrambler.unscramble(scrambled));
+        }
+
+        Assert.assertEquals(Long.MAX_VALUE, scrambler.unscramble(scrambler.scramble(Long.MAX_VALUE)));
+        Assert.assertEquals(0L, scrambler.unscramble(scrambler.scramble(0L)));
+
+        // Another key is another bijection
+        Assert.assertTrue(scrambler.scramble(42L) != new FeistelUidScrambler(1L).scramble(42L));
+    }
+
+    /**
+     * Test for consecutive UIDs spread over the ranges of the high bits
+     */
+    @Test
+    public void testSpread() {
+        int ranges = 16;
+        int[] counts = new int[ranges];
+        long first = new BitsAllocator(28, 22, 13).allocate(100000L, WORKER_ID, 0L);
+        for (int i = 0; i < SIZE; i++) {
+            counts[(int) (scrambler.scramble(first + i) >>> 59)]++;
+        }
+
+        for (int count : counts) {
+            Assert.assertEquals(SIZE / ranges, count, SIZE / ranges / 10);
+        }
+    }
+
+    /**
+     * Test for the generators output scrambled UIDs, and parse them back
+     */
+    @Test
+    public void testGenerators() throws Exception {
+        DefaultUidGenerator defaultUidGenerator = new DefaultUidGenerator();
+        defaultUidGenerator.setWorkerIdAssigner(() -> WORKER_ID);
+        defaultUidGenerator.setTimeBits(29);
+        defaultUidGenerator.setWorkerBits(21);
+        defaultUidGenerator.setUidScrambler(scrambler);
+        defaultUidGenerator.afterPropertiesSet();
+        assertScrambled(defaultUidGenerator);
+
+        CachedUidGenerator cachedUidGenerator = new CachedUidGenerator();
+        cachedUidGenerator.setWorkerIdAssigner(() -> WORKER_ID);
+        cachedUidGenerator.setTimeBits(29);
+        cachedUidGenerator.setWorkerBits(21);
+        cachedUidGenerator.setUidScrambler(scrambler);
+        cachedUidGenerator.afterPropertiesSet();
+        try {
+            assertScrambled(cachedUidGenerator);
+        } finally {
+            cachedUidGenerator.destroy();
+        }
+    }
+
+    private void assertScrambled(DefaultUidGenerator uidGenerator) {
+        UidInfo info = new UidInfo();
+        long last = -1L;
+        int descending = 0;
+        for (int i = 0; i < 1000; i++) {
+            long uid = uidGenerator.getUID();
+            Assert.assertTrue(uid >= 0);
+            descending += uid < last ? 1 : 0;
+            last = uid;
+
+            uidGenerator.decode(uid, info);
+            Assert.assertEquals(uid, info.getUid());
+            Assert.assertEquals(WORKER_ID, info.getWorkerId());
+            Assert.assertTrue(uidGenerator.parseUID(uid).contains("\"workerId\":\"" + WORKER_ID + "\""));
+        }
+
+        // No longer monotonic
+        Assert.assertTrue(descending > 100);
+    }
+
+}
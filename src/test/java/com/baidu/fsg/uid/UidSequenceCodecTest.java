@@ -0,0 +1,133 @@
+package com.baidu.fsg.uid;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.fsg.uid.codec.UidSequenceCodec;
+import com.baidu.fsg.uid.codec.UidSequenceDecoder;
+import com.baidu.fsg.uid.codec.UidSequenceEncoder;
+
+/**
+ * Test for {@link UidSequenceCodec}
+ */
+public class UidSequenceCodecTest {
+    private static final int SIZE = 100003;
+
+    private final BitsAllocator bitsAllocator = new BitsAllocator(28, 22, 13);
+    private final UidSequenceCodec codec = new UidSequenceCodec(bitsAllocator);
+
+    /**
+     * Test for UIDs of one worker, as a generator issues
+     */
+    @Test
+    public void testOneWorker() throws IOException {
+        long[] uids = generate(SIZE, 1, new Random(3L));
+        int bytes = assertRoundTrip(codec, uids);
+        Assert.assertTrue("Encoded bytes: " + bytes, bytes < SIZE * 2);
+
+        // The raw deltas are still fine without layout
+        assertRoundTrip(new UidSequenceCodec(), uids);
+    }
+
+    /**
+     * Test for UIDs merged from several workers, nearly sorted
+     */
+    @Test
+    public void testWorkers() throws IOException {
+        long[] uids = generate(SIZE, 8, new Random(5L));
+        Arrays.sort(uids);
+        assertRoundTrip(codec, uids);
+
+        // Swap some neighbours for negative deltas
+        Random random = new Random(9L);
+        for (int i = 0; i < SIZE / 100; i++) {
+            int index = random.nextInt(SIZE - 1);
+            long uid = uids[index];
+            uids[index] = uids[index + 1];
+            uids[index + 1] = uid;
+        }
+        assertRoundTrip(codec, uids);
+    }
+
+    /**
+     * Test for random values, duplicates and extreme values
+     */
+    @Test
+    public void testEdgeValues() throws IOException {
+        Random random = new Random(11L);
+        long[] uids = new long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            uids[i] = random.nextLong();
+        }
+        uids[0] = Long.MIN_VALUE;
+        uids[1] = Long.MAX_VALUE;
+        uids[2] = 0L;
+        uids[3] = -1L;
+        assertRoundTrip(codec, uids);
+
+        long[] duplicates = new long[1000];
+        Arrays.fill(duplicates, 123456789L);
+        assertRoundTrip(codec, duplicates);
+
+        assertRoundTrip(codec, new long[0]);
+        assertRoundTrip(codec, new long[] { 42L });
+    }
+
+    /**
+     * Round trip on both the buffer & stream API
+     * 
+     * @return encoded bytes
+     */
+    private int assertRoundTrip(UidSequenceCodec codec, long[] uids) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(codec.maxEncodedLength(uids.length));
+        codec.encode(uids, 0, uids.length, buffer);
+        int bytes = buffer.position();
+
+        buffer.flip();
+        long[] decoded = new long[uids.length];
+        Assert.assertEquals(uids.length, codec.decode(buffer, decoded, 0));
+        Assert.assertArrayEquals(uids, decoded);
+        Assert.assertFalse(buffer.hasRemaining());
+
+        // Stream encoding is the same bytes
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (UidSequenceEncoder encoder = codec.newEncoder(out)) {
+            encoder.write(uids, 0, uids.length);
+        }
+        Assert.assertEquals(bytes, out.size());
+
+        UidSequenceDecoder decoder = codec.newDecoder(new ByteArrayInputStream(out.toByteArray()));
+        for (long uid : uids) {
+            Assert.assertEquals(uid, decoder.nextLong());
+        }
+        Assert.assertFalse(decoder.hasNext());
+        return bytes;
+    }
+
+    /**
+     * Generate UIDs of the workers in order, with random sequences consumed in each second
+     */
+    private long[] generate(int size, int workers, Random random) {
+        long[] uids = new long[size];
+        long deltaSeconds = 100000L;
+        int index = 0;
+        while (index < size) {
+            for (int worker = 0; worker < workers && index < size; worker++) {
+                int sequences = 1 + random.nextInt(200);
+                for (int sequence = 0; sequence < sequences && index < size; sequence++) {
+                    uids[index++] = bitsAllocator.allocate(deltaSeconds, 1000 + worker, sequence);
+                }
+            }
+            deltaSeconds += 1 + random.nextInt(3);
+        }
+        return uids;
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.baidu.fsg.uid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.fsg.uid.collection.UidSet;
+
+/**
+ * Test for {@link UidSet}
+ */
+public class UidSetTest {
+    private static final int THREADS = Runtime.getRuntime().availableProcessors() << 1;
+
+    private final BitsAllocator bitsAllocator = new BitsAllocator(28, 22, 13);
+
+    /**
+     * Test for memory of dense generator output
+     */
+    @Test
+    public void testDense() {
+        UidSet uidSet = new UidSet(bitsAllocator);
+        int seconds = 200;
+        for (long second = 0; second < seconds; second++) {
+            for (long sequence = 0; sequence <= bitsAllocator.getMaxSequence(); sequence++) {
+                Assert.assertTrue(uidSet.add(bitsAllocator.allocate(second, 7, sequence)));
+            }
+        }
+
+        long size = seconds * (bitsAllocator.getMaxSequence() + 1);
+        Assert.assertEquals(size, uidSet.cardinality());
+        Assert.assertFalse(uidSet.add(bitsAllocator.allocate(9, 7, 9)));
+        Assert.assertTrue(uidSet.contains(bitsAllocator.allocate(9, 7, 9)));
+        Assert.assertFalse(uidSet.contains(bitsAllocator.allocate(9, 8, 9)));
+
+        double bitsPerUid = uidSet.sizeInBytes() * 8.0 / size;
+        System.out.println(uidSet + ", bits per UID: " + bitsPerUid);
+        Assert.assertTrue(bitsPerUid < 2.0);
+
+        // Iterate in order
+        PrimitiveIterator.OfLong iterator = uidSet.iterator();
+        long last = -1L;
+        long count = 0L;
+        while (iterator.hasNext()) {
+            long uid = iterator.nextLong();
+            Assert.assertTrue(uid > last);
+            last = uid;
+            count++;
+        }
+        Assert.assertEquals(size, count);
+    }
+
+    /**
+     * Test for random values against {@link TreeSet}
+     */
+    @Test
+    public void testRandom() {
+        Random random = new Random(13L);
+        UidSet uidSet = new UidSet(6, 4);
+        TreeSet<Long> expected = new TreeSet<>();
+        for (int i = 0; i < 200000; i++) {
+            // Mix sparse & dense keys, and negative values
+            long uid = (i & 1) == 0 ? random.nextLong() : random.nextInt(50000) - 10000L;
+            Assert.assertEquals(expected.add(uid), uidSet.add(uid));
+        }
+
+        Assert.assertEquals(expected.size(), uidSet.cardinality());
+        PrimitiveIterator.OfLong iterator = uidSet.iterator();
+        for (long uid : expected) {
+            Assert.assertTrue(uidSet.contains(uid));
+            Assert.assertEquals(uid, iterator.nextLong());
+        }
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    /**
+     * Test for concurrent adding of the overlapped UIDs
+     * 
+     * @throws InterruptedException
+     */
+    @Test
+    public void testConcurrentAdd() throws InterruptedException {
+        UidSet uidSet = new UidSet(bitsAllocator);
+        int size = 1000000;
+        AtomicInteger added = new AtomicInteger();
+
+        // Each UID is added by all the threads, starting from different offsets
+        List<Thread> threadList = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            int offset = i * size / THREADS;
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < size; j++) {
+                    long index = (offset + j) % size;
+                    if (uidSet.add(bitsAllocator.allocate(index >> 10, index & 7, index & 1023))) {
+                        added.incrementAndGet();
+                    }
+                }
+            });
+            threadList.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threadList) {
+            thread.join();
+        }
+
+        Assert.assertEquals(uidSet.cardinality(), added.get());
+        Assert.assertEquals(size, added.get());
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid;
+
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.fsg.uid.impl.CachedUidGenerator;
+import com.baidu.fsg.uid.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.impl.MultiWorkerUidGenerator;
+
+/**
+ * Test for {@link UidSpliterator} & the batches of the generators, no database required
+ */
+public class UidStreamTest {
+    private static final int SIZE = 100000;
+
+    /**
+     * Test for the batch of contiguous sequences within a time unit
+     */
+    @Test
+    public void testGetUIDs() throws Exception {
+        // 8192 UIDs per millisecond, the batch spans several time units
+        DefaultUidGenerator uidGenerator = new DefaultUidGenerator();
+        uidGenerator.setWorkerIdAssigner(new AtomicLong()::incrementAndGet);
+        uidGenerator.setTimeBits(41);
+        uidGenerator.setWorkerBits(9);
+        uidGenerator.setSeqBits(13);
+        uidGenerator.setTimeUnitMillis(1L);
+        uidGenerator.afterPropertiesSet();
+
+        long[] uids = new long[SIZE];
+        uidGenerator.getUIDs(uids, 0, SIZE);
+        UidInfo last = uidGenerator.decode(uids[0], new UidInfo());
+        for (int i = 1; i < SIZE; i++) {
+            UidInfo info = uidGenerator.decode(uids[i], new UidInfo());
+            if (info.getDeltaTime() == last.getDeltaTime()) {
+                Assert.assertEquals(uids[i - 1] + 1, uids[i]);
+            } else {
+                Assert.assertTrue(info.getDeltaTime() > last.getDeltaTime());
+                Assert.assertEquals(0L, info.getSequence());
+            }
+            last = info;
+        }
+    }
+
+    /**
+     * Test for the parallel stream of the default generator
+     */
+    @Test
+    public void testParallelStream() throws Exception {
+        DefaultUidGenerator uidGenerator = new DefaultUidGenerator();
+        uidGenerator.setWorkerIdAssigner(new AtomicLong()::incrementAndGet);
+        uidGenerator.setTimeBits(41);
+        uidGenerator.setWorkerBits(9);
+        uidGenerator.setSeqBits(13);
+        uidGenerator.setTimeUnitMillis(1L);
+        uidGenerator.afterPropertiesSet();
+
+        Assert.assertEquals(SIZE, uidGenerator.uids(SIZE).parallel().distinct().count());
+        Assert.assertEquals(SIZE, uidGenerator.uids(SIZE).toArray().length);
+        Assert.assertEquals(0, uidGenerator.uids(0).count());
+    }
+
+    /**
+     * Test for the parallel stream of the multiple workers generator
+     */
+    @Test
+    public void testMultiWorkerStream() throws Exception {
+        MultiWorkerUidGenerator uidGenerator = new MultiWorkerUidGenerator();
+        uidGenerator.setWorkerIdAssigner(new AtomicLong()::incrementAndGet);
+        uidGenerator.setTimeBits(41);
+        uidGenerator.setWorkerBits(9);
+        uidGenerator.setSeqBits(13);
+        uidGenerator.setTimeUnitMillis(1L);
+        uidGenerator.setWorkerCount(4);
+        uidGenerator.afterPropertiesSet();
+
+        Assert.assertEquals(SIZE, uidGenerator.uids(SIZE).parallel().distinct().count());
+    }
+
+    /**
+     * Test for the parallel stream of the cached generator, leasing over the RingBuffer size
+     */
+    @Test
+    public void testCachedStream() throws Exception {
+        CachedUidGenerator uidGenerator = new CachedUidGenerator();
+        uidGenerator.setWorkerIdAssigner(new AtomicLong()::incrementAndGet);
+        uidGenerator.setTimeBits(41);
+        uidGenerator.setWorkerBits(9);
+        uidGenerator.setSeqBits(13);
+        uidGenerator.setTimeUnitMillis(1L);
+        uidGenerator.setBoostPower(1);
+        uidGenerator.afterPropertiesSet();
+
+        try {
+            Assert.assertEquals(SIZE, uidGenerator.uids(SIZE).parallel().distinct().count());
+        } finally {
+            uidGenerator.destroy();
+        }
+    }
+
+    /**
+     * Test for the splits of the spliterator, exactly sized without generating
+     */
+    @Test
+    public void testSplit() throws Exception {
+        AtomicLong generatedCount = new AtomicLong();
+        UidGenerator uidGenerator = new UidGenerator() {
+            @Override
+            public long getUID() {
+                return generatedCount.incrementAndGet();
+            }
+
+            @Override
+            public String parseUID(long uid) {
+                return String.valueOf(uid);
+            }
+        };
+
+        UidSpliterator spliterator = new UidSpliterator(uidGenerator, 10000, 100);
+        Spliterator.OfLong split = spliterator.trySplit();
+        Assert.assertEquals(5000, split.estimateSize());
+        Assert.assertEquals(5000, spliterator.estimateSize());
+        Assert.assertEquals(0L, generatedCount.get());
+        Assert.assertTrue(split.hasCharacteristics(Spliterator.SIZED | Spliterator.DISTINCT));
+
+        // leases one batch of the lease size
+        Assert.assertTrue(spliterator.tryAdvance((long uid) -> { }));
+        Assert.assertEquals(100L, generatedCount.get());
+        Assert.assertEquals(4999, spliterator.estimateSize());
+
+        // no split smaller than 2 leases
+        Spliterator.OfLong smallest = new UidSpliterator(uidGenerator, 199, 100);
+        Assert.assertNull(smallest.trySplit());
+        AtomicLong consumedCount = new AtomicLong();
+        smallest.forEachRemaining((long uid) -> consumedCount.incrementAndGet());
+        Assert.assertEquals(199L, consumedCount.get());
+    }
+
+}
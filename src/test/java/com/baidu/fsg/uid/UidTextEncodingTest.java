@@ -0,0 +1,119 @@
+package com.baidu.fsg.uid;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.fsg.uid.codec.Base32UidEncoding;
+import com.baidu.fsg.uid.codec.Base62UidEncoding;
+import com.baidu.fsg.uid.codec.UidTextEncoding;
+
+/**
+ * Test for {@link Base32UidEncoding} & {@link Base62UidEncoding}
+ */
+public class UidTextEncodingTest {
+    private static final int SIZE = 100000;
+
+    private final UidTextEncoding[] encodings = { Base32UidEncoding.INSTANCE, Base62UidEncoding.INSTANCE };
+
+    /**
+     * Test for the round trips on all the APIs
+     */
+    @Test
+    public void testRoundTrip() {
+        Random random = new Random(29L);
+        long[] uids = new long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            uids[i] = random.nextLong() >>> random.nextInt(64);
+        }
+        uids[0] = 0L;
+        uids[1] = -1L;
+        uids[2] = Long.MAX_VALUE;
+        uids[3] = Long.MIN_VALUE;
+
+        for (UidTextEncoding encoding : encodings) {
+            int width = encoding.getWidth();
+            char[] chars = new char[SIZE * width];
+            byte[] bytes = new byte[SIZE * width];
+            encoding.encode(uids, 0, SIZE, chars, 0);
+            encoding.encode(uids, 0, SIZE, bytes, 0);
+
+            long[] decoded = new long[SIZE];
+            encoding.decode(chars, 0, decoded, 0, SIZE);
+            Assert.assertArrayEquals(uids, decoded);
+            encoding.decode(bytes, 0, decoded, 0, SIZE);
+            Assert.assertArrayEquals(uids, decoded);
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(width * 2);
+            ByteBuffer heap = ByteBuffer.allocate(width * 2);
+            for (int i = 0; i < 1000; i++) {
+                String text = encoding.encode(uids[i]);
+                Assert.assertEquals(new String(chars, i * width, width), text);
+                Assert.assertEquals(uids[i], encoding.decode(text));
+
+                for (ByteBuffer buffer : new ByteBuffer[] { direct, heap }) {
+                    buffer.clear();
+                    buffer.put((byte) 0);
+                    encoding.encode(uids[i], buffer);
+                    Assert.assertEquals(1 + width, buffer.position());
+                    buffer.flip();
+                    buffer.get();
+                    Assert.assertEquals(uids[i], encoding.decode(buffer));
+                }
+            }
+        }
+    }
+
+    /**
+     * Test for the lexicographic order is the unsigned numeric order
+     */
+    @Test
+    public void testOrder() {
+        Random random = new Random(31L);
+        for (UidTextEncoding encoding : encodings) {
+            for (int i = 0; i < SIZE; i++) {
+                long a = random.nextLong() >>> random.nextInt(64);
+                long b = i % 2 == 0 ? a + 1 : random.nextLong();
+                int expected = Integer.signum(Long.compareUnsigned(a, b));
+                Assert.assertEquals(expected, Integer.signum(encoding.encode(a).compareTo(encoding.encode(b))));
+            }
+        }
+    }
+
+    /**
+     * Test for the illegal texts
+     */
+    @Test
+    public void testIllegal() {
+        Base32UidEncoding base32 = Base32UidEncoding.INSTANCE;
+        Assert.assertEquals(base32.decode("0000000000001"), base32.decode("000000000000l"));
+        Assert.assertEquals(base32.decode("0000000000000"), base32.decode("OOOOOOOOOOOOo"));
+        Assert.assertEquals("FZZZZZZZZZZZZ", base32.encode(-1L));
+        assertIllegal(base32, "G000000000000");
+        assertIllegal(base32, "000000000000U");
+        assertIllegal(base32, "00000");
+
+        Base62UidEncoding base62 = Base62UidEncoding.INSTANCE;
+        Assert.assertEquals(-1L, base62.decode(base62.encode(-1L)));
+        assertIllegal(base62, "zzzzzzzzzzz");
+        assertIllegal(base62, "0000000000-");
+        assertIllegal(base62, "0000000000中");
+
+        // One more than the max unsigned
+        char[] overflow = base62.encode(-1L).toCharArray();
+        overflow[10]++;
+        assertIllegal(base62, new String(overflow));
+    }
+
+    private void assertIllegal(UidTextEncoding encoding, String text) {
+        try {
+            encoding.decode(text);
+            Assert.fail("Illegal text decoded: " + text);
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.benchmark;
+
+import java.util.Collection;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs the benchmarks on the hot paths with {@link GCProfiler}, and asserts the allocation rate per operation<p>
+ * 
+ * The hot paths are expected allocation free, besides the boxed UIDs of the padding provider which are amortized into
+ * the cached <code>getUID</code>. The process exits with 1 when any benchmark allocates more than its threshold:
+ * <pre>java -cp target/benchmarks.jar com.baidu.fsg.uid.benchmark.AllocationCheck</pre>
+ */
+public class AllocationCheck {
+    private static final String ALLOC_RATE_NORM = "gc.alloc.rate.norm";
+
+    /**
+     * Benchmarks & their max bytes per operation, less than one object on the allocation free paths. The radix sort
+     * allows its scratch of one long per UID
+     */
+    private static final Threshold[] THRESHOLDS = {
+            new Threshold(UidGeneratorBenchmark.class, "getUID", 8.0, UidGenerators.DEFAULT,
+                    UidGenerators.MULTI_WORKER),
+            new Threshold(DecodeBenchmark.class, "decode", 1.0),
+            new Threshold(DecodeBenchmark.class, "decodeToJson", 1.0),
+            new Threshold(DecodeBenchmark.class, "bulkDecode", 1.0),
+            new Threshold(TextEncodingBenchmark.class, "roundTripChars", 1.0),
+            new Threshold(TextEncodingBenchmark.class, "roundTripBytes", 1.0),
+            new Threshold(UidSequenceCodecBenchmark.class, "encode", 1.0),
+            new Threshold(UidSequenceCodecBenchmark.class, "decode", 1.0),
+            new Threshold(RingBufferBenchmark.class, "putTake", 8.0),
+            new Threshold(RingBufferBenchmark.class, "putTakeByConsumers", 8.0),
+            new Threshold(ScramblerBenchmark.class, "scramble", 1.0),
+            new Threshold(ScramblerBenchmark.class, "unscramble", 1.0),
+            new Threshold(PartitionerBenchmark.class, "partition", 1.0),
+            new Threshold(PartitionerBenchmark.class, "partitionColumn", 1.0),
+            new Threshold(RadixSortBenchmark.class, "radixSort", 9.0),
+            new Threshold(UuidBenchmark.class, "getUUIDPair", 8.0, UidGenerators.DEFAULT) };
+
+    public static void main(String[] args) throws Exception {
+        boolean passed = true;
+        for (Threshold threshold : THRESHOLDS) {
+            ChainedOptionsBuilder builder = new OptionsBuilder()
+                    .include(threshold.regex)
+                    .addProfiler(GCProfiler.class)
+                    .warmupIterations(2)
+                    .warmupTime(TimeValue.seconds(1))
+                    .measurementIterations(3)
+                    .measurementTime(TimeValue.seconds(1))
+                    .forks(1);
+            if (threshold.types.length > 0) {
+                builder.param("type", threshold.types);
+            }
+
+            Collection<RunResult> runResults = new Runner(builder.build()).run();
+            for (RunResult runResult : runResults) {
+                passed &= check(runResult, threshold.maxBytesPerOp);
+            }
+        }
+
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Check the normalized allocation rate of a run against the threshold
+     */
+    private static boolean check(RunResult runResult, double maxBytesPerOp) {
+        BenchmarkParams params = runResult.getParams();
+        StringBuilder label = new StringBuilder(params.getBenchmark());
+        for (String key : params.getParamsKeys()) {
+            label.append(' ').append(key).append('=').append(params.getParam(key));
+        }
+
+        Result<?> allocRate = runResult.getSecondaryResults().get(ALLOC_RATE_NORM);
+        if (allocRate == null) {
+            System.err.println("[FAIL] " + label + ": no " + ALLOC_RATE_NORM + " reported");
+            return false;
+        }
+
+        double bytesPerOp = allocRate.getScore();
+        boolean passed = bytesPerOp <= maxBytesPerOp;
+        System.out.printf("[%s] %s: %.2f B/op, threshold %.2f B/op%n", passed ? "PASS" : "FAIL", label, bytesPerOp,
+                maxBytesPerOp);
+        return passed;
+    }
+
+    /**
+     * Threshold of a benchmark method, the generator types are restricted if specified
+     */
+    private static class Threshold {
+        private final String regex;
+        private final double maxBytesPerOp;
+        private final String[] types;
+
+        Threshold(Class<?> benchmarkClass, String method, double maxBytesPerOp, String... types) {
+            this.regex = benchmarkClass.getName() + "." + method + "$";
+            this.maxBytesPerOp = maxBytesPerOp;
+            this.types = types;
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.baidu.fsg.uid.BitsAllocator;
+import com.baidu.fsg.uid.UidInfo;
+import com.baidu.fsg.uid.bulk.BulkUidDecoder;
+import com.baidu.fsg.uid.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.utils.DateUtils;
+
+/**
+ * Benchmark of parsing & decoding UIDs, by {@link DefaultUidGenerator#parseUID(long)},
+ * {@link DefaultUidGenerator#decode(long, UidInfo)} and {@link BulkUidDecoder}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecodeBenchmark {
+    private static final int BATCH = 1024;
+
+    private DefaultUidGenerator uidGenerator;
+    private BulkUidDecoder bulkUidDecoder;
+    private final UidInfo info = new UidInfo();
+    private final StringBuilder builder = new StringBuilder(128);
+
+    private final long[] uids = new long[BATCH];
+    private final long[] timestamps = new long[BATCH];
+    private final int[] workerIds = new int[BATCH];
+    private final int[] sequences = new int[BATCH];
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        uidGenerator = UidGenerators.create(UidGenerators.DEFAULT);
+        bulkUidDecoder = new BulkUidDecoder(new BitsAllocator(UidGenerators.TIME_BITS,
+                UidGenerators.WORKER_BITS, UidGenerators.SEQ_BITS),
+                DateUtils.parseByDayPattern(UidGenerators.EPOCH).getTime());
+        for (int i = 0; i < BATCH; i++) {
+            uids[i] = uidGenerator.getUID();
+        }
+    }
+
+    @Benchmark
+    public String parseUID() {
+        return uidGenerator.parseUID(nextUid());
+    }
+
+    @Benchmark
+    public UidInfo decode() {
+        return uidGenerator.decode(nextUid(), info);
+    }
+
+    @Benchmark
+    public int decodeToJson() {
+        builder.setLength(0);
+        return uidGenerator.decode(nextUid(), info).appendJson(builder).length();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long[] bulkDecode() {
+        bulkUidDecoder.decode(uids, timestamps, workerIds, sequences);
+        return timestamps;
+    }
+
+    private long nextUid() {
+        return uids[index++ & (BATCH - 1)];
+    }
+
+}
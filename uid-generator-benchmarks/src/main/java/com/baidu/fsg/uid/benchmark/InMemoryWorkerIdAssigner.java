@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.benchmark;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.baidu.fsg.uid.worker.WorkerIdAssigner;
+
+/**
+ * Represents an in-memory {@link WorkerIdAssigner} for benchmarks, assigns increasing worker ids without database
+ */
+public class InMemoryWorkerIdAssigner implements WorkerIdAssigner {
+
+    private final AtomicLong workerIdSequence;
+
+    /**
+     * Constructor starts from worker id 1
+     */
+    public InMemoryWorkerIdAssigner() {
+        this(1L);
+    }
+
+    /**
+     * Constructor with the first worker id
+     * 
+     * @param firstWorkerId
+     */
+    public InMemoryWorkerIdAssigner(long firstWorkerId) {
+        this.workerIdSequence = new AtomicLong(firstWorkerId - 1);
+    }
+
+    @Override
+    public long assignWorkerId() {
+        return workerIdSequence.incrementAndGet();
+    }
+
+}
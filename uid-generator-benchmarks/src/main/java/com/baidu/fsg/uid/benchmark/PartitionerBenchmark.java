@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.baidu.fsg.uid.BitsAllocator;
+import com.baidu.fsg.uid.bulk.UidPartitioner;
+
+/**
+ * Benchmark of {@link UidPartitioner} per UID, single & columnar, against the plain <code>uid % partitions</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartitionerBenchmark {
+    private static final int BATCH = 1024;
+    private static final int PARTITIONS = 1000;
+
+    /** Layout of the UIDs */
+    private static final BitsAllocator BITS_ALLOCATOR = new BitsAllocator(UidGenerators.TIME_BITS,
+            UidGenerators.WORKER_BITS, UidGenerators.SEQ_BITS);
+
+    private final long[] uids = new long[BATCH];
+    private final int[] partitions = new int[BATCH];
+    private int index;
+
+    /**
+     * Partitioner of the mode, so that the modulo baseline is run once
+     */
+    @State(Scope.Thread)
+    public static class PartitionerState {
+        @Param({ "MULTIPLY_SHIFT", "JUMP_CONSISTENT" })
+        public UidPartitioner.Mode mode;
+
+        UidPartitioner partitioner;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            partitioner = new UidPartitioner(BITS_ALLOCATOR, PARTITIONS, mode);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // a burst of one worker
+        for (int i = 0; i < BATCH; i++) {
+            uids[i] = BITS_ALLOCATOR.allocate(1L, 1L, i);
+        }
+    }
+
+    @Benchmark
+    public long modulo() {
+        return uids[index++ & (BATCH - 1)] % PARTITIONS;
+    }
+
+    @Benchmark
+    public int partition(PartitionerState state) {
+        return state.partitioner.partition(uids[index++ & (BATCH - 1)]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int[] partitionColumn(PartitionerState state) {
+        state.partitioner.partition(uids, partitions);
+        return partitions;
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.baidu.fsg.uid.BitsAllocator;
+import com.baidu.fsg.uid.bulk.UidGroups;
+import com.baidu.fsg.uid.bulk.UidRadixSorter;
+
+/**
+ * Benchmark of {@link UidRadixSorter} per UID, against <code>Arrays.sort</code> & <code>Arrays.parallelSort</code><p>
+ *
+ * The UIDs are the shuffled outputs of 8 workers over a few time units. Each invocation copies the shuffled UIDs
+ * before sorting, the copy is included in all the numbers alike. The sort allocates one scratch long per UID
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RadixSortBenchmark {
+    private static final int SIZE = 65536;
+    private static final int WORKERS = 8;
+
+    /** Layout of the UIDs */
+    private static final BitsAllocator BITS_ALLOCATOR = new BitsAllocator(UidGenerators.TIME_BITS,
+            UidGenerators.WORKER_BITS, UidGenerators.SEQ_BITS);
+
+    private final UidRadixSorter sorter = new UidRadixSorter(BITS_ALLOCATOR);
+    private final long[] shuffled = new long[SIZE];
+    private final long[] uids = new long[SIZE];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long sequences = BITS_ALLOCATOR.getMaxSequence() + 1;
+        for (int i = 0; i < SIZE; i++) {
+            long workerSequence = i / WORKERS;
+            shuffled[i] = BITS_ALLOCATOR.allocate(workerSequence / sequences, i % WORKERS + 1,
+                    workerSequence % sequences);
+        }
+
+        Random random = new Random(SIZE);
+        for (int i = SIZE - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long uid = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = uid;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long[] radixSort() {
+        System.arraycopy(shuffled, 0, uids, 0, SIZE);
+        sorter.sort(uids);
+        return uids;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long[] arraysSort() {
+        System.arraycopy(shuffled, 0, uids, 0, SIZE);
+        Arrays.sort(uids);
+        return uids;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long[] parallelRadixSort() {
+        System.arraycopy(shuffled, 0, uids, 0, SIZE);
+        sorter.parallelSort(uids);
+        return uids;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long[] arraysParallelSort() {
+        System.arraycopy(shuffled, 0, uids, 0, SIZE);
+        Arrays.parallelSort(uids);
+        return uids;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public UidGroups groupByWorker() {
+        return sorter.groupByWorker(shuffled);
+    }
+
+}
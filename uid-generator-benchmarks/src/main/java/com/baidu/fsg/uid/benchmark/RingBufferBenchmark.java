@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.baidu.fsg.uid.BitsAllocator;
+import com.baidu.fsg.uid.buffer.BufferPaddingExecutor;
+import com.baidu.fsg.uid.buffer.RingBuffer;
+
+/**
+ * Benchmark of the raw {@link RingBuffer} put & take, and the padding by {@link BufferPaddingExecutor}<p>
+ * 
+ * The raw benchmarks run one producer against one consumer in the <code>putTake</code> group, and against
+ * {@value #CONSUMERS} consumers in the <code>putTakeByConsumers</code> group, without padding triggered by the take.
+ * The consumers of a group may race for the last UID, the loser is counted by the <code>rejections</code> counter instead
+ * of failing the run. Other thread counts can be run by <code>-tg 1,N</code>. The padding benchmark fills an empty
+ * RingBuffer by the same provider as {@link com.baidu.fsg.uid.impl.CachedUidGenerator}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RingBufferBenchmark {
+
+    /** Layout of the provided UIDs */
+    private static final BitsAllocator BITS_ALLOCATOR = new BitsAllocator(UidGenerators.TIME_BITS,
+            UidGenerators.WORKER_BITS, UidGenerators.SEQ_BITS);
+    private static final long WORKER_ID = 1L;
+    private static final int CONSUMERS = 4;
+
+    /** Rejection of the take losing the race for the last UID, without the stack trace */
+    private static final RuntimeException REJECTED_TAKE = new RuntimeException("Rejected take buffer", null, false,
+            false) {
+    };
+
+    /**
+     * RingBuffer shared by the producer & the consumer of a group
+     */
+    @State(Scope.Group)
+    public static class GroupState {
+        @Param({ "65536" })
+        public int bufferSize;
+
+        RingBuffer ringBuffer;
+        long nextUid;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            ringBuffer = new RingBuffer(bufferSize);
+            ringBuffer.setRejectedPutHandler((buffer, uid) -> { });
+            ringBuffer.setRejectedTakeHandler(buffer -> {
+                throw REJECTED_TAKE;
+            });
+            ringBuffer.setBufferPaddingExecutor(newPaddingExecutor(ringBuffer));
+        }
+    }
+
+    /**
+     * Counter of the rejected takes per consumer
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Rejections {
+        public long rejections;
+    }
+
+    /**
+     * Empty RingBuffer to pad in each invocation
+     */
+    @State(Scope.Thread)
+    public static class PaddingState {
+        @Param({ "65536" })
+        public int bufferSize;
+
+        RingBuffer ringBuffer;
+        BufferPaddingExecutor paddingExecutor;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            ringBuffer = new RingBuffer(bufferSize);
+            ringBuffer.setRejectedPutHandler((buffer, uid) -> { });
+            paddingExecutor = newPaddingExecutor(ringBuffer);
+            ringBuffer.setBufferPaddingExecutor(paddingExecutor);
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            paddingExecutor.shutdown();
+        }
+    }
+
+    @Benchmark
+    @Group("putTake")
+    @GroupThreads(1)
+    public boolean put(GroupState state) {
+        return state.ringBuffer.put(state.nextUid++);
+    }
+
+    @Benchmark
+    @Group("putTake")
+    @GroupThreads(1)
+    public long take(GroupState state, Rejections counter) {
+        return takeIfAny(state, counter);
+    }
+
+    @Benchmark
+    @Group("putTakeByConsumers")
+    @GroupThreads(1)
+    public boolean putByConsumers(GroupState state) {
+        return state.ringBuffer.put(state.nextUid++);
+    }
+
+    @Benchmark
+    @Group("putTakeByConsumers")
+    @GroupThreads(CONSUMERS)
+    public long takeByConsumers(GroupState state, Rejections counter) {
+        return takeIfAny(state, counter);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(65536)
+    public long padding(PaddingState state) {
+        state.paddingExecutor.paddingBuffer();
+        return state.ringBuffer.getTail();
+    }
+
+    /**
+     * Take a UID if the RingBuffer is not empty, the other consumers may take the last one after the check
+     */
+    private static long takeIfAny(GroupState state, Rejections counter) {
+        RingBuffer ringBuffer = state.ringBuffer;
+        if (ringBuffer.getTail() <= ringBuffer.getCursor()) {
+            return -1L;
+        }
+
+        try {
+            return ringBuffer.take();
+        } catch (RuntimeException e) {
+            if (e != REJECTED_TAKE) {
+                throw e;
+            }
+            counter.rejections++;
+            return -1L;
+        }
+    }
+
+    /**
+     * Padding executor without the async padding triggered by the take, so the raw take is measured. The UIDs are
+     * provided as {@link com.baidu.fsg.uid.impl.CachedUidGenerator}
+     */
+    private static BufferPaddingExecutor newPaddingExecutor(RingBuffer ringBuffer) {
+        return new BufferPaddingExecutor(ringBuffer, RingBufferBenchmark::provide, false) {
+            @Override
+            public void asyncPadding() {
+            }
+        };
+    }
+
+    private static List<Long> provide(long currentSecond) {
+        int listSize = (int) BITS_ALLOCATOR.getMaxSequence() + 1;
+        List<Long> uidList = new ArrayList<>(listSize);
+        long firstSeqUid = BITS_ALLOCATOR.allocate(currentSecond & BITS_ALLOCATOR.getMaxDeltaTime(), WORKER_ID, 0L);
+        for (int offset = 0; offset < listSize; offset++) {
+            uidList.add(firstSeqUid + offset);
+        }
+        return uidList;
+    }
+
+}
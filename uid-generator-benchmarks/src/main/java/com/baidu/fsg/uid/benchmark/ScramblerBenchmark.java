@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.baidu.fsg.uid.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.scramble.FeistelUidScrambler;
+
+/**
+ * Benchmark of {@link FeistelUidScrambler} in the default rounds, the cost added to each UID of a scrambling generator
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScramblerBenchmark {
+    private static final int BATCH = 1024;
+    private static final long KEY = 20160520L;
+
+    private final FeistelUidScrambler scrambler = new FeistelUidScrambler(KEY);
+    private final long[] uids = new long[BATCH];
+    private final long[] scrambled = new long[BATCH];
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        DefaultUidGenerator uidGenerator = UidGenerators.create(UidGenerators.DEFAULT);
+        for (int i = 0; i < BATCH; i++) {
+            uids[i] = uidGenerator.getUID();
+            scrambled[i] = scrambler.scramble(uids[i]);
+        }
+    }
+
+    @Benchmark
+    public long scramble() {
+        return scrambler.scramble(uids[index++ & (BATCH - 1)]);
+    }
+
+    @Benchmark
+    public long unscramble() {
+        return scrambler.unscramble(scrambled[index++ & (BATCH - 1)]);
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.baidu.fsg.uid.impl.DefaultUidGenerator;
+
+/**
+ * Benchmark of the wait of {@link DefaultUidGenerator} when the sequence is exhausted, parking vs spinning<p>
+ *
+ * The layout is 41/12/10 bits in millisecond, 1024 UIDs per millisecond, so the callers wait for the next millisecond
+ * most of the time. The <code>waitSpinMicros</code> of {@value #PARK} parks until the next time unit, while
+ * {@value #SPIN} spins the whole time unit as the busy wait before the parking.<br>
+ * Besides the throughput, the <code>cpuNanos</code> counter reports the CPU time of the callers per microsecond, such
+ * as 1000 for each caller always on CPU. The CPU time per UID is <code>cpuNanos</code> divided by the throughput
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class SequenceWaitBenchmark {
+    private static final int BATCH_SIZE = 256;
+
+    /** Spin micros before the next time unit */
+    public static final String PARK = "0";
+    public static final String SPIN = "1000";
+
+    @Param({ PARK, SPIN })
+    public long waitSpinMicros;
+
+    private DefaultUidGenerator uidGenerator;
+
+    /**
+     * CPU time of the caller thread
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class CpuTime {
+        private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        public long cpuNanos;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        uidGenerator = new DefaultUidGenerator();
+        uidGenerator.setWorkerIdAssigner(new InMemoryWorkerIdAssigner());
+        uidGenerator.setTimeBits(41);
+        uidGenerator.setWorkerBits(12);
+        uidGenerator.setSeqBits(10);
+        uidGenerator.setTimeUnitMillis(1L);
+        uidGenerator.setWaitSpinMicros(waitSpinMicros);
+        uidGenerator.setEpochStr(UidGenerators.EPOCH);
+        uidGenerator.afterPropertiesSet();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long getUID(CpuTime cpuTime) {
+        long startCpuNanos = cpuTime.threadMXBean.getCurrentThreadCpuTime();
+        long uid = 0L;
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            uid ^= uidGenerator.getUID();
+        }
+
+        cpuTime.cpuNanos += cpuTime.threadMXBean.getCurrentThreadCpuTime() - startCpuNanos;
+        return uid;
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.baidu.fsg.uid.codec.Base32UidEncoding;
+import com.baidu.fsg.uid.codec.Base62UidEncoding;
+import com.baidu.fsg.uid.codec.UidTextEncoding;
+import com.baidu.fsg.uid.impl.DefaultUidGenerator;
+
+/**
+ * Benchmark of the round trip of {@link UidTextEncoding} through a reused <code>char[]</code> & <code>byte[]</code>,
+ * against the decimal <code>Long.toString</code> & <code>Long.parseLong</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextEncodingBenchmark {
+    private static final int BATCH = 1024;
+
+    private final long[] uids = new long[BATCH];
+    private int index;
+
+    /**
+     * Encoding & the reused text of a UID
+     */
+    @State(Scope.Thread)
+    public static class EncodingState {
+        @Param({ "base32", "base62" })
+        public String encoding;
+
+        UidTextEncoding textEncoding;
+        final char[] chars = new char[Base32UidEncoding.WIDTH];
+        final byte[] bytes = new byte[Base32UidEncoding.WIDTH];
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            textEncoding = "base32".equals(encoding) ? Base32UidEncoding.INSTANCE : Base62UidEncoding.INSTANCE;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        DefaultUidGenerator uidGenerator = UidGenerators.create(UidGenerators.DEFAULT);
+        for (int i = 0; i < BATCH; i++) {
+            uids[i] = uidGenerator.getUID();
+        }
+    }
+
+    @Benchmark
+    public long longToString() {
+        return Long.parseLong(Long.toString(nextUid()));
+    }
+
+    @Benchmark
+    public long roundTripChars(EncodingState state) {
+        state.textEncoding.encode(nextUid(), state.chars, 0);
+        return state.textEncoding.decode(state.chars, 0);
+    }
+
+    @Benchmark
+    public long roundTripBytes(EncodingState state) {
+        state.textEncoding.encode(nextUid(), state.bytes, 0);
+        return state.textEncoding.decode(state.bytes, 0);
+    }
+
+    private long nextUid() {
+        return uids[index++ & (BATCH - 1)];
+    }
+
+}
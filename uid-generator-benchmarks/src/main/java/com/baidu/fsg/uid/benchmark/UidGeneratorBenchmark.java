@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.baidu.fsg.uid.exception.UidGenerateException;
+import com.baidu.fsg.uid.impl.DefaultUidGenerator;
+
+/**
+ * Benchmark of {@link DefaultUidGenerator#getUID()} and its subclasses, by one thread and by all the processors. The
+ * batches of {@link DefaultUidGenerator#getUIDs(long[], int, int)} are reported per UID as well<p>
+ * 
+ * The {@link DefaultUidGenerator} is bounded by 8192 UIDs per second of the layout, so its numbers show the cost of
+ * waiting for the next second as well. The consumers of {@link com.baidu.fsg.uid.impl.CachedUidGenerator} may catch
+ * the padding, the rejected takes are reported as the <code>rejections</code> counter instead of failing the run.
+ * Other thread counts can be run by <code>-t</code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UidGeneratorBenchmark {
+    private static final int BATCH_SIZE = 64;
+
+    @Param({ UidGenerators.DEFAULT, UidGenerators.CACHED, UidGenerators.MULTI_WORKER })
+    public String type;
+
+    private DefaultUidGenerator uidGenerator;
+
+    /**
+     * Counter of the rejected takes per thread
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Rejections {
+        public long rejections;
+    }
+
+    /**
+     * Batch of UIDs per thread
+     */
+    @State(Scope.Thread)
+    public static class Batch {
+        public final long[] uids = new long[BATCH_SIZE];
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        uidGenerator = UidGenerators.create(type);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        UidGenerators.destroy(uidGenerator);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long getUID(Rejections counter) {
+        return nextUid(counter);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public long getUIDByAllThreads(Rejections counter) {
+        return nextUid(counter);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long[] getUIDsByAllThreads(Batch batch, Rejections counter) {
+        try {
+            uidGenerator.getUIDs(batch.uids, 0, BATCH_SIZE);
+        } catch (UidGenerateException e) {
+            counter.rejections++;
+        }
+        return batch.uids;
+    }
+
+    private long nextUid(Rejections counter) {
+        try {
+            return uidGenerator.getUID();
+        } catch (UidGenerateException e) {
+            counter.rejections++;
+            return -1L;
+        }
+    }
+
+}
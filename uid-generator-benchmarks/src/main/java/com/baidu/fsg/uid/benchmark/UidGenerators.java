@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.benchmark;
+
+import com.baidu.fsg.uid.impl.CachedUidGenerator;
+import com.baidu.fsg.uid.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.impl.MultiWorkerUidGenerator;
+
+/**
+ * Factory of the generators under benchmark, the default layout is 29/21/13 bits since 2016-09-20 as the test config
+ */
+public abstract class UidGenerators {
+
+    /** Generator types */
+    public static final String DEFAULT = "default";
+    public static final String CACHED = "cached";
+    public static final String MULTI_WORKER = "multiWorker";
+
+    /** Default layout & boost power */
+    public static final int TIME_BITS = 29;
+    public static final int WORKER_BITS = 21;
+    public static final int SEQ_BITS = 13;
+    public static final int BOOST_POWER = 3;
+    public static final String EPOCH = "2016-09-20";
+
+    /**
+     * Create & initialize a generator of the type in the default layout
+     * 
+     * @param type {@link #DEFAULT}, {@link #CACHED} or {@link #MULTI_WORKER}
+     * @return generator
+     * @throws Exception
+     */
+    public static DefaultUidGenerator create(String type) throws Exception {
+        return create(type, TIME_BITS, WORKER_BITS, SEQ_BITS, BOOST_POWER);
+    }
+
+    /**
+     * Create & initialize a generator of the type in the layout
+     * 
+     * @param type {@link #DEFAULT}, {@link #CACHED} or {@link #MULTI_WORKER}
+     * @param timeBits
+     * @param workerBits
+     * @param seqBits
+     * @param boostPower boost power of the RingBuffer, only for {@link #CACHED}
+     * @return generator
+     * @throws Exception
+     */
+    public static DefaultUidGenerator create(String type, int timeBits, int workerBits, int seqBits, int boostPower)
+            throws Exception {
+        return create(type, timeBits, workerBits, seqBits, boostPower, false);
+    }
+
+    /**
+     * Create & initialize a generator of the type in the layout, padding on virtual threads or not
+     * 
+     * @param type {@link #DEFAULT}, {@link #CACHED} or {@link #MULTI_WORKER}
+     * @param timeBits
+     * @param workerBits
+     * @param seqBits
+     * @param boostPower boost power of the RingBuffer, only for {@link #CACHED}
+     * @param virtualThreads whether padding on virtual threads, only for {@link #CACHED}
+     * @return generator
+     * @throws Exception
+     */
+    public static DefaultUidGenerator create(String type, int timeBits, int workerBits, int seqBits, int boostPower,
+                                             boolean virtualThreads) throws Exception {
+        DefaultUidGenerator uidGenerator;
+        if (DEFAULT.equals(type)) {
+            uidGenerator = new DefaultUidGenerator();
+        } else if (CACHED.equals(type)) {
+            CachedUidGenerator cachedUidGenerator = new CachedUidGenerator();
+            cachedUidGenerator.setBoostPower(boostPower);
+            cachedUidGenerator.setVirtualThreadsEnabled(virtualThreads);
+            uidGenerator = cachedUidGenerator;
+        } else if (MULTI_WORKER.equals(type)) {
+            MultiWorkerUidGenerator multiWorkerUidGenerator = new MultiWorkerUidGenerator();
+            multiWorkerUidGenerator.setWorkerCount(Runtime.getRuntime().availableProcessors());
+            uidGenerator = multiWorkerUidGenerator;
+        } else {
+            throw new IllegalArgumentException("Unknown generator type: " + type);
+        }
+
+        uidGenerator.setWorkerIdAssigner(new InMemoryWorkerIdAssigner());
+        uidGenerator.setTimeBits(timeBits);
+        uidGenerator.setWorkerBits(workerBits);
+        uidGenerator.setSeqBits(seqBits);
+        uidGenerator.setEpochStr(EPOCH);
+        uidGenerator.afterPropertiesSet();
+        return uidGenerator;
+    }
+
+    /**
+     * Destroy the generator if it is a {@link CachedUidGenerator}
+     * 
+     * @param uidGenerator
+     * @throws Exception
+     */
+    public static void destroy(DefaultUidGenerator uidGenerator) throws Exception {
+        if (uidGenerator instanceof CachedUidGenerator) {
+            ((CachedUidGenerator) uidGenerator).destroy();
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.baidu.fsg.uid.BitsAllocator;
+import com.baidu.fsg.uid.codec.UidSequenceCodec;
+
+/**
+ * Benchmark of {@link UidSequenceCodec}, the throughput in UIDs per second and the compression in bytes per UID<p>
+ *
+ * The UIDs are in the default layout, consecutive sequences of the workers interleaved one by one, crossing a time
+ * unit on each exhausted sequence. One worker is the sorted output of a generator, several workers are the merged
+ * outputs of a cluster, which disables the constant worker mode. The <code>bytesPerUid</code> counter of
+ * <code>encode</code> is the compression, 8 bytes per UID uncompressed
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UidSequenceCodecBenchmark {
+    private static final int SIZE = 65536;
+
+    /** Layout of the UIDs */
+    private static final BitsAllocator BITS_ALLOCATOR = new BitsAllocator(UidGenerators.TIME_BITS,
+            UidGenerators.WORKER_BITS, UidGenerators.SEQ_BITS);
+
+    @Param({ "1", "8" })
+    public int workers;
+
+    private UidSequenceCodec codec;
+    private final long[] uids = new long[SIZE];
+    private final long[] decoded = new long[SIZE];
+    private ByteBuffer buffer;
+    private ByteBuffer encoded;
+
+    /**
+     * Compression of the encoding
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Compression {
+        public double bytesPerUid;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        codec = new UidSequenceCodec(BITS_ALLOCATOR);
+        long sequences = BITS_ALLOCATOR.getMaxSequence() + 1;
+        for (int i = 0; i < SIZE; i++) {
+            long workerSequence = i / workers;
+            uids[i] = BITS_ALLOCATOR.allocate(workerSequence / sequences, i % workers + 1,
+                    workerSequence % sequences);
+        }
+
+        buffer = ByteBuffer.allocate(codec.maxEncodedLength(SIZE));
+        encoded = ByteBuffer.allocate(codec.maxEncodedLength(SIZE));
+        codec.encode(uids, 0, SIZE, encoded);
+        encoded.flip();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int encode(Compression compression) {
+        buffer.clear();
+        codec.encode(uids, 0, SIZE, buffer);
+        compression.bytesPerUid = (double) buffer.position() / SIZE;
+        return buffer.position();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long[] decode() {
+        encoded.rewind();
+        codec.decode(encoded, decoded, 0);
+        return decoded;
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.baidu.fsg.uid.exception.UidGenerateException;
+import com.baidu.fsg.uid.impl.DefaultUidGenerator;
+import com.baidu.fsg.uid.impl.TimeOrderedUuidGenerator;
+
+/**
+ * Benchmark of {@link TimeOrderedUuidGenerator}, as a {@link UUID} and as a pair of longs, against
+ * <code>UUID.randomUUID</code><p>
+ *
+ * The UUIDs of the {@link UidGenerators#DEFAULT} generator are bounded by the sequences per second of the layout as
+ * {@link UidGeneratorBenchmark}, the {@link UidGenerators#CACHED} one serves them from the RingBuffer. The consumers of
+ * the RingBuffer may catch the padding, the rejected takes are reported as the <code>rejections</code> counter instead
+ * of failing the run
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UuidBenchmark {
+
+    /**
+     * UUID generator on the UID generator of the type
+     */
+    @State(Scope.Benchmark)
+    public static class GeneratorState {
+        @Param({ UidGenerators.CACHED, UidGenerators.DEFAULT })
+        public String type;
+
+        DefaultUidGenerator uidGenerator;
+        TimeOrderedUuidGenerator uuidGenerator;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            uidGenerator = UidGenerators.create(type);
+            uuidGenerator = new TimeOrderedUuidGenerator();
+            uuidGenerator.setUidGenerator(uidGenerator);
+            uuidGenerator.afterPropertiesSet();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            UidGenerators.destroy(uidGenerator);
+        }
+    }
+
+    /**
+     * Counter of the rejected takes per thread
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Rejections {
+        public long rejections;
+    }
+
+    /**
+     * Pair of longs per thread
+     */
+    @State(Scope.Thread)
+    public static class Pair {
+        public final long[] longs = new long[2];
+    }
+
+    @Benchmark
+    public UUID randomUUID() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    public UUID getUUID(GeneratorState state, Rejections counter) {
+        try {
+            return state.uuidGenerator.getUUID();
+        } catch (UidGenerateException e) {
+            counter.rejections++;
+            return null;
+        }
+    }
+
+    @Benchmark
+    public long[] getUUIDPair(GeneratorState state, Pair pair, Rejections counter) {
+        try {
+            state.uuidGenerator.getUUID(pair.longs, 0);
+        } catch (UidGenerateException e) {
+            counter.rejections++;
+        }
+        return pair.longs;
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.baidu.fsg.uid.exception.UidGenerateException;
+import com.baidu.fsg.uid.impl.DefaultUidGenerator;
+
+/**
+ * Benchmark of {@link DefaultUidGenerator#getUID()} by {@value #TASKS} concurrent request tasks, such as the request
+ * handlers of a server<p>
+ *
+ * The thread modes:<br>
+ * <li><b>{@value #VIRTUAL}:</b> A virtual thread per task, the cached generator pads on the platform threads
+ * <li><b>{@value #VIRTUAL_PADDING}:</b> A virtual thread per task, the cached generator pads on the virtual threads
+ *                                      as well, so the padding is scheduled among the tasks
+ * <li><b>{@value #PLATFORM}:</b> A pool of {@value #PLATFORM_THREADS} platform threads, as a thread per request
+ *                                server<p>
+ * 
+ * A score is the time per UID, including the task start. The virtual modes require JDK 21+, and the padding on
+ * virtual threads requires the multi-release jar of uid-generator built by JDK 21+. The fork traces the virtual
+ * threads pinned while parking
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.tracePinnedThreads=short")
+public class VirtualThreadBenchmark {
+    private static final int TASKS = 10000;
+    private static final int PLATFORM_THREADS = 200;
+
+    /** Thread modes */
+    public static final String VIRTUAL = "virtual";
+    public static final String VIRTUAL_PADDING = "virtualPadding";
+    public static final String PLATFORM = "platform";
+
+    @Param({ UidGenerators.DEFAULT, UidGenerators.CACHED, UidGenerators.MULTI_WORKER })
+    public String type;
+
+    @Param({ VIRTUAL, VIRTUAL_PADDING, PLATFORM })
+    public String threads;
+
+    private DefaultUidGenerator uidGenerator;
+    private ExecutorService executor;
+    private final LongAdder rejectionAdder = new LongAdder();
+
+    /**
+     * Counter of the rejected takes per invocation
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Rejections {
+        public long rejections;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        uidGenerator = UidGenerators.create(type, UidGenerators.TIME_BITS, UidGenerators.WORKER_BITS,
+                UidGenerators.SEQ_BITS, UidGenerators.BOOST_POWER, VIRTUAL_PADDING.equals(threads));
+        executor = PLATFORM.equals(threads) ? Executors.newFixedThreadPool(PLATFORM_THREADS)
+                : newVirtualThreadPerTaskExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        UidGenerators.destroy(uidGenerator);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS)
+    public void getUIDByTasks(Rejections counter) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            executor.execute(() -> {
+                try {
+                    uidGenerator.getUID();
+                } catch (UidGenerateException e) {
+                    rejectionAdder.increment();
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        latch.await();
+        counter.rejections += rejectionAdder.sumThenReset();
+    }
+
+    /**
+     * Create the executor of a virtual thread per task by reflection, this module is compiled for Java 8
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() throws Exception {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Virtual threads require JDK 21+", e);
+        }
+    }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.benchmark.footprint;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.TreeSet;
+
+import org.springframework.util.Assert;
+
+import com.baidu.fsg.uid.benchmark.UidGenerators;
+
+/**
+ * Startup time & heap footprint harness of {@link com.baidu.fsg.uid.impl.DefaultUidGenerator} and
+ * {@link com.baidu.fsg.uid.impl.CachedUidGenerator} across the layouts & boostPower settings<p>
+ * 
+ * Each config is probed by {@link StartupProbe} in fresh JVMs, the medians of the forks are reported. The results are
+ * written as a properties file by <code>--output</code>, and compared with a previous one by <code>--baseline</code>,
+ * the process exits with 1 if any value exceeds the baseline by more than the tolerance. The options are:<br>
+ * <li><b>layouts:</b> Layouts as timeBits/workerBits/seqBits, separated by commas. Default as 29/21/13,31/23/9,30/20/13
+ * <li><b>boostPowers:</b> Boost powers of the cached generator, separated by commas. Default as 1,3,5
+ * <li><b>forks:</b> Fresh JVMs per config. Default as 3
+ * <li><b>jvmArgs:</b> Arguments of the forked JVMs, separated by spaces. Default as -Xmx512m -XX:+UseSerialGC
+ *                     -XX:SoftRefLRUPolicyMSPerMB=0
+ * <li><b>timeTolerance, sizeTolerance:</b> Allowed growth ratio over the baseline. Default as 0.25 and 0.05
+ * <li><b>sizeSlack:</b> Allowed growth of the retained bytes besides the ratio, for the small footprints. Default as
+ *                       16384
+ * <pre>java -cp target/benchmarks.jar com.baidu.fsg.uid.benchmark.footprint.FootprintHarness
+ *     --baseline=footprint-baseline.properties --output=footprint.properties</pre>
+ */
+public class FootprintHarness {
+
+    /** Suffixes of the result keys */
+    private static final String STARTUP_MICROS = ".startupMicros";
+    private static final String UPTIME_MILLIS = ".uptimeMillis";
+    private static final String RETAINED_BYTES = ".retainedBytes";
+
+    private final Properties options = new Properties();
+
+    public static void main(String[] args) throws Exception {
+        FootprintHarness harness = new FootprintHarness();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            Assert.isTrue(arg.startsWith("--") && separator > 2, "Invalid argument, expected --key=value: " + arg);
+            harness.options.setProperty(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        Properties results = harness.run();
+        String output = harness.options.getProperty("output");
+        if (output != null) {
+            try (OutputStream out = new FileOutputStream(output)) {
+                results.store(out, "UID generator startup & footprint");
+            }
+        }
+
+        String baseline = harness.options.getProperty("baseline");
+        if (baseline != null && !harness.compare(results, load(baseline))) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Probe all the configs
+     * 
+     * @return results keyed by the config & the measurement
+     * @throws Exception
+     */
+    public Properties run() throws Exception {
+        int forks = Integer.parseInt(options.getProperty("forks", "3"));
+        Assert.isTrue(forks > 0, "Forks must be positive!");
+
+        List<String[]> configs = new ArrayList<>();
+        for (String layout : options.getProperty("layouts", "29/21/13,31/23/9,30/20/13").split(",")) {
+            String[] bits = layout.trim().split("/");
+            Assert.isTrue(bits.length == 3, "Invalid layout, expected timeBits/workerBits/seqBits: " + layout);
+
+            configs.add(new String[] { UidGenerators.DEFAULT, bits[0], bits[1], bits[2], "0" });
+            for (String boostPower : options.getProperty("boostPowers", "1,3,5").split(",")) {
+                configs.add(new String[] { UidGenerators.CACHED, bits[0], bits[1], bits[2], boostPower.trim() });
+            }
+        }
+
+        Properties results = new Properties();
+        System.out.printf(Locale.ROOT, "%-34s %14s %14s %14s%n", "config", "startup(us)", "uptime(ms)", "retained(B)");
+        for (String[] config : configs) {
+            long[][] samples = new long[3][forks];
+            for (int i = 0; i < forks; i++) {
+                long[] result = probe(config);
+                for (int j = 0; j < result.length; j++) {
+                    samples[j][i] = result[j];
+                }
+            }
+
+            String key = keyOf(config);
+            long startupMicros = median(samples[0]);
+            long uptimeMillis = median(samples[1]);
+            long retainedBytes = median(samples[2]);
+            results.setProperty(key + STARTUP_MICROS, String.valueOf(startupMicros));
+            results.setProperty(key + UPTIME_MILLIS, String.valueOf(uptimeMillis));
+            results.setProperty(key + RETAINED_BYTES, String.valueOf(retainedBytes));
+            System.out.printf(Locale.ROOT, "%-34s %,14d %,14d %,14d%n", key, startupMicros, uptimeMillis,
+                    retainedBytes);
+        }
+
+        return results;
+    }
+
+    /**
+     * Compare the results with the baseline, the configs absent in either are skipped
+     * 
+     * @return true if no regression
+     */
+    public boolean compare(Properties results, Properties baseline) {
+        double timeTolerance = Double.parseDouble(options.getProperty("timeTolerance", "0.25"));
+        double sizeTolerance = Double.parseDouble(options.getProperty("sizeTolerance", "0.05"));
+        long sizeSlack = Long.parseLong(options.getProperty("sizeSlack", "16384"));
+
+        boolean passed = true;
+        for (String key : new TreeSet<>(baseline.stringPropertyNames())) {
+            String current = results.getProperty(key);
+            if (current == null) {
+                continue;
+            }
+
+            boolean isSize = key.endsWith(RETAINED_BYTES);
+            double tolerance = isSize ? sizeTolerance : timeTolerance;
+            long expected = Long.parseLong(baseline.getProperty(key));
+            long actual = Long.parseLong(current);
+            long allowed = expected + (long) (Math.abs(expected) * tolerance) + (isSize ? sizeSlack : 0L);
+            if (actual > allowed) {
+                System.out.printf(Locale.ROOT, "[REGRESSION] %s: %,d, baseline %,d, tolerance %.0f%%%n", key, actual,
+                        expected, tolerance * 100);
+                passed = false;
+            }
+        }
+
+        System.out.println(passed ? "No regression over the baseline" : "Regressions over the baseline found");
+        return passed;
+    }
+
+    /**
+     * Fork a fresh JVM of {@link StartupProbe} for the config
+     */
+    private long[] probe(String[] config) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        String jvmArgs = options.getProperty("jvmArgs", "-Xmx512m -XX:+UseSerialGC -XX:SoftRefLRUPolicyMSPerMB=0");
+        command.addAll(Arrays.asList(jvmArgs.trim().split("\\s+")));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(StartupProbe.class.getName());
+        command.addAll(Arrays.asList(config));
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String resultLine = null;
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(StartupProbe.RESULT_PREFIX)) {
+                    resultLine = line.substring(StartupProbe.RESULT_PREFIX.length());
+                } else {
+                    output.append(line).append('\n');
+                }
+            }
+        }
+
+        int exitCode = process.waitFor();
+        if (exitCode != 0 || resultLine == null) {
+            throw new IllegalStateException("Probe failed for " + keyOf(config) + ", exit code " + exitCode + "\n"
+                    + output);
+        }
+
+        String[] values = resultLine.split(" ");
+        return new long[] { Long.parseLong(values[0]), Long.parseLong(values[1]), Long.parseLong(values[2]) };
+    }
+
+    private static String keyOf(String[] config) {
+        String key = config[0] + "." + config[1] + "-" + config[2] + "-" + config[3];
+        return UidGenerators.CACHED.equals(config[0]) ? key + ".boost" + config[4] : key;
+    }
+
+    private static long median(long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static Properties load(String file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        }
+        return properties;
+    }
+
+}
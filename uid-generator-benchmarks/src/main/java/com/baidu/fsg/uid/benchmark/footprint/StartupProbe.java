@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.benchmark.footprint;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+
+import com.baidu.fsg.uid.benchmark.UidGenerators;
+import com.baidu.fsg.uid.impl.DefaultUidGenerator;
+
+/**
+ * Probe of one generator config in a fresh JVM, forked by {@link FootprintHarness}<p>
+ * 
+ * Measures in the cold JVM:<br>
+ * <li><b>startupMicros:</b> From creating the generator to the first UID, including the class loading, the worker id
+ *                           assignment and the synchronous padding of the RingBuffer
+ * <li><b>uptimeMillis:</b> JVM uptime at the first UID
+ * <li><b>retainedBytes:</b> Used heap delta right after full GCs with a second generator reachable, created after
+ *                           the first one is destroyed, so that the classes & caches loaded on startup are not counted
+ * 
+ * The result is printed as one line: <code>RESULT startupMicros uptimeMillis retainedBytes</code>
+ */
+public class StartupProbe {
+
+    /** Prefix of the result line */
+    public static final String RESULT_PREFIX = "RESULT ";
+
+    private static final int GC_ROUNDS = 8;
+
+    /**
+     * @param args type, timeBits, workerBits, seqBits, boostPower
+     */
+    public static void main(String[] args) throws Exception {
+        String type = args[0];
+        int timeBits = Integer.parseInt(args[1]);
+        int workerBits = Integer.parseInt(args[2]);
+        int seqBits = Integer.parseInt(args[3]);
+        int boostPower = Integer.parseInt(args[4]);
+
+        // cold startup, including the class loading
+        long begin = System.nanoTime();
+        DefaultUidGenerator uidGenerator = UidGenerators.create(type, timeBits, workerBits, seqBits, boostPower);
+        uidGenerator.getUID();
+        long startupMicros = (System.nanoTime() - begin) / 1000L;
+        long uptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        UidGenerators.destroy(uidGenerator);
+        uidGenerator = null;
+
+        // footprint of the instances only
+        long baselineBytes = usedHeapAfterGc();
+        uidGenerator = UidGenerators.create(type, timeBits, workerBits, seqBits, boostPower);
+        long uid = uidGenerator.getUID();
+        long retainedBytes = usedHeapAfterGc() - baselineBytes;
+        System.out.println(RESULT_PREFIX + startupMicros + " " + uptimeMillis + " " + retainedBytes);
+
+        // keep the generator reachable until measured
+        if (uid == 0L) {
+            System.out.println(uidGenerator.parseUID(uid));
+        }
+        UidGenerators.destroy(uidGenerator);
+        System.exit(0);
+    }
+
+    /**
+     * Min used heap right after rounds of full GC & finalization, the finalizable objects take several rounds to be
+     * collected. The collection usages of the pools are read instead of the current usage, which contains the TLABs
+     * handed out after the GC
+     */
+    private static long usedHeapAfterGc() {
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            System.gc();
+            System.runFinalization();
+            long current = 0L;
+            for (MemoryPoolMXBean poolBean : ManagementFactory.getMemoryPoolMXBeans()) {
+                MemoryUsage collectionUsage = poolBean.getCollectionUsage();
+                if (poolBean.getType() == MemoryType.HEAP && collectionUsage != null) {
+                    current += collectionUsage.getUsed();
+                }
+            }
+            used = Math.min(used, current);
+        }
+        return used;
+    }
+
+}
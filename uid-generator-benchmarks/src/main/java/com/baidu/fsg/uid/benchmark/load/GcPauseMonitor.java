@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.benchmark.load;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * Monitor of the GC during a load run, by the {@link GarbageCollectorMXBean}s<p>
+ * 
+ * The count & accumulated time are the deltas of the MXBeans between {@link #start()} and {@link #stop()}. The max
+ * single pause comes from the GC notifications of HotSpot, it stays 0 on the JVMs without them
+ */
+public class GcPauseMonitor implements NotificationListener {
+
+    private final List<GarbageCollectorMXBean> gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+
+    private long startCount;
+    private long startMillis;
+    private long collections;
+    private long totalMillis;
+    private final AtomicLong maxPauseMillis = new AtomicLong();
+
+    private volatile boolean recording;
+
+    /**
+     * Start recording, the notification listeners are registered once
+     */
+    public void start() {
+        for (GarbageCollectorMXBean gcBean : gcBeans) {
+            if (gcBean instanceof NotificationEmitter) {
+                ((NotificationEmitter) gcBean).addNotificationListener(this, null, null);
+            }
+        }
+
+        startCount = sumCount();
+        startMillis = sumMillis();
+        recording = true;
+    }
+
+    /**
+     * Stop recording and remove the listeners
+     */
+    public void stop() {
+        recording = false;
+        collections = sumCount() - startCount;
+        totalMillis = sumMillis() - startMillis;
+
+        for (GarbageCollectorMXBean gcBean : gcBeans) {
+            if (gcBean instanceof NotificationEmitter) {
+                try {
+                    ((NotificationEmitter) gcBean).removeNotificationListener(this);
+                } catch (Exception e) {
+                    // never registered, ignore
+                }
+            }
+        }
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if (!recording
+                || !GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo
+                .from((CompositeData) notification.getUserData());
+        long duration = info.getGcInfo().getDuration();
+        maxPauseMillis.accumulateAndGet(duration, Math::max);
+    }
+
+    private long sumCount() {
+        long count = 0L;
+        for (GarbageCollectorMXBean gcBean : gcBeans) {
+            count += Math.max(gcBean.getCollectionCount(), 0L);
+        }
+        return count;
+    }
+
+    private long sumMillis() {
+        long millis = 0L;
+        for (GarbageCollectorMXBean gcBean : gcBeans) {
+            millis += Math.max(gcBean.getCollectionTime(), 0L);
+        }
+        return millis;
+    }
+
+    /**
+     * Getters
+     */
+    public long getCollections() {
+        return collections;
+    }
+
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    public long getMaxPauseMillis() {
+        return maxPauseMillis.get();
+    }
+
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.benchmark.load;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+
+import com.baidu.fsg.uid.benchmark.UidGenerators;
+import com.baidu.fsg.uid.exception.UidGenerateException;
+import com.baidu.fsg.uid.impl.DefaultUidGenerator;
+
+/**
+ * Standalone load generator of {@link DefaultUidGenerator#getUID()}, reports the latency distribution by
+ * HdrHistogram<p>
+ * 
+ * Two load modes are supported, see {@link LoadOptions}:<br>
+ * <li><b>closed:</b> Each worker calls getUID back to back, the latency is the service time of each call
+ * <li><b>open:</b> The workers offer a constant rate together, the latency is measured from the intended start of each
+ *                  call, so the queueing behind a slow call is counted instead of omitted
+ * 
+ * The report contains the throughput, p50/p99/p99.9/max latency, rejected takes of the empty RingBuffer and the GC
+ * pauses, it is written as JSON if <code>--output</code> is specified:
+ * <pre>java -cp target/benchmarks.jar com.baidu.fsg.uid.benchmark.load.LoadGenerator --type=cached --mode=open
+ *     --rate=2000000 --threads=8 --duration=60 --output=cached-open.json</pre>
+ */
+public class LoadGenerator {
+
+    /** Delay of the common start, so that all the workers are started before it */
+    private static final long START_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /** Park instead of spinning when the next intended start is further than it */
+    private static final long PARK_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        LoadReport report = new LoadGenerator().run(options);
+
+        System.out.println(report);
+        if (options.getOutput() != null) {
+            write(report, new File(options.getOutput()));
+        }
+    }
+
+    /**
+     * Run the load with the options
+     * 
+     * @param options
+     * @return report of the measured duration
+     * @throws Exception
+     */
+    public LoadReport run(LoadOptions options) throws Exception {
+        DefaultUidGenerator uidGenerator = UidGenerators.create(options.getType(), options.getTimeBits(),
+                options.getWorkerBits(), options.getSeqBits(), options.getBoostPower());
+        try {
+            return run(uidGenerator, options);
+        } finally {
+            UidGenerators.destroy(uidGenerator);
+        }
+    }
+
+    private LoadReport run(DefaultUidGenerator uidGenerator, LoadOptions options) throws InterruptedException {
+        int threads = options.getThreads();
+        long startNanos = System.nanoTime() + START_DELAY_NANOS;
+        long measureNanos = startNanos + TimeUnit.SECONDS.toNanos(options.getWarmupSeconds());
+        long endNanos = measureNanos + TimeUnit.SECONDS.toNanos(options.getDurationSeconds());
+
+        // each open loop worker offers rate / threads, the workers are phased evenly in one interval
+        long intervalNanos = 0L;
+        if (options.isOpenLoop()) {
+            intervalNanos = Math.max(1L, threads * TimeUnit.SECONDS.toNanos(1) / options.getRate());
+        }
+
+        LoadWorker[] workers = new LoadWorker[threads];
+        Thread[] workerThreads = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            long phaseNanos = intervalNanos * i / threads;
+            workers[i] = new LoadWorker(uidGenerator, startNanos + phaseNanos, measureNanos, endNanos, intervalNanos);
+            workerThreads[i] = new Thread(workers[i], "uid-load-" + i);
+            workerThreads[i].start();
+        }
+
+        // GC is monitored in the measured duration only
+        GcPauseMonitor gcMonitor = new GcPauseMonitor();
+        sleepUntil(measureNanos);
+        gcMonitor.start();
+        for (Thread workerThread : workerThreads) {
+            workerThread.join();
+        }
+        gcMonitor.stop();
+
+        Histogram histogram = new Histogram(3);
+        long rejections = 0L;
+        for (LoadWorker worker : workers) {
+            histogram.add(worker.histogram);
+            rejections += worker.rejections;
+        }
+
+        return new LoadReport(options, histogram, rejections, gcMonitor);
+    }
+
+    /**
+     * Write the JSON report into the file
+     */
+    private static void write(LoadReport report, File file) throws IOException {
+        Files.write(file.toPath(), report.toJson().getBytes(StandardCharsets.UTF_8));
+        System.out.println("Report written to " + file.getAbsolutePath());
+    }
+
+    private static void sleepUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * Worker of one thread, records into its own histogram without contention
+     */
+    private static class LoadWorker implements Runnable {
+        private final DefaultUidGenerator uidGenerator;
+        private final long startNanos;
+        private final long measureNanos;
+        private final long endNanos;
+        private final long intervalNanos;
+
+        private final Histogram histogram = new Histogram(3);
+        private long rejections;
+
+        LoadWorker(DefaultUidGenerator uidGenerator, long startNanos, long measureNanos, long endNanos,
+                long intervalNanos) {
+            this.uidGenerator = uidGenerator;
+            this.startNanos = startNanos;
+            this.measureNanos = measureNanos;
+            this.endNanos = endNanos;
+            this.intervalNanos = intervalNanos;
+        }
+
+        @Override
+        public void run() {
+            sleepUntil(startNanos);
+            if (intervalNanos > 0) {
+                runOpenLoop();
+            } else {
+                runClosedLoop();
+            }
+        }
+
+        private void runClosedLoop() {
+            long begin;
+            while ((begin = System.nanoTime()) < endNanos) {
+                boolean taken = getUID();
+                long latency = System.nanoTime() - begin;
+                record(begin, latency, taken);
+            }
+        }
+
+        private void runOpenLoop() {
+            for (long intended = startNanos; intended < endNanos; intended += intervalNanos) {
+                awaitIntended(intended);
+                boolean taken = getUID();
+                long latency = System.nanoTime() - intended;
+                record(intended, latency, taken);
+            }
+        }
+
+        private boolean getUID() {
+            try {
+                uidGenerator.getUID();
+                return true;
+            } catch (UidGenerateException e) {
+                return false;
+            }
+        }
+
+        private void record(long begin, long latency, boolean taken) {
+            if (begin < measureNanos) {
+                return;
+            }
+
+            if (taken) {
+                histogram.recordValue(latency);
+            } else {
+                rejections++;
+            }
+        }
+
+        /**
+         * Park while the intended start is far, then spin. No wait if behind the schedule
+         */
+        private void awaitIntended(long intended) {
+            long remaining;
+            while ((remaining = intended - System.nanoTime()) > 0) {
+                if (remaining > PARK_THRESHOLD_NANOS) {
+                    LockSupport.parkNanos(remaining - PARK_THRESHOLD_NANOS / 2);
+                } else {
+                    Thread.yield();
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.benchmark.load;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import org.springframework.util.Assert;
+
+import com.baidu.fsg.uid.benchmark.UidGenerators;
+
+/**
+ * Options of {@link LoadGenerator}, loaded from a properties file by <code>--config=file</code> and overridden by the
+ * <code>--key=value</code> arguments<p>
+ * 
+ * The options you can specified as below:<br>
+ * <li><b>type:</b> Generator type, default/cached/multiWorker. Default as cached
+ * <li><b>timeBits, workerBits, seqBits:</b> Layout of the generator. Default as 29/21/13
+ * <li><b>boostPower:</b> RingBuffer size boost of the cached generator. Default as 3
+ * <li><b>mode:</b> open for a constant offered rate, closed for workers calling back to back. Default as closed
+ * <li><b>threads:</b> Count of the worker threads. Default as the available processors
+ * <li><b>rate:</b> Offered UIDs per second of all the threads, only for the open mode. Default as 1000000
+ * <li><b>warmup:</b> Warmup duration, unit as second, not recorded. Default as 5
+ * <li><b>duration:</b> Measured duration, unit as second. Default as 30
+ * <li><b>output:</b> File of the JSON report, none if not specified
+ */
+public class LoadOptions {
+
+    /** Load modes */
+    public static final String OPEN_LOOP = "open";
+    public static final String CLOSED_LOOP = "closed";
+
+    private final Properties properties = new Properties();
+
+    /**
+     * Parse the options from the command line arguments
+     * 
+     * @param args <code>--key=value</code> arguments
+     * @return options
+     * @throws IOException if the config file can't be read
+     */
+    public static LoadOptions parse(String[] args) throws IOException {
+        LoadOptions options = new LoadOptions();
+        Properties overrides = new Properties();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            Assert.isTrue(arg.startsWith("--") && separator > 2, "Invalid argument, expected --key=value: " + arg);
+            overrides.setProperty(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        String config = overrides.getProperty("config");
+        if (config != null) {
+            try (InputStream input = new FileInputStream(config)) {
+                options.properties.load(input);
+            }
+        }
+        options.properties.putAll(overrides);
+
+        options.validate();
+        return options;
+    }
+
+    private void validate() {
+        String type = getType();
+        Assert.isTrue(UidGenerators.DEFAULT.equals(type) || UidGenerators.CACHED.equals(type)
+                || UidGenerators.MULTI_WORKER.equals(type), "Unknown generator type: " + type);
+        Assert.isTrue(OPEN_LOOP.equals(getMode()) || CLOSED_LOOP.equals(getMode()), "Unknown mode: " + getMode());
+        Assert.isTrue(getThreads() > 0, "Threads must be positive!");
+        Assert.isTrue(getRate() > 0, "Rate must be positive!");
+        Assert.isTrue(getWarmupSeconds() >= 0, "Warmup can't be negative!");
+        Assert.isTrue(getDurationSeconds() > 0, "Duration must be positive!");
+    }
+
+    /**
+     * Getters
+     */
+    public String getType() {
+        return properties.getProperty("type", UidGenerators.CACHED);
+    }
+
+    public int getTimeBits() {
+        return getInt("timeBits", UidGenerators.TIME_BITS);
+    }
+
+    public int getWorkerBits() {
+        return getInt("workerBits", UidGenerators.WORKER_BITS);
+    }
+
+    public int getSeqBits() {
+        return getInt("seqBits", UidGenerators.SEQ_BITS);
+    }
+
+    public int getBoostPower() {
+        return getInt("boostPower", UidGenerators.BOOST_POWER);
+    }
+
+    public String getMode() {
+        return properties.getProperty("mode", CLOSED_LOOP);
+    }
+
+    public boolean isOpenLoop() {
+        return OPEN_LOOP.equals(getMode());
+    }
+
+    public int getThreads() {
+        return getInt("threads", Runtime.getRuntime().availableProcessors());
+    }
+
+    public long getRate() {
+        return Long.parseLong(properties.getProperty("rate", "1000000"));
+    }
+
+    public int getWarmupSeconds() {
+        return getInt("warmup", 5);
+    }
+
+    public int getDurationSeconds() {
+        return getInt("duration", 30);
+    }
+
+    public String getOutput() {
+        return properties.getProperty("output");
+    }
+
+    private int getInt(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+}
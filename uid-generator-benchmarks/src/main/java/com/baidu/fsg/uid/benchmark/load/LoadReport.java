@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2017 Baidu, Inc. All Rights Reserve.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.baidu.fsg.uid.benchmark.load;
+
+import java.util.Locale;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Report of a {@link LoadGenerator} run, as the text for humans or the JSON for diffing runs<p>
+ * 
+ * The latencies are in nanoseconds in the JSON, and in microseconds in the text
+ */
+public class LoadReport {
+
+    /** Percentiles reported */
+    private static final double[] PERCENTILES = { 50.0, 90.0, 99.0, 99.9, 99.99 };
+    private static final String[] PERCENTILE_NAMES = { "p50", "p90", "p99", "p99.9", "p99.99" };
+
+    private final LoadOptions options;
+    private final Histogram histogram;
+    private final long rejections;
+    private final long gcCollections;
+    private final long gcTotalMillis;
+    private final long gcMaxPauseMillis;
+
+    /**
+     * Constructor with the merged histogram, the rejections & the GC monitor stopped
+     */
+    public LoadReport(LoadOptions options, Histogram histogram, long rejections, GcPauseMonitor gcMonitor) {
+        this.options = options;
+        this.histogram = histogram;
+        this.rejections = rejections;
+        this.gcCollections = gcMonitor.getCollections();
+        this.gcTotalMillis = gcMonitor.getTotalMillis();
+        this.gcMaxPauseMillis = gcMonitor.getMaxPauseMillis();
+    }
+
+    /**
+     * Generated UIDs per second in the measured duration
+     */
+    public double getThroughput() {
+        return (double) histogram.getTotalCount() / options.getDurationSeconds();
+    }
+
+    /**
+     * Format the report as a JSON object
+     * 
+     * @return JSON
+     */
+    public String toJson() {
+        StringBuilder builder = new StringBuilder(512);
+        builder.append("{\n");
+        builder.append("  \"config\": {");
+        builder.append("\"type\": \"").append(options.getType()).append("\", ");
+        builder.append("\"timeBits\": ").append(options.getTimeBits()).append(", ");
+        builder.append("\"workerBits\": ").append(options.getWorkerBits()).append(", ");
+        builder.append("\"seqBits\": ").append(options.getSeqBits()).append(", ");
+        builder.append("\"boostPower\": ").append(options.getBoostPower()).append(", ");
+        builder.append("\"mode\": \"").append(options.getMode()).append("\", ");
+        builder.append("\"threads\": ").append(options.getThreads()).append(", ");
+        if (options.isOpenLoop()) {
+            builder.append("\"rate\": ").append(options.getRate()).append(", ");
+        }
+        builder.append("\"warmupSeconds\": ").append(options.getWarmupSeconds()).append(", ");
+        builder.append("\"durationSeconds\": ").append(options.getDurationSeconds()).append("},\n");
+
+        builder.append("  \"count\": ").append(histogram.getTotalCount()).append(",\n");
+        builder.append("  \"throughput\": ").append(format(getThroughput())).append(",\n");
+        builder.append("  \"rejections\": ").append(rejections).append(",\n");
+
+        builder.append("  \"latencyNanos\": {");
+        builder.append("\"min\": ").append(histogram.getMinValue()).append(", ");
+        builder.append("\"mean\": ").append(format(histogram.getMean())).append(", ");
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            builder.append('"').append(PERCENTILE_NAMES[i]).append("\": ")
+                    .append(histogram.getValueAtPercentile(PERCENTILES[i])).append(", ");
+        }
+        builder.append("\"max\": ").append(histogram.getMaxValue()).append("},\n");
+
+        builder.append("  \"gc\": {");
+        builder.append("\"collections\": ").append(gcCollections).append(", ");
+        builder.append("\"totalMillis\": ").append(gcTotalMillis).append(", ");
+        builder.append("\"maxPauseMillis\": ").append(gcMaxPauseMillis).append("}\n");
+        builder.append("}\n");
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(512);
+        builder.append(String.format(Locale.ROOT, "%s %s-loop, %d threads", options.getType(), options.getMode(),
+                options.getThreads()));
+        if (options.isOpenLoop()) {
+            builder.append(String.format(Locale.ROOT, ", offered %,d UID/s", options.getRate()));
+        }
+        builder.append(String.format(Locale.ROOT, ", %d s%n", options.getDurationSeconds()));
+        builder.append(String.format(Locale.ROOT, "  throughput: %,.0f UID/s, rejections: %,d%n", getThroughput(),
+                rejections));
+
+        builder.append("  latency(us):");
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            builder.append(String.format(Locale.ROOT, " %s=%.3f", PERCENTILE_NAMES[i],
+                    histogram.getValueAtPercentile(PERCENTILES[i]) / 1000.0));
+        }
+        builder.append(String.format(Locale.ROOT, " max=%.3f%n", histogram.getMaxValue() / 1000.0));
+        builder.append(String.format(Locale.ROOT, "  gc: %d collections, %d ms total, %d ms max pause",
+                gcCollections, gcTotalMillis, gcMaxPauseMillis));
+        return builder.toString();
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+}